@@ -29,6 +29,17 @@ import scrapers.*;
 
 public class Main {
     public static void main(String[] args) {
+        // Runs a batch of queries on the data already scraped instead of the menus when arguments are given
+        // (Eg. java Main --batch queries.txt --out results.csv)
+        if (args.length > 0) {
+            try {
+                new BatchRunner(args).executeFeature(null);
+            } catch (IllegalArgumentException e) {
+                System.out.println(e.getMessage() + "\n" + BatchRunner.USAGE);
+            }
+            return;
+        }
+
         // Creates an instance of each scraper and an input for the user
         LeagueTableScraper tableData = new LeagueTableScraper();
         FixtureScraper matchData = new FixtureScraper();
@@ -55,7 +66,8 @@ public class Main {
             System.out.println("   (1) Predict Match Outcome");
             System.out.println("   (2) Head-to-Head Statistics");
             System.out.println("   (3) Simulate Full Season");
-            System.out.println("   (4) Analyze League Table/Teams \n");
+            System.out.println("   (4) Analyze League Table/Teams");
+            System.out.println("   (5) Expected Points Tables \n");
             System.out.println("   (0) End \n");
             System.out.print("Enter your choice: ");
 
@@ -67,19 +79,23 @@ public class Main {
             switch (choice) {
                 case "1":
                     MatchPredictor predictor = new MatchPredictor();
-                    predictor.executeFeature();
+                    predictor.executeFeature(input);
                     break;
                 case "2":
                     H2HStats h2hStats = new H2HStats();
-                    h2hStats.executeFeature();
+                    h2hStats.executeFeature(input);
                     break;
                 case "3":
                     SimulateSeason simulateSeason = new SimulateSeason();
-                    simulateSeason.executeFeature();
+                    simulateSeason.executeFeature(input);
                     break;
                 case "4":
                     AnalyzeTable analyzeTable = new AnalyzeTable();
-                    analyzeTable.executeFeature();
+                    analyzeTable.executeFeature(input);
+                    break;
+                case "5":
+                    ExpectedPoints expectedPoints = new ExpectedPoints();
+                    expectedPoints.executeFeature(input);
                     break;
                 case "0":
                     System.out.println("Ending program.");
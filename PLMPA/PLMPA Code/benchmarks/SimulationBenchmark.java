@@ -0,0 +1,423 @@
+package benchmarks;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import modules.*;
+
+/** A small benchmark for the season simulator that prints how fast its hot paths run.
+ * It loads the 2024/2025 season from the CSV files and times each part of a simulated season on its own.
+ * Run it from the folder with the data folder, after compiling: java benchmarks.SimulationBenchmark
+ */
+public class SimulationBenchmark {
+
+    // Number of untimed rounds run first so the JIT compiler has warmed up
+    private static final int WARMUP_ROUNDS = 5;
+
+    // Number of timed rounds averaged for each result
+    private static final int MEASURED_ROUNDS = 5;
+
+    // Number of times the season's fixtures are played in one round
+    private static final int SEASONS_PER_ROUND = 5000;
+
+    // Number of seasons each fixture is sampled for at once by the batched sampler
+    private static final int BATCH_SIZE = 250;
+
+    // Value every benchmark adds its results to so the JIT compiler cannot skip the work
+    private static long sink;
+
+
+    /** Runs every benchmark and prints the results
+     * @param args not used
+     */
+    public static void main(String[] args) throws java.io.IOException {
+        SimulateSeason simulation = new SimulateSeason();
+        simulation.loadSeason("2024 2025");
+
+        // Uses the compiled schedule so only the match sampling is timed
+        int[] home = simulation.getSchedule().getHomeTeams();
+        int[] away = simulation.getSchedule().getAwayTeams();
+
+        System.out.println("--- Simulation Benchmark (" + home.length + " fixtures, " + SEASONS_PER_ROUND + " seasons per round) ---");
+        benchmarkMatchSampling(simulation, home, away);
+        benchmarkSeasonLoop(simulation);
+        benchmarkRanking(simulation);
+        benchmarkProjection(simulation);
+        benchmarkResultCache();
+        benchmarkWorkers();
+        benchmarkIncrementalUpdate(simulation);
+        benchmarkScheduleGenerator();
+        benchmarkReportWriter(simulation);
+        System.out.println("(checksum " + sink + ")");
+    }
+
+
+    /** Compares sampling goals trial by trial from the strengths against sampling from the precomputed outcome table
+     * @param simulation the simulation with a loaded season
+     * @param home the index of the home team of each fixture
+     * @param away the index of the away team of each fixture
+     */
+    private static void benchmarkMatchSampling(SimulateSeason simulation, int[] home, int[] away) {
+        double[][] strengths = simulation.getStrengths();
+        OutcomeTable outcomes = simulation.getOutcomes();
+        int trials = outcomes.getTrials();
+        long matchesPerRound = (long) home.length * SEASONS_PER_ROUND;
+
+        // Samples every match the way the simulator did before the outcome table existed
+        double direct = measure(matchesPerRound, () -> {
+            SplittableRandom random = new SplittableRandom(1);
+            long goals = 0;
+            for (int season = 0; season < SEASONS_PER_ROUND; season++) {
+                for (int i = 0; i < home.length; i++) {
+                    double homeXG = strengths[home[i]][0] * strengths[away[i]][1];
+                    double awayXG = strengths[away[i]][0] * strengths[home[i]][1];
+                    goals += sampleTrials(homeXG, trials, random) - sampleTrials(awayXG, trials, random);
+                }
+            }
+            sink += goals;
+        });
+
+        // Samples every match with one lookup in the precomputed outcome table
+        double table = measure(matchesPerRound, () -> {
+            SplittableRandom random = new SplittableRandom(1);
+            long goals = 0;
+            for (int season = 0; season < SEASONS_PER_ROUND; season++) {
+                for (int i = 0; i < home.length; i++) {
+                    int outcome = outcomes.sample(home[i], away[i], random);
+                    goals += OutcomeTable.homeGoals(outcome) - OutcomeTable.awayGoals(outcome);
+                }
+            }
+            sink += goals;
+        });
+
+        // Samples each fixture for a batch of seasons at once, the way a season loop over many seasons side by side would
+        double batched = measure(matchesPerRound, () -> {
+            SplittableRandom random = new SplittableRandom(1);
+            long[] bits = new long[BATCH_SIZE];
+            int[] results = new int[BATCH_SIZE];
+            long goals = 0;
+            for (int batch = 0; batch < SEASONS_PER_ROUND; batch += BATCH_SIZE) {
+                for (int i = 0; i < home.length; i++) {
+                    outcomes.sampleBatch(home[i], away[i], random, bits, results, BATCH_SIZE);
+                    for (int season = 0; season < BATCH_SIZE; season++) {
+                        goals += OutcomeTable.homeGoals(results[season]) - OutcomeTable.awayGoals(results[season]);
+                    }
+                }
+            }
+            sink += goals;
+        });
+
+        printRate("Match sampling, trial by trial", direct, "matches");
+        printRate("Match sampling, outcome table", table, "matches");
+        printRate("Match sampling, batched outcome table", batched, "matches");
+    }
+
+
+    /** Times playing the fixtures of whole seasons into a reused league table and measures what it allocates
+     * @param simulation the simulation with a loaded season
+     */
+    private static void benchmarkSeasonLoop(SimulateSeason simulation) {
+        SeasonSimulator simulator = new SeasonSimulator(simulation.getSchedule(), simulation.getOutcomes(), simulation.getRanker());
+        SplittableRandom random = new SplittableRandom(1);
+
+        double rate = measure(SEASONS_PER_ROUND, () -> {
+            for (int season = 0; season < SEASONS_PER_ROUND; season++) {
+                simulator.playFixtures(random);
+            }
+            sink += simulator.getTable()[0][5];
+        });
+
+        // Counts the bytes this thread allocates while playing the seasons after warming up
+        long allocated = measureAllocation(() -> {
+            for (int season = 0; season < SEASONS_PER_ROUND; season++) {
+                simulator.playFixtures(random);
+            }
+        });
+
+        printRate("Season fixture loop", rate, "seasons");
+        System.out.printf("%-45s %15.1f bytes/season\n", "Season fixture loop allocation", (double) allocated / SEASONS_PER_ROUND);
+    }
+
+
+    /** Times sorting a simulated league table and measures what a full simulated season allocates
+     * @param simulation the simulation with a loaded season
+     */
+    private static void benchmarkRanking(SimulateSeason simulation) {
+        SeasonSimulator simulator = new SeasonSimulator(simulation.getSchedule(), simulation.getOutcomes(), simulation.getRanker());
+        SplittableRandom random = new SplittableRandom(1);
+        int ranksPerRound = SEASONS_PER_ROUND * 100;
+
+        // Sorts the same played table over and over, starting from team order each time
+        simulator.playFixtures(random);
+        double rate = measure(ranksPerRound, () -> {
+            for (int rank = 0; rank < ranksPerRound; rank++) {
+                sink += simulator.rankTable()[0][0];
+            }
+        });
+
+        // Counts the bytes a full season allocates, from clearing the table to sorting it, after warming up
+        for (int season = 0; season < SEASONS_PER_ROUND; season++) {
+            simulator.simulate(random);
+        }
+        long allocated = measureAllocation(() -> {
+            for (int season = 0; season < SEASONS_PER_ROUND; season++) {
+                simulator.simulate(random);
+            }
+        });
+
+        printRate("League table ranking", rate, "tables");
+        System.out.printf("%-45s %15.1f bytes/season\n", "Full season allocation", (double) allocated / SEASONS_PER_ROUND);
+    }
+
+
+    /** Compares the parallel Monte Carlo of the full season against projecting only the unplayed fixtures
+     * @param simulation the simulation with a loaded season
+     */
+    private static void benchmarkProjection(SimulateSeason simulation) {
+
+        // Turns off the result cache so every round is simulated instead of looked up
+        simulation.setResultCache(null);
+
+        double full = measure(SEASONS_PER_ROUND, () -> sink += simulation.runMonteCarlo(SEASONS_PER_ROUND).getRuns());
+        double rest = measure(SEASONS_PER_ROUND, () -> sink += simulation.projectRestOfSeason(SEASONS_PER_ROUND).getRuns());
+
+        printRate("Monte Carlo, full season", full, "seasons");
+        printRate("Monte Carlo, rest of season (" + simulation.getRemainingSchedule().size() + " fixtures)", rest, "seasons");
+    }
+
+
+    /** Compares the first projection of a season against asking for the same projection again from the result cache
+     */
+    private static void benchmarkResultCache() {
+        SimulateSeason simulation = new SimulateSeason();
+        simulation.setSeed(1);
+        simulation.loadSeason("2024 2025");
+
+        long start = System.nanoTime();
+        sink += simulation.projectRestOfSeason(SEASONS_PER_ROUND * 10).getRuns();
+        double first = (System.nanoTime() - start) / 1e6;
+
+        start = System.nanoTime();
+        sink += simulation.projectRestOfSeason(SEASONS_PER_ROUND * 10).getRuns();
+        double repeat = (System.nanoTime() - start) / 1e6;
+
+        System.out.printf("%-45s %15.3f ms\n", "Projection, first request", first);
+        System.out.printf("%-45s %15.3f ms\n", "Projection, repeated from cache", repeat);
+    }
+
+
+    /** Compares a projection run in this process against the same projection sharded across worker processes, including the time to start them
+     * @throws java.io.IOException if a worker cannot be started
+     */
+    private static void benchmarkWorkers() throws java.io.IOException {
+        SimulateSeason simulation = new SimulateSeason();
+        simulation.setSeed(1);
+        simulation.setResultCache(null);
+        simulation.loadSeason("2024 2025");
+        int runs = SEASONS_PER_ROUND * 40;
+
+        long start = System.nanoTime();
+        SimulationSummary local = simulation.projectRestOfSeason(runs);
+        double localRate = runs / ((System.nanoTime() - start) / 1e9);
+        printRate("Projection, in process", localRate, "seasons");
+
+        for (int workers = 1; workers <= 2; workers++) {
+            start = System.nanoTime();
+            SimulationSummary sharded = new SimulationCoordinator(workers).run("2024 2025", true, 1, runs);
+            double rate = runs / ((System.nanoTime() - start) / 1e9);
+            printRate("Projection, " + workers + " worker process(es)" + (sameCounts(local, sharded) ? "" : " MISMATCH"), rate, "seasons");
+        }
+    }
+
+
+    /** Compares simulating the rest of the season again against swapping one real result into the stored simulated seasons
+     * @param simulation the simulation with a loaded season
+     */
+    private static void benchmarkIncrementalUpdate(SimulateSeason simulation) {
+        int runs = SEASONS_PER_ROUND * 20;
+        double full = measure(runs, () -> sink += simulation.projectRestOfSeason(runs).getRuns());
+
+        // Each round stores a fresh set of seasons and applies the same result to the first unplayed fixture
+        UniverseStore[] stores = new UniverseStore[WARMUP_ROUNDS + MEASURED_ROUNDS];
+        for (int i = 0; i < stores.length; i++) {
+            stores[i] = new UniverseStore(simulation.getData(), simulation.getRanker(), i);
+            stores[i].addUniverses(runs);
+        }
+        int[] round = {0};
+        double update = measure(runs, () -> sink += stores[round[0]++].applyResult(0, 1, 0).getRuns());
+
+        printRate("Projection, simulated again", full, "seasons");
+        printRate("Projection, one result swapped in", update, "seasons");
+        System.out.printf("%-45s %15d bytes/season\n", "Stored season size", stores[0].getBytesPerUniverse());
+    }
+
+
+    /** Times generating and checking random 20 team fixture lists
+     */
+    private static void benchmarkScheduleGenerator() {
+        ScheduleGenerator generator = new ScheduleGenerator(20);
+        SplittableRandom random = new SplittableRandom(1);
+        int schedulesPerRound = SEASONS_PER_ROUND * 4;
+        int[] invalid = {0};
+
+        double rate = measure(schedulesPerRound, () -> {
+            for (int i = 0; i < schedulesPerRound; i++) {
+                CompiledSchedule schedule = generator.generate(random);
+                if (!ScheduleGenerator.isValid(schedule, 20)) {
+                    invalid[0]++;
+                }
+                sink += schedule.getHomeTeams()[0];
+            }
+        });
+
+        printRate("Schedule generation and validation" + (invalid[0] == 0 ? "" : " (" + invalid[0] + " INVALID)"), rate, "schedules");
+    }
+
+
+    /** Compares printing league table rows with String.format against writing them through a ReportWriter in each format
+     * @param simulation the simulation with a loaded season, used for its team names
+     */
+    private static void benchmarkReportWriter(SimulateSeason simulation) {
+        List<String> teams = simulation.getTeams();
+        int rowsPerRound = SEASONS_PER_ROUND * 20;
+        String[] columns = { "Rk", "Squad", "MP", "W", "D", "L", "GF", "GA", "GD", "Pts", "Pts/MP", "xG", "xGA", "xGD", "xGD/90" };
+        int[] widths = { -5, -20, -3, -3, -3, -3, -3, -3, -3, -3, -7, -7, -7, -7, -7 };
+
+        // Writes to a writer that throws the text away, so only the rendering is timed
+        PrintWriter out = new PrintWriter(Writer.nullWriter());
+
+        double formatRate = measure(rowsPerRound, () -> {
+            for (int i = 0; i < rowsPerRound; i++) {
+                String line = String.format("%-5d %-20s %-3d %-3d %-3d %-3d %-3d %-3d %-3d %-3d %-7.2f %-7.2f %-7.2f %-7.2f %-7.2f",
+                        i % 20 + 1, teams.get(i % teams.size()), 38, i % 30, i % 9, i % 11, i % 90, i % 70, i % 90 - i % 70, i % 100,
+                        i % 100 / 38.0, i % 80 * 1.1, i % 60 * 1.1, i % 80 * 1.1 - i % 60 * 1.1, (i % 80 - i % 60) / 38.0);
+                out.println(line);
+                sink += line.length();
+            }
+        });
+        printRate("Table rows with String.format", formatRate, "rows");
+
+        for (ReportWriter.Format format : ReportWriter.Format.values()) {
+            double rate = measure(rowsPerRound, () -> {
+                ReportWriter report = new ReportWriter(out, format, columns, widths);
+                for (int i = 0; i < rowsPerRound; i++) {
+                    report.cell(i % 20 + 1);
+                    report.cell(teams.get(i % teams.size()));
+                    report.cell(38);
+                    report.cell(i % 30);
+                    report.cell(i % 9);
+                    report.cell(i % 11);
+                    report.cell(i % 90);
+                    report.cell(i % 70);
+                    report.cell(i % 90 - i % 70);
+                    report.cell(i % 100);
+                    report.cell(i % 100 / 38.0, 2);
+                    report.cell(i % 80 * 1.1, 2);
+                    report.cell(i % 60 * 1.1, 2);
+                    report.cell(i % 80 * 1.1 - i % 60 * 1.1, 2);
+                    report.cell((i % 80 - i % 60) / 38.0, 2);
+                    report.endRow();
+                }
+                report.finish();
+                sink += report.getRowCount();
+            });
+            printRate("Table rows with ReportWriter (" + format + ")", rate, "rows");
+        }
+    }
+
+
+    /** Checks that two summaries hold exactly the same counts
+     * @param first the first summary
+     * @param second the second summary
+     * @return true if every count is the same, otherwise false
+     */
+    private static boolean sameCounts(SimulationSummary first, SimulationSummary second) {
+        if (first.getRuns() != second.getRuns() || first.getTeamCount() != second.getTeamCount()) {
+            return false;
+        }
+        for (int team = 0; team < first.getTeamCount(); team++) {
+            if (first.getPointsTotal(team) != second.getPointsTotal(team)) {
+                return false;
+            }
+            for (int position = 0; position < first.getTeamCount(); position++) {
+                if (first.getPositionCount(team, position) != second.getPositionCount(team, position)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+
+    /** Samples goals trial by trial, the way the simulator used to before the outcome table
+     * @param mean the expected goals for the team
+     * @param trials the number of trials
+     * @param random the random stream to draw from
+     * @return the number of goals scored
+     */
+    private static int sampleTrials(double mean, int trials, SplittableRandom random) {
+        double p = 1 / (1 + mean);
+        int goals = 0;
+        for (int trial = 0; trial < trials; trial++) {
+            if (random.nextDouble() < p) {
+                goals++;
+            }
+        }
+        return goals;
+    }
+
+
+    /** Runs a piece of work through the warmup and measured rounds
+     * @param operationsPerRound the number of operations done by one round of the work
+     * @param work the work to time
+     * @return the average number of operations per second over the measured rounds
+     */
+    private static double measure(long operationsPerRound, Runnable work) {
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            work.run();
+        }
+
+        long start = System.nanoTime();
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            work.run();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        return operationsPerRound * MEASURED_ROUNDS / (elapsed / 1e9);
+    }
+
+
+    /** Counts the bytes the current thread allocates while running a piece of work
+     * @param work the work to measure
+     * @return the allocated bytes, not counting what reading the counter allocates itself
+     */
+    private static long measureAllocation(Runnable work) {
+
+        // Reads the counter twice in a row to find out what a read costs
+        long first = allocatedBytes();
+        long overhead = allocatedBytes() - first;
+
+        long before = allocatedBytes();
+        work.run();
+        return allocatedBytes() - before - overhead;
+    }
+
+
+    /** Gets the number of bytes the current thread has allocated so far
+     * @return the allocated bytes reported by the JVM
+     */
+    private static long allocatedBytes() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+
+    /** Prints one benchmark result
+     * @param name the name of the benchmark
+     * @param rate the number of operations per second
+     * @param unit the name of one operation
+     */
+    private static void printRate(String name, double rate, String unit) {
+        System.out.printf("%-45s %,15.0f %s/sec\n", name, rate, unit);
+    }
+}
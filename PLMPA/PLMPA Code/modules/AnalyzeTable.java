@@ -1,4 +1,5 @@
 package modules;
+import java.io.*;
 import java.util.*;
 
 /** An analyze league table and team feature where users can analyze league stats from various seasons and league stats from different teams.
@@ -6,6 +7,17 @@ import java.util.*;
  */
 public class AnalyzeTable extends BaseFeatures {
 
+    // Names and widths of the columns of a league table row, where a negative width pads on the right
+    private static final String[] STATS_COLUMNS = { "Rk", "Squad", "MP", "W", "D", "L", "GF", "GA", "GD", "Pts", "Pts/MP", "xG", "xGA", "xGD", "xGD/90" };
+    private static final int[] STATS_WIDTHS = { -5, -20, -3, -3, -3, -3, -3, -3, -3, -3, -7, -7, -7, -7, -7 };
+
+    // Width of the season column added in front of the rows of other seasons (Eg. [2024 2025])
+    private static final int SEASON_WIDTH = -11;
+
+    // Files the export of every season is written to
+    private static final String EXPORT_CSV_FILE = "data/League Tables Export.csv";
+    private static final String EXPORT_JSON_FILE = "data/League Tables Export.json";
+
     // Instance variables to track stats
     private String season;
     private String squad;
@@ -26,6 +38,15 @@ public class AnalyzeTable extends BaseFeatures {
     private double xGD;
     private double xGDPer90;
 
+    // Timeline of each season rebuilt from the fixtures, created the first time a season is asked for
+    private Map<String, SeasonTimeline> timelines;
+
+    // Recent form of every team over its last 5 and 10 matches, built when the data loads
+    private FormTracker form;
+
+    // When the fixtures file had last changed the last time the form was updated
+    private long formModified;
+
 
     /** Gets the season associated with the team
      * @return the year of the season
@@ -253,87 +274,107 @@ public class AnalyzeTable extends BaseFeatures {
     }
 
 
-    /** Loads and parses the league table data from a CSV file
+    /** Loads and parses the league table data from a CSV file into one AnalyzeTable object per row.
+     * The rows are read through a LeagueTableStore, so rows that cannot be parsed are reported instead of ignored.
      * @param filePath the path to the CSV file containing league data
-     * @param seasonFilter the season data to load and parse
+     * @param seasonFilter the season data to load and parse, or null for every season
      * @return an ArrayList of AnalyzeTable objects containing the league data
      */
     public ArrayList<AnalyzeTable> loadLeagueTable(String filePath, String seasonFilter) {
         ArrayList<AnalyzeTable> rows = new ArrayList<>();
+        LeagueTableStore store = LeagueTableStore.load(filePath);
 
-        // Reads the data from the CSV file
-        ArrayList<String[]> data = readCSV(filePath, true, seasonFilter);
-        
-        // Iterates over each row of data to create AnalyzeTable objects
-        for (String[] row : data) {
-            try {
-
-                // Extracts stats
-                String season = row[0];
-                String[] stats = new String[row.length - 1];
-                for (int i = 1; i < row.length; i++) {
-                    stats[i - 1] = row[i];
-                }               
-
-                // Adds the created AnalyzeTable object to the rows list
-                rows.add(createStats(season, stats));
-
-            } catch (Exception e) {}
+        // Adds an AnalyzeTable object for each row of the chosen season
+        for (int row = 0; row < store.getRowCount(); row++) {
+            if (seasonFilter == null || store.getSeason(row).equals(seasonFilter)) {
+                rows.add(createStats(store, row));
+            }
         }
         return rows;
     }
 
 
-    /** Creates an AnalyzeTable object from raw league data.
-     * @param season the season for which stats are being created
-     * @param data an array of stats for the team in that season
-     * @return an AnalyzeTable object containing the parsed stats
+    /** Creates an AnalyzeTable object from a row of the league table store.
+     * @param store the store of the league data
+     * @param row the row of the team and season
+     * @return an AnalyzeTable object containing the stats of the row
      */
-    private AnalyzeTable createStats(String season, String[] data) {
+    private AnalyzeTable createStats(LeagueTableStore store, int row) {
         AnalyzeTable stats = new AnalyzeTable();
         
         // Set the season and various stats values in the AnalyzeTable object
-        stats.setSeason(season);
-        stats.setRank(Integer.parseInt(data[0]));
-        stats.setSquad(data[1]);
-        stats.setMatchesPlayed(Integer.parseInt(data[2]));
-        stats.setWins(Integer.parseInt(data[3]));
-        stats.setDraws(Integer.parseInt(data[4]));
-        stats.setLosses(Integer.parseInt(data[5]));
-        stats.setGoalsFor(Integer.parseInt(data[6]));
-        stats.setGoalsAgainst(Integer.parseInt(data[7]));
-        stats.setGoalDifference(Integer.parseInt(data[8]));
-        stats.setPoints(Integer.parseInt(data[9]));
-        stats.setPointsPerMatch(Double.parseDouble(data[10]));
-        stats.setxG(Double.parseDouble(data[11]));
-        stats.setxGA(Double.parseDouble(data[12]));
-        stats.setxGD(Double.parseDouble(data[13]));
-        stats.setxGDPer90(Double.parseDouble(data[14]));
+        stats.setSeason(store.getSeason(row));
+        stats.setRank(store.getInt(LeagueTableStore.RANK, row));
+        stats.setSquad(store.getSquad(row));
+        stats.setMatchesPlayed(store.getInt(LeagueTableStore.MATCHES_PLAYED, row));
+        stats.setWins(store.getInt(LeagueTableStore.WINS, row));
+        stats.setDraws(store.getInt(LeagueTableStore.DRAWS, row));
+        stats.setLosses(store.getInt(LeagueTableStore.LOSSES, row));
+        stats.setGoalsFor(store.getInt(LeagueTableStore.GOALS_FOR, row));
+        stats.setGoalsAgainst(store.getInt(LeagueTableStore.GOALS_AGAINST, row));
+        stats.setGoalDifference(store.getInt(LeagueTableStore.GOAL_DIFFERENCE, row));
+        stats.setPoints(store.getInt(LeagueTableStore.POINTS, row));
+        stats.setPointsPerMatch(store.getValue(LeagueTableStore.POINTS_PER_MATCH, row));
+        stats.setxG(store.getValue(LeagueTableStore.XG, row));
+        stats.setxGA(store.getValue(LeagueTableStore.XGA, row));
+        stats.setxGD(store.getValue(LeagueTableStore.XGD, row));
+        stats.setxGDPer90(store.getValue(LeagueTableStore.XGD_PER_90, row));
         
         return stats;
     }
 
 
-    /** Formats the team stats
-     * @param stats the AnalyzeTable object containing the team stats to be formatted
-     * @return a formatted string of the team stats
+    /** Creates a report with the columns of a league table row
+     * @param out the writer the report goes to
+     * @param format the layout of the report
+     * @param withSeason true to add a season column in front of the stats
+     * @return the report, with its header added
      */
-    private String formatStats(AnalyzeTable stats) {
+    private ReportWriter createStatsReport(PrintWriter out, ReportWriter.Format format, boolean withSeason) {
+        if (!withSeason) {
+            return new ReportWriter(out, format, STATS_COLUMNS, STATS_WIDTHS);
+        }
 
-        // Format the stats with padding and alignment for each column
-        return String.format(
-                "%-5d %-20s %-3d %-3d %-3d %-3d %-3d %-3d %-3d %-3d %-7.2f %-7.2f %-7.2f %-7.2f %-7.2f",
-                stats.getRank(), stats.getSquad(), stats.getMatchesPlayed(), stats.getWins(), stats.getDraws(), stats.getLosses(),
-                stats.getGoalsFor(), stats.getGoalsAgainst(), stats.getGoalDifference(), stats.getPoints(), stats.getPointsPerMatch(),
-                stats.getxG(), stats.getxGA(), stats.getxGD(), stats.getxGDPer90());
+        // Adds the season column in front of the other columns
+        String[] columns = new String[STATS_COLUMNS.length + 1];
+        int[] widths = new int[STATS_WIDTHS.length + 1];
+        columns[0] = "Season";
+        widths[0] = SEASON_WIDTH;
+        System.arraycopy(STATS_COLUMNS, 0, columns, 1, STATS_COLUMNS.length);
+        System.arraycopy(STATS_WIDTHS, 0, widths, 1, STATS_WIDTHS.length);
+        return new ReportWriter(out, format, columns, widths);
+    }
+
+
+    /** Adds the team stats of a row to a report
+     * @param report the report created by createStatsReport
+     * @param store the store of the league data
+     * @param row the row of the team stats to be added
+     * @param season the text of the season column, or null if the report has no season column
+     */
+    private void addStatsRow(ReportWriter report, LeagueTableStore store, int row, String season) {
+        if (season != null) {
+            report.cell(season);
+        }
+
+        // Adds the whole number columns and then the decimal columns to 2 places
+        report.cell(store.getInt(LeagueTableStore.RANK, row));
+        report.cell(store.getSquad(row));
+        for (int column = LeagueTableStore.MATCHES_PLAYED; column <= LeagueTableStore.POINTS; column++) {
+            report.cell(store.getInt(column, row));
+        }
+        for (int column = LeagueTableStore.POINTS_PER_MATCH; column <= LeagueTableStore.XGD_PER_90; column++) {
+            report.cell(store.getValue(column, row), 2);
+        }
+        report.endRow();
     }
 
 
     /** Asks the user for the season and prints that season table
-     * @param leagueTable the list of AnalyzeTable objects containing league data
+     * @param leagueTable the store of the league data
      * @param input the Scanner object to read user input
      */
-    private void handleViewSeason(ArrayList<AnalyzeTable> leagueTable, Scanner input) {
+    private void handleViewSeason(LeagueTableStore leagueTable, Scanner input) {
 
         while (true) {
 
@@ -342,24 +383,23 @@ public class AnalyzeTable extends BaseFeatures {
 
             // Prints the league table header for the entered season
             System.out.printf("\n--- League Table for %s ---\n", season);
-            System.out.println("Rk    Squad                MP  W   D   L   GF  GA  GD  Pts Pts/MP  xG      xGA     xGD     xGD/90");
+            ReportWriter report = createStatsReport(new PrintWriter(System.out), ReportWriter.Format.FIXED_WIDTH, false);
 
-            // Iterates through each row in the league table and print stats for the matching season
-            for (AnalyzeTable row : leagueTable) {
-                if (row.getSeason().equals(season)) {
-                    System.out.println(formatStats(row)); 
-                }
+            // Prints the rows of the season, which the store keeps in rank order
+            for (int row : leagueTable.getSeasonRows(season)) {
+                addStatsRow(report, leagueTable, row, null);
             }
+            report.finish();
             break; 
         }
     }
 
 
     /** Asks the user for the teams and seasons and prints out the stats for them
-     * @param leagueTable the list of AnalyzeTable objects containing league data
+     * @param leagueTable the store of the league data
      * @param input the Scanner object to read user input
      */
-    private void handleCompareTeams(ArrayList<AnalyzeTable> leagueTable, Scanner input) {
+    private void handleCompareTeams(LeagueTableStore leagueTable, Scanner input) {
         
         while (true) {
 
@@ -430,25 +470,25 @@ public class AnalyzeTable extends BaseFeatures {
 
 
     /** Prints the league table stats for a specific team in a given season
-     * @param leagueTable the list of AnalyzeTable objects containing league data
+     * @param leagueTable the store of the league data
      * @param team the name of the team whose stats are to be printed
      * @param season the season for which the stats are to be printed
      * @return true if data is found for the specified team and season, otherwise false
      */
-    private boolean printStatsForSeason(ArrayList<AnalyzeTable> leagueTable, String team, String season) {
+    private boolean printStatsForSeason(LeagueTableStore leagueTable, String team, String season) {
 
         // Prints the header for the stats table of the specified team and season
         System.out.printf("\n--- Stats for %s in %s ---\n", team, season);
-        System.out.println("Rk    Squad                MP  W   D   L   GF  GA  GD  Pts Pts/MP  xG      xGA     xGD     xGD/90");
+        ReportWriter report = createStatsReport(new PrintWriter(System.out), ReportWriter.Format.FIXED_WIDTH, false);
         boolean found = false;
 
-        // Iterates over each row in the league table and check if it matches the team and season
-        for (AnalyzeTable row : leagueTable) {
-            if (row.getSeason().equals(season) && row.getSquad().equalsIgnoreCase(team)) {
-                System.out.println(formatStats(row));
-                found = true;
-            }
+        // Looks up the row of the team and season in the store's index
+        int row = leagueTable.findRow(season, team);
+        if (row >= 0) {
+            addStatsRow(report, leagueTable, row, null);
+            found = true;
         }
+        report.finish();
 
         // If no data is found, print an error message
         if (!found) {
@@ -460,24 +500,25 @@ public class AnalyzeTable extends BaseFeatures {
 
 
     /** Prints the league table stats for a specific team of all other seasons
-     * @param leagueTable the list of AnalyzeTable objects containing league data
+     * @param leagueTable the store of the league data
      * @param team the name of the team whose stats are to be printed
      * @param excludeSeason the season to exclude from the stats display
      */
-    private void printOtherSeasonsStats(ArrayList<AnalyzeTable> leagueTable, String team, String excludeSeason) {
+    private void printOtherSeasonsStats(LeagueTableStore leagueTable, String team, String excludeSeason) {
 
         // Prints the header for the stats of the team in other seasons
         System.out.printf("\n\n--- Stats for %s in other seasons ---\n", team);
-        System.out.println("Season      Rk    Squad                MP  W   D   L   GF  GA  GD  Pts Pts/MP  xG      xGA     xGD     xGD/90");
+        ReportWriter report = createStatsReport(new PrintWriter(System.out), ReportWriter.Format.FIXED_WIDTH, true);
         boolean found = false;
 
-        // Iterates over each row and check if it matches the team but not the excluded season
-        for (AnalyzeTable row : leagueTable) {
-            if (row.getSquad().equalsIgnoreCase(team) && !row.getSeason().equals(excludeSeason)) {
-                System.out.printf("[%s] %s\n", row.getSeason(), formatStats(row));
+        // Iterates over the team's rows from the newest season and skips the excluded season
+        for (int row : leagueTable.getSquadRows(team)) {
+            if (!leagueTable.getSeason(row).equals(excludeSeason)) {
+                addStatsRow(report, leagueTable, row, "[" + leagueTable.getSeason(row) + "]");
                 found = true; 
             }
         }
+        report.finish();
 
         // If no data is found for other seasons, print an error message
         if (!found) {
@@ -486,22 +527,245 @@ public class AnalyzeTable extends BaseFeatures {
     }
 
 
+    /** Prints the number of rows, memory use and load time of the league data
+     * @param leagueTable the store of the league data
+     */
+    private void printStoreInfo(LeagueTableStore leagueTable) {
+        System.out.printf("\nRows: %d (%d seasons, %d squads, %d skipped)\n", leagueTable.getRowCount(), leagueTable.getSeasons().size(),
+                leagueTable.getSquads().size(), leagueTable.getSkippedRows());
+        System.out.printf("Memory: about %d bytes\n", leagueTable.getMemoryBytes());
+        System.out.printf("Load time: %.2f ms\n", leagueTable.getLoadNanos() / 1e6);
+    }
+
+
+    /** Asks the user for a query and prints its rows or groups
+     * @param leagueTable the store of the league data
+     * @param input the Scanner object to read user input
+     */
+    private void handleQuery(LeagueTableStore leagueTable, Scanner input) {
+
+        // Prints the parts of a query and an example
+        System.out.println("\nQueries are made of: where COLUMN OP VALUE [and ...] | group by COLUMN count/sum/avg/min/max COLUMN | sort by COLUMN [asc/desc] | limit N");
+        System.out.println("Eg. where season>=2021 and xGD/90>0.5 sort by Pts desc limit 10");
+        System.out.println("Groups are sorted by their group column or by value (Eg. group by squad avg Pts sort by value desc limit 5)");
+        System.out.print("Enter the query: ");
+        String text = input.nextLine().trim();
+
+        // Compiles and runs the query, printing the reason if it cannot be understood
+        LeagueQueryResult result;
+        try {
+            result = new LeagueQuery(text, leagueTable).run();
+        } catch (IllegalArgumentException e) {
+            System.out.println("Invalid query: " + e.getMessage());
+            return;
+        }
+
+        System.out.println();
+        if (result.isGrouped()) {
+            ReportWriter report = new ReportWriter(new PrintWriter(System.out), ReportWriter.Format.FIXED_WIDTH,
+                    new String[] { result.getGroupColumn(), result.getAggregate(), "Rows" }, new int[] { -20, -10, 0 });
+            for (int group = 0; group < result.size(); group++) {
+                report.cell(result.getGroupLabel(group));
+                report.cell(result.getGroupValue(group), 2);
+                report.cell(result.getGroupSize(group));
+                report.endRow();
+            }
+            report.finish();
+        } else {
+            ReportWriter report = createStatsReport(new PrintWriter(System.out), ReportWriter.Format.FIXED_WIDTH, true);
+            for (int row : result.getRows()) {
+                addStatsRow(report, leagueTable, row, "[" + leagueTable.getSeason(row) + "]");
+            }
+            report.finish();
+        }
+        System.out.printf("\n%d results in %.3f ms\n", result.size(), result.getElapsedNanos() / 1e6);
+    }
+
+
+    /** Gets the timeline of a season, rebuilding it from the fixtures the first time
+     * @param season the season (Eg. 2024 2025)
+     * @return the timeline of the season
+     */
+    private SeasonTimeline getTimeline(String season) {
+        if (timelines == null) {
+            timelines = new HashMap<>();
+        }
+        return timelines.computeIfAbsent(season, key -> new SeasonTimeline(key, readCSV(FIXTURES_FILE, true, key), LeagueRanker.premierLeague()));
+    }
+
+
+    /** Asks the user for a season and matchday and prints the league table at that point
+     * @param input the Scanner object to read user input
+     */
+    private void handleTableAsOf(Scanner input) {
+        SeasonTimeline timeline = getTimeline(getValidSeason(input, "Enter the season (Eg. 2024 2025): "));
+        List<String> teams = timeline.getTeams();
+
+        // Asks for a matchday until a valid one is entered
+        int matchday;
+        while (true) {
+            System.out.print("Enter the matchday (1 to " + timeline.getMatchdayCount() + "): ");
+            try {
+                matchday = Integer.parseInt(input.nextLine().trim());
+                if (matchday >= 1 && matchday <= timeline.getMatchdayCount()) {
+                    break;
+                }
+            } catch (NumberFormatException e) {}
+            System.out.println("Invalid matchday. Please try again. \n");
+        }
+
+        // Prints the table with the same columns as the simulated tables
+        System.out.printf("\n--- League Table for %s after Matchday %d ---\n", timeline.getSeason(), matchday);
+        SimulateSeason.writeTable(new PrintWriter(System.out), ReportWriter.Format.FIXED_WIDTH, timeline.tableAsOf(matchday), teams);
+    }
+
+
+    /** Prints the position of every team after each matchday of a season, with the teams in their current order
+     * @param timeline the timeline of the season
+     */
+    private void printPositionChart(SeasonTimeline timeline) {
+        List<String> teams = timeline.getTeams();
+        int[][] chart = timeline.positionChart();
+        int matchdays = timeline.getMatchdayCount();
+
+        // Uses the matchday numbers as the header, where each position is two characters wide after the space between cells
+        String[] columns = new String[matchdays + 1];
+        int[] widths = new int[matchdays + 1];
+        columns[0] = "Team";
+        widths[0] = -20;
+        for (int matchday = 1; matchday <= matchdays; matchday++) {
+            columns[matchday] = Integer.toString(matchday);
+            widths[matchday] = 2;
+        }
+
+        // Prints one line per team from the top of the latest table
+        System.out.printf("\n--- Positions after each Matchday of %s ---\n", timeline.getSeason());
+        ReportWriter report = new ReportWriter(new PrintWriter(System.out), ReportWriter.Format.FIXED_WIDTH, columns, widths);
+        for (int[] row : timeline.tableAsOf(matchdays)) {
+            report.cell(teams.get(row[0]));
+            for (int position : chart[row[0]]) {
+                report.cell(position);
+            }
+            report.endRow();
+        }
+        report.finish();
+    }
+
+
+    /** Prints the form of every team in the latest season over its last 5 and 10 matches, from the best points per game over 5 matches
+     * @param leagueTable the store of the league data, used to find the teams of the latest season
+     */
+    private void printForm(LeagueTableStore leagueTable) {
+        updateForm();
+
+        // The store lists the latest season first
+        List<String> teams = new ArrayList<>();
+        for (int row : leagueTable.getSeasonRows(leagueTable.getSeasons().get(0))) {
+            teams.add(leagueTable.getSquad(row));
+        }
+        teams.sort((a, b) -> Double.compare(form.getPointsPerGame(b, 5), form.getPointsPerGame(a, 5)));
+
+        System.out.printf("\n--- Recent Form in %s ---\n", leagueTable.getSeasons().get(0));
+        ReportWriter report = new ReportWriter(new PrintWriter(System.out), ReportWriter.Format.FIXED_WIDTH,
+                new String[] { "Squad", "Last 5", "PPG 5", "xGF 5", "xGA 5", "PPG 10", "GD 10" }, new int[] { -20, -6, -7, -7, -7, -7, -7 });
+        for (String team : teams) {
+            report.cell(team);
+            report.cell(form.getResults(team, 5));
+            report.cell(form.getPointsPerGame(team, 5), 2);
+            report.cell(form.getAverage(team, 5, FormTracker.XG_FOR), 2);
+            report.cell(form.getAverage(team, 5, FormTracker.XG_AGAINST), 2);
+            report.cell(form.getPointsPerGame(team, 10), 2);
+            report.cell(form.getTotal(team, 10, FormTracker.GOALS_FOR) - form.getTotal(team, 10, FormTracker.GOALS_AGAINST), 0, "", true);
+            report.endRow();
+        }
+        report.finish();
+    }
+
+
+    /** Adds any results that arrived since the form was last updated, which only reads the fixtures again if the file has changed
+     */
+    private void updateForm() {
+        long modified = new File(FIXTURES_FILE).lastModified();
+        if (form == null) {
+            form = new FormTracker(5, 10);
+        } else if (modified == formModified) {
+            return;
+        }
+
+        // The tracker skips the matches it already has, so only the new results are added
+        form.addResults(readCSV(FIXTURES_FILE, true, null));
+        formModified = modified;
+    }
+
+
+    /** Writes the stats of every season to a CSV file and a JSON file, from the newest season in rank order
+     * @param leagueTable the store of the league data
+     * @param csvPath the path of the CSV file
+     * @param jsonPath the path of the JSON file
+     * @return the number of rows written to each file
+     * @throws IOException if either file cannot be written
+     */
+    public int exportLeagueTable(LeagueTableStore leagueTable, String csvPath, String jsonPath) throws IOException {
+        int rows = 0;
+        for (String path : new String[] { csvPath, jsonPath }) {
+            try (PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter(path)))) {
+                ReportWriter report = createStatsReport(out, path.equals(csvPath) ? ReportWriter.Format.CSV : ReportWriter.Format.JSON, true);
+                for (String season : leagueTable.getSeasons()) {
+                    for (int row : leagueTable.getSeasonRows(season)) {
+                        addStatsRow(report, leagueTable, row, season);
+                    }
+                }
+                report.finish();
+                rows = report.getRowCount();
+
+                // A PrintWriter keeps write errors to itself, so they are checked for once at the end
+                if (out.checkError()) {
+                    throw new IOException("Could not write " + path);
+                }
+            }
+        }
+        return rows;
+    }
+
+
+    /** Exports every season's stats and prints how long it took
+     * @param leagueTable the store of the league data
+     */
+    private void printExport(LeagueTableStore leagueTable) {
+        try {
+            long startTime = System.nanoTime();
+            int rows = exportLeagueTable(leagueTable, EXPORT_CSV_FILE, EXPORT_JSON_FILE);
+            long elapsed = System.nanoTime() - startTime;
+            System.out.printf("%nWrote %d rows to %s and %s in %.2f ms.%n", rows, EXPORT_CSV_FILE, EXPORT_JSON_FILE, elapsed / 1e6);
+        } catch (IOException e) {
+            System.out.println("Could not export the league tables: " + e.getMessage());
+        }
+    }
+
+
     /** Executes the feature to allows users to view season tables and compare teams
+     * @param input the Scanner object to read user input
      */
-    public void executeFeature() {
+    public void executeFeature(Scanner input) {
 
         // Load the league table data from the specified file
-        ArrayList<AnalyzeTable> leagueTable = loadLeagueTable("data/League Tables.csv", null);
+        LeagueTableStore leagueTable = LeagueTableStore.load(LEAGUE_FILE);
 
-        // Create a new scanner for user input
-        Scanner input = new Scanner(System.in);
+        // Builds the recent form of every team from the fixtures
+        updateForm();
 
         // Displays an interactive menu
         // Asks the users for their feature choice executes that feature accordingly
         while (true) {
             System.out.println("\n--- League Table/Team Analysis ---");
             System.out.println("   (1) View a season's league table");
-            System.out.println("   (2) Compare two teams league stats across seasons \n");
+            System.out.println("   (2) Compare two teams league stats across seasons");
+            System.out.println("   (3) Show the size and load time of the league data");
+            System.out.println("   (4) Run a query on the league data");
+            System.out.println("   (5) View a season's league table after a matchday");
+            System.out.println("   (6) View every team's position after each matchday of a season");
+            System.out.println("   (7) View the recent form of every team");
+            System.out.println("   (8) Export every season's league table to CSV and JSON \n");
             System.out.println("   (0) Exit to feature list \n");
             System.out.print("Enter your choice: ");
 
@@ -514,6 +778,24 @@ public class AnalyzeTable extends BaseFeatures {
                 case "2":
                     handleCompareTeams(leagueTable, input); 
                     break;
+                case "3":
+                    printStoreInfo(leagueTable);
+                    break;
+                case "4":
+                    handleQuery(leagueTable, input);
+                    break;
+                case "5":
+                    handleTableAsOf(input);
+                    break;
+                case "6":
+                    printPositionChart(getTimeline(getValidSeason(input, "Enter the season (Eg. 2024 2025): ")));
+                    break;
+                case "7":
+                    printForm(leagueTable);
+                    break;
+                case "8":
+                    printExport(leagueTable);
+                    break;
                 case "0":
                     System.out.println("Exiting tool.");
                     return;
@@ -8,6 +8,13 @@ import java.util.*;
  */
 public abstract class BaseFeatures {
 
+    // Path of the league tables data
+    protected static final String LEAGUE_FILE = "data/League Tables.csv";
+
+    // Path of the fixtures data
+    protected static final String FIXTURES_FILE = "data/Fixtures.csv";
+
+
     /** Reads data from a CSV file and allows the option to skip header and filter data
      * @param filePath the path of the CSV file to read
      * @param skipHeader true to skip the header row of the CSV file, otherwise false
@@ -45,6 +52,21 @@ public abstract class BaseFeatures {
     }
 
 
+    /** Reads the list of seasons in a CSV file where the season is the first column
+     * @param filePath the path of the CSV file to read
+     * @return the list of seasons in the order they appear in the file
+     */
+    protected List<String> readSeasons(String filePath) {
+        List<String> seasons = new ArrayList<>();
+        for (String[] row : readCSV(filePath, true, null)) {
+            if (row.length > 0 && !row[0].isEmpty() && !seasons.contains(row[0])) {
+                seasons.add(row[0]);
+            }
+        }
+        return seasons;
+    }
+
+
     /** Asks the user for two valid team names for fixtures
      * @param input the Scanner object to read user input
      * @return a string containing both team names separated by a comma
@@ -134,6 +156,8 @@ public abstract class BaseFeatures {
     
 
     /** Abstract method to execute a specific feature, to be implemented by subclasses.
+     * Every feature reads from the same Scanner so that input buffered by one is not lost to the next.
+     * @param input the Scanner object to read user input
      */
-    public abstract void executeFeature();
+    public abstract void executeFeature(Scanner input);
 }
@@ -0,0 +1,497 @@
+package modules;
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/** A batch feature that runs many queries without the menus, for scripts and bulk runs.
+ * The queries come from a file or the command line, with one query per line made of comma separated parts:
+ *   predict, Liverpool, Arsenal          predicts the score of a match
+ *   h2h, Liverpool, Arsenal              gives the head-to-head record of two teams
+ *   simulate, 2024 2025[, runs]          simulates the rest of a season and gives the title and relegation odds
+ *   table, 2024 2025[, Liverpool]        gives a season's table, or one team's row of it
+ * The data is loaded once and shared by every query, the queries run at the same time on a pool of threads,
+ * and the results are written in the order of the queries as CSV, JSON or NDJSON along with how fast they ran.
+ */
+public class BatchRunner extends BaseFeatures {
+
+    // Number of seasons simulated by a simulate query that does not give its own number
+    private static final int DEFAULT_RUNS = 10000;
+
+    // Most seasons a simulate query can ask for
+    private static final int MAX_RUNS = 1000000;
+
+    // Number of teams listed for the title and relegation odds of a simulate query
+    private static final int TEAMS_LISTED = 3;
+
+    // Columns of the results
+    private static final String[] RESULT_COLUMNS = { "Line", "Type", "Query", "Status", "Latency ms", "Result" };
+
+    // How to run the batch, shown when the arguments cannot be understood
+    public static final String USAGE = String.join("\n",
+            "Usage: java Main [--batch FILE] [--query TEXT]... [--out FILE] [--format csv|json|ndjson] [--threads N] [--runs N] [--seed N] [--form-weight W]",
+            "   --batch FILE     run the queries in a file, one per line (lines starting with # are skipped)",
+            "   --query TEXT     run one query, which can be given more than once",
+            "   --out FILE       write the results to a file instead of the screen",
+            "   --format F       csv, json or ndjson, which defaults to the extension of the output file or csv",
+            "   --threads N      number of queries run at the same time, which defaults to the number of processors",
+            "   --runs N         seasons simulated by a simulate query that does not give its own number (default " + DEFAULT_RUNS + ")",
+            "   --seed N         seed of the simulations, so the same batch gives the same odds (default 1)",
+            "   --form-weight W  share of a predicted score taken from the last 5 matches' xG, from 0 to 1 (default 0, past meetings only)",
+            "Queries: predict, TEAM 1, TEAM 2 | h2h, TEAM 1, TEAM 2 | simulate, SEASON[, RUNS] | table, SEASON[, TEAM]");
+
+    // The queries to run and the line each came from
+    private final List<String> queries;
+    private final List<Integer> lines;
+
+    // Where the results go, or null for the screen, and how they are written
+    private String outputPath;
+    private ReportWriter.Format format;
+
+    // How the queries are run
+    private int threads;
+    private int runs;
+    private long seed;
+    private double formWeight;
+
+    // The data shared by every query, loaded once before the queries run
+    private LeagueTableStore store;
+    private ArrayList<String[]> fixtures;
+    private FormTracker form;
+    private H2HMatrix matrix;
+    private SimulateSeason simulation;
+
+
+    /** Creates a batch from the command line arguments, reading the queries of a batch file straight away
+     * @param args the command line arguments
+     * @throws IllegalArgumentException if an argument is not understood, no queries are given or the batch file cannot be read
+     */
+    public BatchRunner(String[] args) {
+        queries = new ArrayList<>();
+        lines = new ArrayList<>();
+        threads = Runtime.getRuntime().availableProcessors();
+        runs = DEFAULT_RUNS;
+        seed = 1;
+
+        for (int i = 0; i < args.length; i++) {
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing a value after " + args[i]);
+            }
+            String value = args[++i];
+
+            switch (args[i - 1]) {
+                case "--batch":
+                    readQueries(value);
+                    break;
+                case "--query":
+                    queries.add(value);
+                    lines.add(0);
+                    break;
+                case "--out":
+                    outputPath = value;
+                    break;
+                case "--format":
+                    format = parseFormat(value);
+                    break;
+                case "--threads":
+                    threads = parsePositive(value, "--threads");
+                    break;
+                case "--runs":
+                    runs = Math.min(parsePositive(value, "--runs"), MAX_RUNS);
+                    break;
+                case "--seed":
+                    try {
+                        seed = Long.parseLong(value);
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("--seed needs a whole number, not " + value);
+                    }
+                    break;
+                case "--form-weight":
+                    try {
+                        formWeight = Double.parseDouble(value);
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("--form-weight needs a number, not " + value);
+                    }
+                    if (!(formWeight >= 0 && formWeight <= 1)) {
+                        throw new IllegalArgumentException("--form-weight must be from 0 to 1, not " + value);
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown argument " + args[i - 1]);
+            }
+        }
+
+        if (queries.isEmpty()) {
+            throw new IllegalArgumentException("No queries were given");
+        }
+
+        // Picks the format from the extension of the output file if it was not given
+        if (format == null) {
+            String path = outputPath == null ? "" : outputPath.toLowerCase();
+            format = path.endsWith(".ndjson") || path.endsWith(".jsonl") ? ReportWriter.Format.NDJSON
+                    : path.endsWith(".json") ? ReportWriter.Format.JSON : ReportWriter.Format.CSV;
+        }
+    }
+
+
+    /** Gets the number of queries in the batch
+     * @return the number of queries
+     */
+    public int getQueryCount() {
+        return queries.size();
+    }
+
+    /** Gets the number of queries run at the same time
+     * @return the number of threads
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /** Gets the layout the results are written in
+     * @return the format of the results
+     */
+    public ReportWriter.Format getFormat() {
+        return format;
+    }
+
+
+    /** Runs one query against the loaded data
+     * @param query the query (Eg. predict, Liverpool, Arsenal)
+     * @return the result of the query as text
+     * @throws IllegalArgumentException if the query cannot be understood or refers to a team or season that is not in the data
+     */
+    public String runQuery(String query) {
+        String[] parts = query.split(",");
+        for (int i = 0; i < parts.length; i++) {
+            parts[i] = parts[i].trim();
+        }
+
+        switch (parts[0].toLowerCase()) {
+            case "predict":
+                checkParts(parts, 3, 3, "predict, TEAM 1, TEAM 2");
+                return predict(checkTeam(parts[1]), checkTeam(parts[2]));
+            case "h2h":
+                checkParts(parts, 3, 3, "h2h, TEAM 1, TEAM 2");
+                return headToHead(checkTeam(parts[1]), checkTeam(parts[2]));
+            case "simulate":
+                checkParts(parts, 2, 3, "simulate, SEASON[, RUNS]");
+                return simulate(checkSeason(parts[1]), parts.length > 2 ? Math.min(parsePositive(parts[2], "RUNS"), MAX_RUNS) : runs);
+            case "table":
+                checkParts(parts, 2, 3, "table, SEASON[, TEAM]");
+                return table(checkSeason(parts[1]), parts.length > 2 ? checkTeam(parts[2]) : null);
+            default:
+                throw new IllegalArgumentException("Unknown query type " + parts[0] + ", use predict, h2h, simulate or table");
+        }
+    }
+
+
+    /** Predicts the score of a match
+     * @param team1 the name of team 1
+     * @param team2 the name of team 2
+     * @return the predicted score, winner and expected goals
+     */
+    private String predict(String team1, String team2) {
+
+        // A predictor keeps its totals in its own fields, so each query gets its own, but they all share the form, which is only read
+        MatchPredictor predictor = new MatchPredictor(form);
+        predictor.setFormWeight(formWeight);
+        double[] goals = predictor.predictGoals(fixtures, team1, team2);
+        if (Double.isNaN(goals[0]) || Double.isNaN(goals[1])) {
+            throw new IllegalArgumentException("No played matches between " + team1 + " and " + team2);
+        }
+
+        long team1Goals = Math.round(goals[0]);
+        long team2Goals = Math.round(goals[1]);
+        String winner = team1Goals > team2Goals ? team1 : team2Goals > team1Goals ? team2 : "Draw";
+        return String.format("%s %d - %d %s, winner %s (predicted goals %.2f - %.2f)", team1, team1Goals, team2Goals, team2, winner, goals[0], goals[1]);
+    }
+
+
+    /** Gives the head-to-head record of two teams
+     * @param team1 the name of team 1
+     * @param team2 the name of team 2
+     * @return the games played, results and goals of both teams
+     */
+    private String headToHead(String team1, String team2) {
+        H2HRecord record = matrix.query(team1, team2, new H2HFilter());
+        return "Played " + record.getGamesPlayed() + ", " + team1 + " won " + record.getTeam1GamesWon() + ", drew " + record.getGamesDrew()
+                + ", " + team2 + " won " + record.getTeam2GamesWon() + ", goals " + record.getTeam1GoalsScored() + " - " + record.getTeam2GoalsScored();
+    }
+
+
+    /** Simulates the rest of a season and gives the teams most likely to win the league and to be relegated
+     * @param season the season (Eg. 2024 2025)
+     * @param seasonRuns the number of seasons to simulate
+     * @return the title and relegation odds of the most likely teams
+     */
+    private String simulate(String season, int seasonRuns) {
+        SimulationSummary summary = simulation.projectSeason(season, seasonRuns);
+        List<String> teams = simulation.getSeasonData(season).getTeams();
+
+        // Orders the teams by their chance of winning the league and by their chance of finishing in the bottom three
+        List<Integer> title = new ArrayList<>();
+        for (int team = 0; team < teams.size(); team++) {
+            title.add(team);
+        }
+        List<Integer> relegation = new ArrayList<>(title);
+        title.sort((a, b) -> Double.compare(summary.getTopProbability(b, 1), summary.getTopProbability(a, 1)));
+        relegation.sort((a, b) -> Double.compare(summary.getBottomProbability(b, 3), summary.getBottomProbability(a, 3)));
+
+        StringBuilder result = new StringBuilder(summary.getRuns() + " runs, title:");
+        for (int i = 0; i < Math.min(TEAMS_LISTED, teams.size()); i++) {
+            result.append(String.format(" %s %.1f%%", teams.get(title.get(i)), 100 * summary.getTopProbability(title.get(i), 1)));
+        }
+        result.append(", relegation:");
+        for (int i = 0; i < Math.min(TEAMS_LISTED, teams.size()); i++) {
+            result.append(String.format(" %s %.1f%%", teams.get(relegation.get(i)), 100 * summary.getBottomProbability(relegation.get(i), 3)));
+        }
+        return result.toString();
+    }
+
+
+    /** Gives a season's league table, or one team's row of it
+     * @param season the season (Eg. 2024 2025)
+     * @param team the name of the team, or null for the whole table
+     * @return every team with its points in rank order, or the team's rank, record and expected goal difference
+     */
+    private String table(String season, String team) {
+        if (team != null) {
+            int row = store.findRow(season, team);
+            if (row < 0) {
+                throw new IllegalArgumentException(team + " did not play in " + season);
+            }
+            return team + " rank " + store.getInt(LeagueTableStore.RANK, row) + ", played " + store.getInt(LeagueTableStore.MATCHES_PLAYED, row)
+                    + ", W" + store.getInt(LeagueTableStore.WINS, row) + " D" + store.getInt(LeagueTableStore.DRAWS, row) + " L" + store.getInt(LeagueTableStore.LOSSES, row)
+                    + ", " + store.getInt(LeagueTableStore.POINTS, row) + " pts, GD " + store.getInt(LeagueTableStore.GOAL_DIFFERENCE, row)
+                    + ", xGD " + store.getValue(LeagueTableStore.XGD, row);
+        }
+
+        StringBuilder result = new StringBuilder();
+        for (int row : store.getSeasonRows(season)) {
+            if (result.length() > 0) {
+                result.append(", ");
+            }
+            result.append(store.getInt(LeagueTableStore.RANK, row)).append(". ").append(store.getSquad(row))
+                    .append(' ').append(store.getInt(LeagueTableStore.POINTS, row));
+        }
+        return result.toString();
+    }
+
+
+    /** Loads the data, runs every query on the pool of threads and writes the results.
+     * The results are written once every query has finished, in the order of the queries, followed by the number of queries per second
+     * and the percentiles of the time each query took. The speed goes to the screen, or to the error stream if the results do.
+     * @param input the Scanner object to read user input, which is not used since the queries come from the batch file
+     */
+    public void executeFeature(Scanner input) {
+        PrintStream log = outputPath == null ? System.err : System.out;
+
+        // Loads the data once for every query
+        long loadStart = System.nanoTime();
+        store = LeagueTableStore.load(LEAGUE_FILE);
+        fixtures = readCSV(FIXTURES_FILE, true, null);
+        form = FormTracker.fromFixtures(fixtures, MatchPredictor.FORM_WINDOW);
+        matrix = H2HMatrix.fromFixtures(fixtures);
+        simulation = new SimulateSeason();
+        simulation.setSeed(seed);
+        long loadNanos = System.nanoTime() - loadStart;
+
+        // Runs each query as its own task, timing it from when it starts to when it finishes
+        String[] statuses = new String[queries.size()];
+        String[] results = new String[queries.size()];
+        long[] latencies = new long[queries.size()];
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> tasks = new ArrayList<>();
+        long start = System.nanoTime();
+
+        for (int i = 0; i < queries.size(); i++) {
+            int index = i;
+            tasks.add(pool.submit(() -> {
+                long queryStart = System.nanoTime();
+                try {
+                    results[index] = runQuery(queries.get(index));
+                    statuses[index] = "ok";
+                } catch (RuntimeException e) {
+                    results[index] = e.getMessage() == null ? e.toString() : e.getMessage();
+                    statuses[index] = "error";
+                }
+                latencies[index] = System.nanoTime() - queryStart;
+            }));
+        }
+
+        // Waits for every query, where each one catches its own errors
+        try {
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.println("The batch was stopped before every query finished.");
+            return;
+        } catch (ExecutionException e) {
+            log.println("A query could not finish: " + e.getCause());
+            return;
+        } finally {
+            pool.shutdown();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        // Writes the results in the order of the queries
+        try {
+            writeResults(statuses, results, latencies);
+        } catch (IOException e) {
+            log.println("Could not write the results: " + e.getMessage());
+            return;
+        }
+
+        int errors = 0;
+        for (String status : statuses) {
+            if (status.equals("error")) {
+                errors++;
+            }
+        }
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        log.printf("%nLoaded the data in %.2f ms.%n", loadNanos / 1e6);
+        log.printf("Ran %d queries (%d errors) on %d threads in %.2f ms: %.1f queries/sec%n", queries.size(), errors, threads, elapsed / 1e6,
+                queries.size() / (elapsed / 1e9));
+        log.printf("Latency ms: p50 %.3f, p90 %.3f, p99 %.3f, max %.3f%n", percentile(sorted, 50) / 1e6, percentile(sorted, 90) / 1e6,
+                percentile(sorted, 99) / 1e6, sorted[sorted.length - 1] / 1e6);
+    }
+
+
+    /** Writes a row for each query to the output file or the screen
+     * @param statuses ok or error for each query
+     * @param results the result or error message of each query
+     * @param latencies the time each query took in nanoseconds
+     * @throws IOException if the output file cannot be written
+     */
+    private void writeResults(String[] statuses, String[] results, long[] latencies) throws IOException {
+        PrintWriter out = outputPath == null ? new PrintWriter(System.out) : new PrintWriter(new BufferedWriter(new FileWriter(outputPath)));
+        ReportWriter report = new ReportWriter(out, format, RESULT_COLUMNS, new int[RESULT_COLUMNS.length]);
+
+        for (int i = 0; i < queries.size(); i++) {
+            report.cell(lines.get(i));
+            report.cell(queries.get(i).split(",")[0].trim().toLowerCase());
+            report.cell(queries.get(i));
+            report.cell(statuses[i]);
+            report.cell(latencies[i] / 1e6, 3);
+            report.cell(results[i]);
+            report.endRow();
+        }
+        report.finish();
+
+        // A PrintWriter keeps write errors to itself, so they are checked for once at the end
+        boolean failed = out.checkError();
+        if (outputPath != null) {
+            out.close();
+        }
+        if (failed) {
+            throw new IOException("Could not write " + outputPath);
+        }
+    }
+
+
+    /** Reads the queries of a batch file, skipping blank lines and comments that start with #
+     * @param path the path of the batch file
+     */
+    private void readQueries(String path) {
+        try (BufferedReader reader = new BufferedReader(new FileReader(path))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (!line.isBlank() && !line.trim().startsWith("#")) {
+                    queries.add(line.trim());
+                    lines.add(lineNumber);
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Could not read the batch file " + path + ": " + e.getMessage());
+        }
+    }
+
+
+    /** Checks that a query has the right number of parts
+     * @param parts the parts of the query
+     * @param min the fewest parts allowed, including the query type
+     * @param max the most parts allowed, including the query type
+     * @param form how the query is written, shown if the number of parts is wrong
+     */
+    private void checkParts(String[] parts, int min, int max, String form) {
+        if (parts.length < min || parts.length > max) {
+            throw new IllegalArgumentException("Expected " + form);
+        }
+    }
+
+
+    /** Checks that a team is in the league table data, ignoring case
+     * @param team the name of the team
+     * @return the name of the team as it is written in the data, which the other models need since they match names exactly
+     */
+    private String checkTeam(String team) {
+        int squadCode = store.getSquadCode(team);
+        if (squadCode < 0) {
+            throw new IllegalArgumentException("Unknown team " + team);
+        }
+        return store.getSquads().get(squadCode);
+    }
+
+
+    /** Checks that a season is in the league table data, ignoring case
+     * @param season the season (Eg. 2024 2025)
+     * @return the season as it is written in the data
+     */
+    private String checkSeason(String season) {
+        int seasonCode = store.getSeasonCode(season);
+        if (seasonCode < 0) {
+            throw new IllegalArgumentException("Unknown season " + season);
+        }
+        return store.getSeasons().get(seasonCode);
+    }
+
+
+    /** Reads a whole number that must be at least 1
+     * @param value the text of the number
+     * @param name the name of the number, shown if it is not valid
+     * @return the number
+     */
+    private static int parsePositive(String value, String name) {
+        try {
+            int number = Integer.parseInt(value.trim());
+            if (number >= 1) {
+                return number;
+            }
+        } catch (NumberFormatException e) {}
+        throw new IllegalArgumentException(name + " needs a whole number of at least 1, not " + value);
+    }
+
+
+    /** Reads the name of an output format
+     * @param value csv, json or ndjson
+     * @return the format
+     */
+    private static ReportWriter.Format parseFormat(String value) {
+        switch (value.toLowerCase()) {
+            case "csv":
+                return ReportWriter.Format.CSV;
+            case "json":
+                return ReportWriter.Format.JSON;
+            case "ndjson":
+                return ReportWriter.Format.NDJSON;
+            default:
+                throw new IllegalArgumentException("Unknown format " + value + ", use csv, json or ndjson");
+        }
+    }
+
+
+    /** Gets a percentile of some sorted values using the nearest rank
+     * @param sorted the values sorted from smallest to largest
+     * @param percent the percentile from 0 to 100
+     * @return the smallest value that at least that percent of the values are less than or equal to
+     */
+    private static long percentile(long[] sorted, double percent) {
+        int rank = (int) Math.ceil(percent / 100 * sorted.length);
+        return sorted[Math.max(rank - 1, 0)];
+    }
+}
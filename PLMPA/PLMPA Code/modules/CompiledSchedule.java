@@ -0,0 +1,185 @@
+package modules;
+import java.util.*;
+
+/** A season's fixture list compiled into team indexes for the season simulator.
+ * The team names of every fixture are looked up once when the schedule is compiled,
+ * so simulating a season only reads two int arrays instead of searching the team list for every match.
+ * Fixtures that have already been played also keep their real score, and unplayed fixtures have a score of -1.
+ */
+public class CompiledSchedule {
+
+    // Index of the home team of each fixture
+    private final int[] homeTeams;
+
+    // Index of the away team of each fixture
+    private final int[] awayTeams;
+
+    // Real goals scored by the home team of each fixture, or -1 if it has not been played
+    private final int[] homeGoals;
+
+    // Real goals scored by the away team of each fixture, or -1 if it has not been played
+    private final int[] awayGoals;
+
+
+    /** Creates a schedule of unplayed fixtures from arrays of team indexes
+     * @param homeTeams the index of the home team of each fixture
+     * @param awayTeams the index of the away team of each fixture
+     */
+    public CompiledSchedule(int[] homeTeams, int[] awayTeams) {
+        this(homeTeams, awayTeams, filled(homeTeams.length, -1), filled(homeTeams.length, -1));
+    }
+
+    /** Creates a schedule from arrays of team indexes and real scores
+     * @param homeTeams the index of the home team of each fixture
+     * @param awayTeams the index of the away team of each fixture
+     * @param homeGoals the real home goals of each fixture, or -1 if it has not been played
+     * @param awayGoals the real away goals of each fixture, or -1 if it has not been played
+     */
+    public CompiledSchedule(int[] homeTeams, int[] awayTeams, int[] homeGoals, int[] awayGoals) {
+        this.homeTeams = homeTeams;
+        this.awayTeams = awayTeams;
+        this.homeGoals = homeGoals;
+        this.awayGoals = awayGoals;
+    }
+
+
+    /** Gets the number of fixtures in the schedule
+     * @return the number of fixtures
+     */
+    public int size() {
+        return homeTeams.length;
+    }
+
+    /** Gets the home team indexes of every fixture. The array is shared and should not be changed.
+     * @return the index of the home team of each fixture
+     */
+    public int[] getHomeTeams() {
+        return homeTeams;
+    }
+
+    /** Gets the away team indexes of every fixture. The array is shared and should not be changed.
+     * @return the index of the away team of each fixture
+     */
+    public int[] getAwayTeams() {
+        return awayTeams;
+    }
+
+    /** Gets the real home goals of every fixture. The array is shared and should not be changed.
+     * @return the home goals of each fixture, or -1 if it has not been played
+     */
+    public int[] getHomeGoals() {
+        return homeGoals;
+    }
+
+    /** Gets the real away goals of every fixture. The array is shared and should not be changed.
+     * @return the away goals of each fixture, or -1 if it has not been played
+     */
+    public int[] getAwayGoals() {
+        return awayGoals;
+    }
+
+
+    /** Checks if a fixture has already been played
+     * @param fixture the position of the fixture in the schedule
+     * @return true if the fixture has a real score, otherwise false
+     */
+    public boolean isPlayed(int fixture) {
+        return homeGoals[fixture] >= 0;
+    }
+
+
+    /** Counts the fixtures that have already been played
+     * @return the number of fixtures with a real score
+     */
+    public int countPlayed() {
+        int played = 0;
+        for (int i = 0; i < homeGoals.length; i++) {
+            if (isPlayed(i)) {
+                played++;
+            }
+        }
+        return played;
+    }
+
+
+    /** Creates a schedule of only the fixtures that have not been played yet
+     * @return the unplayed fixtures, in the same order as this schedule
+     */
+    public CompiledSchedule unplayed() {
+        int[] home = new int[size() - countPlayed()];
+        int[] away = new int[home.length];
+        int count = 0;
+
+        for (int i = 0; i < size(); i++) {
+            if (!isPlayed(i)) {
+                home[count] = homeTeams[i];
+                away[count] = awayTeams[i];
+                count++;
+            }
+        }
+        return new CompiledSchedule(home, away);
+    }
+
+
+    /** Compiles fixture rows into a schedule of team indexes
+     * @param fixturesData a list of rows, where each row represents match data from the fixtures data
+     * @param teams the list of teams, where each team's position is its index
+     * @return the compiled schedule
+     */
+    public static CompiledSchedule compile(List<String[]> fixturesData, List<String> teams) {
+
+        // Maps each team name to its index so each fixture is one hash lookup per team
+        Map<String, Integer> teamIndexes = new HashMap<>();
+        for (int i = 0; i < teams.size(); i++) {
+            teamIndexes.put(teams.get(i), i);
+        }
+
+        int[] homeTeams = new int[fixturesData.size()];
+        int[] awayTeams = new int[fixturesData.size()];
+        int[] homeGoals = new int[fixturesData.size()];
+        int[] awayGoals = new int[fixturesData.size()];
+        int count = 0;
+
+        // Iterates through each match in the fixture data
+        for (String[] match : fixturesData) {
+            if (match.length < 7) {
+                continue;
+            }
+
+            // Skips matches where either team is not found in the teams list
+            Integer homeIndex = teamIndexes.get(match[1]);
+            Integer awayIndex = teamIndexes.get(match[6]);
+            if (homeIndex == null || awayIndex == null) {
+                continue;
+            }
+
+            homeTeams[count] = homeIndex;
+            awayTeams[count] = awayIndex;
+
+            // Keeps the real score if the match has been played, otherwise the score is N/A
+            try {
+                homeGoals[count] = Integer.parseInt(match[3].trim());
+                awayGoals[count] = Integer.parseInt(match[4].trim());
+            } catch (NumberFormatException e) {
+                homeGoals[count] = -1;
+                awayGoals[count] = -1;
+            }
+            count++;
+        }
+
+        return new CompiledSchedule(Arrays.copyOf(homeTeams, count), Arrays.copyOf(awayTeams, count),
+                Arrays.copyOf(homeGoals, count), Arrays.copyOf(awayGoals, count));
+    }
+
+
+    /** Creates an array with every entry set to the same value
+     * @param length the length of the array
+     * @param value the value of every entry
+     * @return the filled array
+     */
+    private static int[] filled(int length, int value) {
+        int[] array = new int[length];
+        Arrays.fill(array, value);
+        return array;
+    }
+}
@@ -0,0 +1,451 @@
+package modules;
+import java.io.PrintWriter;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/** An expected points feature where the user can see how many points each team deserved from the chances in its matches.
+ * The goals of each side of a played match are treated as a Poisson distribution with the side's xG as its mean,
+ * so the chance of a win, draw or loss and the expected points can be worked out exactly for every match.
+ * The expected points table can be compared against the real league table for one season or every season at once,
+ * and a Monte Carlo mode replays the season's matches many times to show the spread of finishing positions.
+ */
+public class ExpectedPoints extends BaseFeatures {
+
+    // The expected points table of every season worked out so far
+    private final Map<String, ExpectedPointsTable> tableCache;
+
+    // The tie-break rules used to sort the replayed tables
+    private LeagueRanker ranker;
+
+    // The seed every random stream of the Monte Carlo mode is derived from
+    private long seed;
+
+    // Most goals counted for one side of a match, where the chance of more is too small to matter
+    private static final int MAX_GOALS = 10;
+
+    // Number of times a season is replayed in the Monte Carlo mode
+    private static final int MONTE_CARLO_RUNS = 20000;
+
+
+    /** Initializes the table cache and picks a random seed.
+     */
+    public ExpectedPoints() {
+        tableCache = new HashMap<>();
+        ranker = LeagueRanker.premierLeague();
+        seed = new SplittableRandom().nextLong();
+    }
+
+
+    /** Gets the seed used for the Monte Carlo mode
+     * @return the seed every random stream is derived from
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /** Gets the tie-break rules used to sort the replayed tables
+     * @return the league ranker
+     */
+    public LeagueRanker getRanker() {
+        return ranker;
+    }
+
+
+    /** Sets the seed used for the Monte Carlo mode so a run can be repeated exactly
+     * @param seed the seed every random stream is derived from
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /** Sets the tie-break rules used to sort the replayed tables
+     * @param ranker the league ranker to use
+     */
+    public void setRanker(LeagueRanker ranker) {
+        this.ranker = ranker;
+    }
+
+
+    /** Works out the expected points of both teams in a match from their xG
+     * @param homeXG the xG of the home team
+     * @param awayXG the xG of the away team
+     * @return an array with the home team's expected points followed by the away team's
+     */
+    public static double[] matchExpectedPoints(double homeXG, double awayXG) {
+        double[] home = goalProbabilities(homeXG);
+        double[] away = goalProbabilities(awayXG);
+
+        // Adds up the chance of every scoreline into a home win, a draw or an away win
+        double homeWin = 0;
+        double draw = 0;
+        double awayWin = 0;
+        double homeBelow = 0;
+        double awayBelow = 0;
+        for (int goals = 0; goals <= MAX_GOALS; goals++) {
+
+            // A team wins with this many goals if the other team scores fewer
+            homeWin += home[goals] * awayBelow;
+            awayWin += away[goals] * homeBelow;
+            draw += home[goals] * away[goals];
+            homeBelow += home[goals];
+            awayBelow += away[goals];
+        }
+
+        // Scorelines above MAX_GOALS are left out, so the three results are scaled back up to add to 1
+        double total = homeWin + draw + awayWin;
+        homeWin /= total;
+        draw /= total;
+        awayWin /= total;
+
+        return new double[]{3 * homeWin + draw, 3 * awayWin + draw};
+    }
+
+
+    /** Works out the Poisson chance of each number of goals for one side
+     * @param mean the xG of the side
+     * @return the chance of scoring 0 to MAX_GOALS goals
+     */
+    private static double[] goalProbabilities(double mean) {
+        double[] probabilities = new double[MAX_GOALS + 1];
+        probabilities[0] = Math.exp(-mean);
+        for (int goals = 1; goals <= MAX_GOALS; goals++) {
+            probabilities[goals] = probabilities[goals - 1] * mean / goals;
+        }
+        return probabilities;
+    }
+
+
+    /** Gets the expected points table of a season, working it out from the CSV files the first time
+     * @param season the season (Eg. 2024 2025)
+     * @return the expected points table
+     */
+    public ExpectedPointsTable getSeasonTable(String season) {
+        synchronized (tableCache) {
+            ExpectedPointsTable table = tableCache.get(season);
+            if (table != null) {
+                return table;
+            }
+        }
+
+        // Works the table out outside the lock so different seasons can be worked out at the same time
+        ExpectedPointsTable table = calculateSeason(season);
+        synchronized (tableCache) {
+            tableCache.put(season, table);
+        }
+        return table;
+    }
+
+
+    /** Works out the expected points tables of several seasons at the same time
+     * @param seasons the seasons to work out
+     * @return the expected points tables, in the same order as the seasons
+     */
+    public List<ExpectedPointsTable> getSeasonTables(List<String> seasons) {
+        return seasons.parallelStream().map(this::getSeasonTable).collect(Collectors.toList());
+    }
+
+
+    /** Removes every worked out table so the next request reads the CSV files again, such as after the data is scraped again
+     */
+    public void refresh() {
+        synchronized (tableCache) {
+            tableCache.clear();
+        }
+    }
+
+
+    /** Reads the fixtures and league table of a season and works out its expected points table
+     * @param season the season (Eg. 2024 2025)
+     * @return the expected points table
+     */
+    private ExpectedPointsTable calculateSeason(String season) {
+        List<String[]> leagueData = readCSV(LEAGUE_FILE, true, season);
+        List<String[]> fixturesData = readCSV(FIXTURES_FILE, true, season);
+
+        // Takes the teams and their real points from the league table
+        List<String> teams = new ArrayList<>();
+        Map<String, Integer> teamIndexes = new HashMap<>();
+        int[] actualPoints = new int[leagueData.size()];
+        for (String[] row : leagueData) {
+            if (row.length < 11 || teamIndexes.containsKey(row[2])) {
+                continue;
+            }
+            teamIndexes.put(row[2], teams.size());
+            try {
+                actualPoints[teams.size()] = Integer.parseInt(row[10]);
+
+            // Skips if values cannot be parsed as numbers
+            } catch (NumberFormatException e) {}
+            teams.add(row[2]);
+        }
+
+        int[] homeTeams = new int[fixturesData.size()];
+        int[] awayTeams = new int[fixturesData.size()];
+        double[] homeXG = new double[fixturesData.size()];
+        double[] awayXG = new double[fixturesData.size()];
+        int count = 0;
+
+        // Keeps every played match where both teams are in the table and both xG values are known
+        for (String[] match : fixturesData) {
+            if (!isFixtureValid(match) || !teamIndexes.containsKey(match[1]) || !teamIndexes.containsKey(match[6])) {
+                continue;
+            }
+            try {
+                Integer.parseInt(match[3].trim());
+                homeXG[count] = Double.parseDouble(match[2]);
+                awayXG[count] = Double.parseDouble(match[5]);
+            } catch (NumberFormatException e) {
+                continue;
+            }
+            homeTeams[count] = teamIndexes.get(match[1]);
+            awayTeams[count] = teamIndexes.get(match[6]);
+            count++;
+        }
+
+        return new ExpectedPointsTable(season, teams, Arrays.copyOf(actualPoints, teams.size()),
+                Arrays.copyOf(homeTeams, count), Arrays.copyOf(awayTeams, count),
+                Arrays.copyOf(homeXG, count), Arrays.copyOf(awayXG, count));
+    }
+
+
+    /** Replays the played matches of a season many times, drawing each side's goals from a Poisson distribution with its xG as the mean
+     * @param table the expected points table of the season
+     * @param runs the number of times to replay the season
+     * @return a summary of the finishing positions and points over every replayed season
+     */
+    public SimulationSummary simulateSeason(ExpectedPointsTable table, int runs) {
+
+        // Works out e^-xG once per match for the Poisson draws
+        double[] homeLimits = new double[table.getMatchCount()];
+        double[] awayLimits = new double[table.getMatchCount()];
+        for (int i = 0; i < table.getMatchCount(); i++) {
+            homeLimits[i] = Math.exp(-table.getHomeXG(i));
+            awayLimits[i] = Math.exp(-table.getAwayXG(i));
+        }
+
+        int streamCount = (runs + SimulateSeason.RUNS_PER_STREAM - 1) / SimulateSeason.RUNS_PER_STREAM;
+
+        // Each block of seasons gets its own random stream and summary, and the summaries are merged at the end
+        return IntStream.range(0, streamCount).parallel().collect(
+                () -> new SimulationSummary(table.getTeams().size()),
+                (summary, block) -> simulateStream(table, homeLimits, awayLimits, block, Math.min(SimulateSeason.RUNS_PER_STREAM, runs - block * SimulateSeason.RUNS_PER_STREAM), summary),
+                SimulationSummary::merge);
+    }
+
+
+    /** Replays one block of seasons using the random stream of that block
+     * @param table the expected points table of the season
+     * @param homeLimits e^-xG of the home team of each match
+     * @param awayLimits e^-xG of the away team of each match
+     * @param streamIndex the number of the block of seasons
+     * @param runs the number of seasons in the block
+     * @param summary the summary to record each season in
+     */
+    private void simulateStream(ExpectedPointsTable table, double[] homeLimits, double[] awayLimits, int streamIndex, int runs, SimulationSummary summary) {
+        SplittableRandom random = SimulateSeason.createStream(seed, streamIndex);
+        int teamCount = table.getTeams().size();
+        int[][] leagueTable = new int[teamCount][10];
+        int[][] standings = new int[teamCount][];
+        long[] sortKeys = new long[teamCount];
+
+        for (int run = 0; run < runs; run++) {
+
+            // Starts each season from an empty table
+            for (int team = 0; team < teamCount; team++) {
+                Arrays.fill(leagueTable[team], 0);
+                leagueTable[team][0] = team;
+            }
+
+            for (int i = 0; i < homeLimits.length; i++) {
+                SeasonSimulator.updateLeagueTable(leagueTable, table.getHomeTeam(i), table.getAwayTeam(i),
+                        samplePoisson(homeLimits[i], random), samplePoisson(awayLimits[i], random), 1);
+            }
+
+            System.arraycopy(leagueTable, 0, standings, 0, teamCount);
+            ranker.rank(standings, sortKeys);
+            summary.record(standings);
+        }
+    }
+
+
+    /** Draws a number of goals from a Poisson distribution by multiplying random numbers until they fall below e^-mean
+     * @param limit e^-mean of the distribution
+     * @param random the random stream to draw from
+     * @return the number of goals
+     */
+    private static int samplePoisson(double limit, SplittableRandom random) {
+        int goals = 0;
+        double product = random.nextDouble();
+        while (product > limit && goals < MAX_GOALS) {
+            product *= random.nextDouble();
+            goals++;
+        }
+        return goals;
+    }
+
+
+    /** Prints the expected points table of a season next to the real points
+     * @param table the expected points table
+     */
+    private void printSeasonTable(ExpectedPointsTable table) {
+
+        // Orders the teams by their expected points
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < table.getTeams().size(); i++) {
+            order.add(i);
+        }
+        order.sort((a, b) -> Double.compare(table.getExpectedPoints(b), table.getExpectedPoints(a)));
+
+        // Prints header for the table
+        System.out.println("\n--- Expected Points Table for " + table.getSeason() + " (" + table.getMatchCount() + " matches) ---");
+        ReportWriter report = new ReportWriter(new PrintWriter(System.out), ReportWriter.Format.FIXED_WIDTH,
+                new String[] { "Rank", "Team", "MP", "xG", "xGA", "Pts", "xPts", "Diff" }, new int[] { 5, 20, 5, 7, 7, 5, 7, 6 });
+
+        // Iterates through each team and adds its xG, real points, expected points and the gap between them
+        for (int i = 0; i < order.size(); i++) {
+            int team = order.get(i);
+            report.cell(i + 1);
+            report.cell(table.getTeams().get(team));
+            report.cell(table.getMatches(team));
+            report.cell(table.getXGFor(team), 1);
+            report.cell(table.getXGAgainst(team), 1);
+            report.cell(table.getActualPoints(team));
+            report.cell(table.getExpectedPoints(team), 1);
+            report.cell(table.getDifference(team), 1, "", true);
+            report.endRow();
+        }
+        report.finish();
+        System.out.printf("Average gap between points and expected points: %.2f\n", table.getMeanAbsoluteDifference());
+    }
+
+
+    /** Works out every season at once and prints how far the real points were from the expected points in each
+     */
+    private void printAllSeasons() {
+
+        // Reads the files again so the comparison uses the latest scraped data
+        refresh();
+        long start = System.nanoTime();
+        List<ExpectedPointsTable> tables = getSeasonTables(readSeasons(LEAGUE_FILE));
+        double milliseconds = (System.nanoTime() - start) / 1e6;
+
+        System.out.printf("\n--- Expected Points for Every Season (%.1f ms) ---\n", milliseconds);
+        ReportWriter report = new ReportWriter(new PrintWriter(System.out), ReportWriter.Format.FIXED_WIDTH,
+                new String[] { "Season", "Matches", "Avg gap", "Most above xPts", "Diff", "Most below xPts", "Diff" }, new int[] { 10, 8, 9, 20, 8, 20, 8 });
+
+        for (ExpectedPointsTable table : tables) {
+            int luckiest = 0;
+            int unluckiest = 0;
+
+            // Finds the teams with the biggest gap each way
+            for (int team = 1; team < table.getTeams().size(); team++) {
+                if (table.getDifference(team) > table.getDifference(luckiest)) {
+                    luckiest = team;
+                }
+                if (table.getDifference(team) < table.getDifference(unluckiest)) {
+                    unluckiest = team;
+                }
+            }
+
+            report.cell(table.getSeason());
+            report.cell(table.getMatchCount());
+            report.cell(table.getMeanAbsoluteDifference(), 2);
+            report.cell(table.getTeams().get(luckiest));
+            report.cell(table.getDifference(luckiest), 1, "", true);
+            report.cell(table.getTeams().get(unluckiest));
+            report.cell(table.getDifference(unluckiest), 1, "", true);
+            report.endRow();
+        }
+        report.finish();
+    }
+
+
+    /** Replays a season many times and prints the spread of finishing positions for each team
+     * @param table the expected points table of the season
+     */
+    private void printMonteCarlo(ExpectedPointsTable table) {
+        SimulationSummary summary = simulateSeason(table, MONTE_CARLO_RUNS);
+        int teamCount = table.getTeams().size();
+
+        // Orders the teams by their average replayed points
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < teamCount; i++) {
+            order.add(i);
+        }
+        order.sort((a, b) -> Double.compare(summary.getAveragePoints(b), summary.getAveragePoints(a)));
+
+        // Prints header for the replayed table
+        System.out.printf("\n--- Replayed %s from xG (%,d runs, seed %d) ---\n", table.getSeason(), summary.getRuns(), seed);
+        ReportWriter report = new ReportWriter(new PrintWriter(System.out), ReportWriter.Format.FIXED_WIDTH,
+                new String[] { "Rank", "Team", "Pts", "xPts", "Avg pos", "Title", "Top 4", "Rel" }, new int[] { 5, 20, 5, 7, 8, 8, 8, 8 });
+
+        for (int i = 0; i < order.size(); i++) {
+            int team = order.get(i);
+            report.cell(i + 1);
+            report.cell(table.getTeams().get(team));
+            report.cell(table.getActualPoints(team));
+            report.cell(summary.getAveragePoints(team), 1);
+            report.cell(summary.getAveragePosition(team), 1);
+            report.cell(summary.getTopProbability(team, 1) * 100, 1, "%", false);
+            report.cell(summary.getTopProbability(team, 4) * 100, 1, "%", false);
+            report.cell(summary.getBottomProbability(team, 3) * 100, 1, "%", false);
+            report.endRow();
+        }
+        report.finish();
+    }
+
+
+    /** Asks the user for a valid season
+     * @param input the Scanner object to read user input
+     * @return the season entered
+     */
+    private String getValidSeason(Scanner input) {
+        while (true) {
+            System.out.print("Enter the season (Eg. 2024 2025): ");
+            String season = input.nextLine().trim();
+
+            if (isValidSeason(season)) {
+                return season;
+            }
+            System.out.println("Invalid season. Please try again. \n");
+        }
+    }
+
+
+    /** Executes the Expected Points feature
+     * @param input the Scanner object to read user input
+     */
+    public void executeFeature(Scanner input) {
+
+        // Displays an interactive menu
+        // Asks the users for their feature choice executes that feature accordingly
+        while (true) {
+            System.out.println("\n--- Expected Points ---");
+            System.out.println("   (1) View the expected points table for a season");
+            System.out.println("   (2) Compare expected and real points for every season");
+            System.out.println("   (3) Replay a season from its xG many times \n");
+            System.out.println("   (0) Exit to feature list \n");
+            System.out.print("Enter your choice: ");
+
+            String choice = input.nextLine();
+
+            switch (choice) {
+                case "1":
+                    printSeasonTable(getSeasonTable(getValidSeason(input)));
+                    break;
+                case "2":
+                    printAllSeasons();
+                    break;
+                case "3":
+                    printMonteCarlo(getSeasonTable(getValidSeason(input)));
+                    break;
+                case "0":
+                    System.out.println("Exiting tool.");
+                    return;
+                default:
+                    System.out.println("Invalid choice. Please try again.");
+            }
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package modules;
+import java.util.*;
+
+/** The expected points table of one season, worked out from the xG of every played match.
+ * It holds each team's expected points next to the points from the real league table,
+ * and keeps the teams and xG of every played match so the season can also be replayed by the Monte Carlo mode.
+ */
+public class ExpectedPointsTable {
+
+    // The season of the table (Eg. 2024 2025)
+    private final String season;
+
+    // List of teams in the season, where each team's position is its index
+    private final List<String> teams;
+
+    // Number of played matches with xG for each team
+    private final int[] matches;
+
+    // Expected points of each team over its played matches
+    private final double[] expectedPoints;
+
+    // xG created by each team over its played matches
+    private final double[] xgFor;
+
+    // xG conceded by each team over its played matches
+    private final double[] xgAgainst;
+
+    // Points of each team in the real league table
+    private final int[] actualPoints;
+
+    // Index of the home team of each played match
+    private final int[] homeTeams;
+
+    // Index of the away team of each played match
+    private final int[] awayTeams;
+
+    // xG of the home team of each played match
+    private final double[] homeXG;
+
+    // xG of the away team of each played match
+    private final double[] awayXG;
+
+
+    /** Creates the expected points table of a season
+     * @param season the season of the table
+     * @param teams the list of teams in the season
+     * @param actualPoints the points of each team in the real league table
+     * @param homeTeams the index of the home team of each played match
+     * @param awayTeams the index of the away team of each played match
+     * @param homeXG the xG of the home team of each played match
+     * @param awayXG the xG of the away team of each played match
+     */
+    public ExpectedPointsTable(String season, List<String> teams, int[] actualPoints, int[] homeTeams, int[] awayTeams, double[] homeXG, double[] awayXG) {
+        this.season = season;
+        this.teams = Collections.unmodifiableList(new ArrayList<>(teams));
+        this.actualPoints = actualPoints;
+        this.homeTeams = homeTeams;
+        this.awayTeams = awayTeams;
+        this.homeXG = homeXG;
+        this.awayXG = awayXG;
+        this.matches = new int[teams.size()];
+        this.expectedPoints = new double[teams.size()];
+        this.xgFor = new double[teams.size()];
+        this.xgAgainst = new double[teams.size()];
+
+        // Adds the expected points of every match to both teams
+        for (int i = 0; i < homeTeams.length; i++) {
+            double[] points = ExpectedPoints.matchExpectedPoints(homeXG[i], awayXG[i]);
+            addMatch(homeTeams[i], points[0], homeXG[i], awayXG[i]);
+            addMatch(awayTeams[i], points[1], awayXG[i], homeXG[i]);
+        }
+    }
+
+
+    /** Gets the season of the table
+     * @return the season (Eg. 2024 2025)
+     */
+    public String getSeason() {
+        return season;
+    }
+
+    /** Gets the teams in the season
+     * @return the list of teams, where each team's position is its index
+     */
+    public List<String> getTeams() {
+        return teams;
+    }
+
+    /** Gets the number of played matches with xG for a team
+     * @param team the index of the team
+     * @return the number of matches
+     */
+    public int getMatches(int team) {
+        return matches[team];
+    }
+
+    /** Gets the expected points of a team
+     * @param team the index of the team
+     * @return the expected points over the team's played matches
+     */
+    public double getExpectedPoints(int team) {
+        return expectedPoints[team];
+    }
+
+    /** Gets the xG created by a team
+     * @param team the index of the team
+     * @return the total xG for the team
+     */
+    public double getXGFor(int team) {
+        return xgFor[team];
+    }
+
+    /** Gets the xG conceded by a team
+     * @param team the index of the team
+     * @return the total xG against the team
+     */
+    public double getXGAgainst(int team) {
+        return xgAgainst[team];
+    }
+
+    /** Gets the points of a team in the real league table
+     * @param team the index of the team
+     * @return the team's real points
+     */
+    public int getActualPoints(int team) {
+        return actualPoints[team];
+    }
+
+    /** Gets the number of played matches with xG in the season
+     * @return the number of matches
+     */
+    public int getMatchCount() {
+        return homeTeams.length;
+    }
+
+    /** Gets the index of the home team of a played match
+     * @param match the position of the match
+     * @return the index of the home team
+     */
+    public int getHomeTeam(int match) {
+        return homeTeams[match];
+    }
+
+    /** Gets the index of the away team of a played match
+     * @param match the position of the match
+     * @return the index of the away team
+     */
+    public int getAwayTeam(int match) {
+        return awayTeams[match];
+    }
+
+    /** Gets the xG of the home team of a played match
+     * @param match the position of the match
+     * @return the home team's xG
+     */
+    public double getHomeXG(int match) {
+        return homeXG[match];
+    }
+
+    /** Gets the xG of the away team of a played match
+     * @param match the position of the match
+     * @return the away team's xG
+     */
+    public double getAwayXG(int match) {
+        return awayXG[match];
+    }
+
+
+    /** Gets how many more points a team has than its xG suggests
+     * @param team the index of the team
+     * @return the real points minus the expected points, where a positive number means the team did better than its chances
+     */
+    public double getDifference(int team) {
+        return actualPoints[team] - expectedPoints[team];
+    }
+
+    /** Gets the average size of the gap between real and expected points over every team
+     * @return the mean absolute difference in points
+     */
+    public double getMeanAbsoluteDifference() {
+        double total = 0;
+        for (int team = 0; team < teams.size(); team++) {
+            total += Math.abs(getDifference(team));
+        }
+        return teams.isEmpty() ? 0 : total / teams.size();
+    }
+
+
+    /** Adds one match to a team's totals
+     * @param team the index of the team
+     * @param points the team's expected points from the match
+     * @param xgFor the team's xG in the match
+     * @param xgAgainst the opponent's xG in the match
+     */
+    private void addMatch(int team, double points, double xgFor, double xgAgainst) {
+        matches[team]++;
+        expectedPoints[team] += points;
+        this.xgFor[team] += xgFor;
+        this.xgAgainst[team] += xgAgainst;
+    }
+}
@@ -0,0 +1,282 @@
+package modules;
+import java.util.*;
+
+/** Tracks the recent form of every team over a few fixed windows, such as the last 5 and last 10 matches.
+ * Each team keeps its most recent matches in a ring buffer as long as the largest window, along with a running total of each stat for every window.
+ * Adding a match adds it to each total and takes away the match that drops out of the window, so adding a match and reading any total
+ * take the same time no matter how many matches have been played. Matches must be added in the order they were played.
+ * The tracker remembers which fixture rows it has added, so the fixtures data can be fed in again after new results arrive and only the new ones are added.
+ */
+public class FormTracker {
+
+    // The stats kept for each match
+    public static final int POINTS = 0;
+    public static final int GOALS_FOR = 1;
+    public static final int GOALS_AGAINST = 2;
+    public static final int XG_FOR = 3;
+    public static final int XG_AGAINST = 4;
+
+    // Number of stats kept for each match
+    private static final int STAT_COUNT = 5;
+
+    /** The recent matches and window totals of one team.
+     */
+    private static class TeamForm {
+
+        // The stats of the most recent matches, where the match after the newest is overwritten next
+        private final double[][] recent;
+
+        // Total of each stat over each window as [window][stat]
+        private final double[][] totals;
+
+        // Number of matches added for the team
+        private int matches;
+
+        TeamForm(int capacity, int windowCount) {
+            recent = new double[capacity][STAT_COUNT];
+            totals = new double[windowCount][STAT_COUNT];
+        }
+    }
+
+
+    // The window sizes in the order they were given
+    private final int[] windows;
+
+    // The form of each team
+    private final Map<String, TeamForm> teams;
+
+    // The season, home team and away team of every fixture row added (Eg. 2024 2025|Liverpool|Arsenal)
+    private final Set<String> added;
+
+
+    /** Creates a tracker with no matches
+     * @param windows the number of recent matches in each window (Eg. 5 and 10)
+     */
+    public FormTracker(int... windows) {
+        if (windows.length == 0) {
+            throw new IllegalArgumentException("A form tracker needs at least one window");
+        }
+        for (int window : windows) {
+            if (window < 1) {
+                throw new IllegalArgumentException("A window needs at least one match, not " + window);
+            }
+        }
+        this.windows = windows.clone();
+        this.teams = new HashMap<>();
+        this.added = new HashSet<>();
+    }
+
+
+    /** Builds a tracker from every played match in the fixtures data.
+     * The data lists the newest season first with each season's matches in the order they were played, so the seasons are added from oldest to newest.
+     * @param fixtures a list of rows, where each row represents match data from the fixtures data
+     * @param windows the number of recent matches in each window
+     * @return the tracker with every played match added
+     */
+    public static FormTracker fromFixtures(List<String[]> fixtures, int... windows) {
+        FormTracker tracker = new FormTracker(windows);
+        tracker.addResults(fixtures);
+        return tracker;
+    }
+
+
+    /** Gets the window sizes of the tracker
+     * @return a copy of the window sizes
+     */
+    public int[] getWindows() {
+        return windows.clone();
+    }
+
+    /** Gets the teams that have at least one match
+     * @return the team names in alphabetical order
+     */
+    public List<String> getTeams() {
+        List<String> names = new ArrayList<>(teams.keySet());
+        Collections.sort(names);
+        return names;
+    }
+
+
+    /** Adds every played fixture row that has not been added yet.
+     * The data lists the newest season first with each season's matches in the order they were played, so the seasons are added from oldest to newest.
+     * @param fixtures a list of rows, where each row represents match data from the fixtures data
+     * @return the number of matches added
+     */
+    public int addResults(List<String[]> fixtures) {
+
+        // Groups the rows by season, keeping each season's order
+        Map<String, List<String[]>> seasons = new TreeMap<>();
+        for (String[] fixture : fixtures) {
+            if (fixture.length > 0) {
+                seasons.computeIfAbsent(fixture[0].trim(), season -> new ArrayList<>()).add(fixture);
+            }
+        }
+
+        int count = 0;
+        for (List<String[]> season : seasons.values()) {
+            for (String[] fixture : season) {
+                if (addResult(fixture)) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /** Adds a fixture row if it has been played and has not been added before
+     * @param fixture the row of match data from the fixtures data
+     * @return true if the match was added, or false if it was not played, could not be read or was already added
+     */
+    public boolean addResult(String[] fixture) {
+        if (fixture.length < 7 || fixture[1].trim().isEmpty() || fixture[6].trim().isEmpty()) {
+            return false;
+        }
+
+        // Skips matches that have not been played yet
+        try {
+            int homeScore = Integer.parseInt(fixture[3].trim());
+            int awayScore = Integer.parseInt(fixture[4].trim());
+            double homeXG = Double.parseDouble(fixture[2].trim());
+            double awayXG = Double.parseDouble(fixture[5].trim());
+            if (!added.add(fixture[0].trim() + "|" + fixture[1].trim() + "|" + fixture[6].trim())) {
+                return false;
+            }
+            addMatch(fixture[1].trim(), fixture[6].trim(), homeScore, awayScore, homeXG, awayXG);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /** Adds a played match to the form of both teams
+     * @param homeTeam the name of the home team
+     * @param awayTeam the name of the away team
+     * @param homeScore the goals scored by the home team
+     * @param awayScore the goals scored by the away team
+     * @param homeXG the expected goals of the home team
+     * @param awayXG the expected goals of the away team
+     */
+    public void addMatch(String homeTeam, String awayTeam, int homeScore, int awayScore, double homeXG, double awayXG) {
+        int result = Integer.compare(homeScore, awayScore);
+        addTeamMatch(homeTeam, result > 0 ? 3 : result == 0 ? 1 : 0, homeScore, awayScore, homeXG, awayXG);
+        addTeamMatch(awayTeam, result < 0 ? 3 : result == 0 ? 1 : 0, awayScore, homeScore, awayXG, homeXG);
+    }
+
+
+    /** Gets the number of matches a window of a team covers, which is fewer than the window size early on
+     * @param team the name of the team
+     * @param window the window size, which must be one the tracker was created with
+     * @return the number of matches in the window
+     */
+    public int getMatches(String team, int window) {
+        TeamForm form = teams.get(team);
+        return form == null ? 0 : Math.min(form.matches, windows[windowIndex(window)]);
+    }
+
+    /** Gets the total of a stat over a team's most recent matches
+     * @param team the name of the team
+     * @param window the window size, which must be one the tracker was created with
+     * @param stat POINTS, GOALS_FOR, GOALS_AGAINST, XG_FOR or XG_AGAINST
+     * @return the total of the stat, or 0 if the team has no matches
+     */
+    public double getTotal(String team, int window, int stat) {
+        TeamForm form = teams.get(team);
+        return form == null ? 0 : form.totals[windowIndex(window)][stat];
+    }
+
+    /** Gets the average of a stat per match over a team's most recent matches
+     * @param team the name of the team
+     * @param window the window size, which must be one the tracker was created with
+     * @param stat POINTS, GOALS_FOR, GOALS_AGAINST, XG_FOR or XG_AGAINST
+     * @return the average of the stat, or 0 if the team has no matches
+     */
+    public double getAverage(String team, int window, int stat) {
+        int matches = getMatches(team, window);
+        return matches == 0 ? 0 : getTotal(team, window, stat) / matches;
+    }
+
+    /** Gets the points per game of a team over its most recent matches
+     * @param team the name of the team
+     * @param window the window size, which must be one the tracker was created with
+     * @return the points per game, or 0 if the team has no matches
+     */
+    public double getPointsPerGame(String team, int window) {
+        return getAverage(team, window, POINTS);
+    }
+
+
+    /** Describes the results of a team's most recent matches, newest last (Eg. WWDLW)
+     * @param team the name of the team
+     * @param window the window size, which must be one the tracker was created with
+     * @return a W, D or L for each match in the window
+     */
+    public String getResults(String team, int window) {
+        TeamForm form = teams.get(team);
+        StringBuilder results = new StringBuilder();
+        if (form == null) {
+            return "";
+        }
+        int matches = Math.min(form.matches, windows[windowIndex(window)]);
+        for (int i = form.matches - matches; i < form.matches; i++) {
+            double points = form.recent[i % form.recent.length][POINTS];
+            results.append(points == 3 ? 'W' : points == 1 ? 'D' : 'L');
+        }
+        return results.toString();
+    }
+
+
+    /** Adds one match to a team's ring buffer and window totals
+     * @param team the name of the team
+     * @param points the points the team got
+     * @param scored the goals the team scored
+     * @param conceded the goals the team conceded
+     * @param xgFor the expected goals of the team
+     * @param xgAgainst the expected goals of the opponent
+     */
+    private void addTeamMatch(String team, int points, int scored, int conceded, double xgFor, double xgAgainst) {
+        TeamForm form = teams.computeIfAbsent(team, name -> new TeamForm(largestWindow(), windows.length));
+        double[] match = { points, scored, conceded, xgFor, xgAgainst };
+
+        // Takes away the match that falls out of each full window before it can be overwritten
+        for (int w = 0; w < windows.length; w++) {
+            if (form.matches >= windows[w]) {
+                double[] leaving = form.recent[(form.matches - windows[w]) % form.recent.length];
+                for (int stat = 0; stat < STAT_COUNT; stat++) {
+                    form.totals[w][stat] -= leaving[stat];
+                }
+            }
+            for (int stat = 0; stat < STAT_COUNT; stat++) {
+                form.totals[w][stat] += match[stat];
+            }
+        }
+
+        System.arraycopy(match, 0, form.recent[form.matches % form.recent.length], 0, STAT_COUNT);
+        form.matches++;
+    }
+
+
+    /** Gets the size of the largest window, which is the size of each ring buffer
+     * @return the largest window size
+     */
+    private int largestWindow() {
+        int largest = 0;
+        for (int window : windows) {
+            largest = Math.max(largest, window);
+        }
+        return largest;
+    }
+
+
+    /** Gets the position of a window size
+     * @param window the window size
+     * @return the position of the window in the windows array
+     */
+    private int windowIndex(int window) {
+        for (int w = 0; w < windows.length; w++) {
+            if (windows[w] == window) {
+                return w;
+            }
+        }
+        throw new IllegalArgumentException("The tracker has no window of " + window + " matches, use one of " + Arrays.toString(windows));
+    }
+}
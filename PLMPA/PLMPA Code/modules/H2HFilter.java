@@ -0,0 +1,103 @@
+package modules;
+
+/** The filters of a head-to-head query, which are a range of seasons, the venue, the number of most recent meetings and whether unplayed fixtures are included.
+ * A new filter matches every played meeting between two teams.
+ */
+public class H2HFilter {
+
+    // Venues a query can be limited to, seen from team 1
+    public static final int ANY_VENUE = 0;
+    public static final int TEAM1_HOME = 1;
+    public static final int TEAM1_AWAY = 2;
+
+    // First year of the earliest season to include
+    private int fromSeason = Integer.MIN_VALUE;
+
+    // First year of the latest season to include
+    private int toSeason = Integer.MAX_VALUE;
+
+    // The venue of the meetings to include
+    private int venue = ANY_VENUE;
+
+    // Number of most recent meetings to include, or 0 for all of them
+    private int lastMeetings = 0;
+
+    // Whether fixtures that have not been played are left out
+    private boolean playedOnly = true;
+
+
+    /** Gets the first year of the earliest season included
+     * @return the first year of the earliest season
+     */
+    public int getFromSeason() {
+        return fromSeason;
+    }
+
+    /** Gets the first year of the latest season included
+     * @return the first year of the latest season
+     */
+    public int getToSeason() {
+        return toSeason;
+    }
+
+    /** Gets the venue of the meetings included
+     * @return ANY_VENUE, TEAM1_HOME or TEAM1_AWAY
+     */
+    public int getVenue() {
+        return venue;
+    }
+
+    /** Gets the number of most recent meetings included
+     * @return the number of meetings, or 0 for all of them
+     */
+    public int getLastMeetings() {
+        return lastMeetings;
+    }
+
+    /** Checks if fixtures that have not been played are left out
+     * @return true if only played fixtures are included, otherwise false
+     */
+    public boolean isPlayedOnly() {
+        return playedOnly;
+    }
+
+
+    /** Sets the range of seasons included, using the first year of each season
+     * @param fromSeason the first year of the earliest season (Eg. 2021 for 2021 2022)
+     * @param toSeason the first year of the latest season
+     */
+    public void setSeasonRange(int fromSeason, int toSeason) {
+        if (fromSeason > toSeason) {
+            throw new IllegalArgumentException("The first season " + fromSeason + " is after the last season " + toSeason);
+        }
+        this.fromSeason = fromSeason;
+        this.toSeason = toSeason;
+    }
+
+    /** Sets the venue of the meetings included
+     * @param venue ANY_VENUE, TEAM1_HOME or TEAM1_AWAY
+     */
+    public void setVenue(int venue) {
+        if (venue != ANY_VENUE && venue != TEAM1_HOME && venue != TEAM1_AWAY) {
+            throw new IllegalArgumentException("Unknown venue " + venue);
+        }
+        this.venue = venue;
+    }
+
+    /** Sets the number of most recent meetings included
+     * @param lastMeetings the number of meetings, or 0 for all of them
+     */
+    public void setLastMeetings(int lastMeetings) {
+        if (lastMeetings < 0) {
+            throw new IllegalArgumentException("The number of meetings cannot be negative");
+        }
+        this.lastMeetings = lastMeetings;
+    }
+
+    /** Sets whether fixtures that have not been played are left out
+     * @param playedOnly true to only include played fixtures
+     */
+    public void setPlayedOnly(boolean playedOnly) {
+        this.playedOnly = playedOnly;
+    }
+}
@@ -0,0 +1,447 @@
+package modules;
+import java.io.PrintWriter;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/** A team by team matrix of head-to-head results, built in one pass over the fixtures.
+ * Each cell holds the results of one team at home against another, so the home and away split of a pairing is kept,
+ * and the record of any two teams is read from two cells instead of searching the fixtures.
+ * Each pair of teams also keeps its meetings sorted from the newest season to the oldest, and from the newest meeting to the oldest within a season,
+ * so filtered queries find their seasons with a binary search and the most recent meetings come first.
+ * New results can be added one at a time. Any number of threads can read the matrix at once, while adding a result waits for the readers to finish.
+ */
+public class H2HMatrix {
+
+    // Number of stats stored in each cell, which are matches, home wins, draws, away wins, home goals and away goals
+    private static final int STATS_PER_CELL = 6;
+
+    // Names and widths of the columns of the export of every pair, where a negative width pads on the right
+    private static final String[] PAIR_COLUMNS = { "Team 1", "Team 2", "Played", "Team 1 Won", "Drew", "Team 2 Won", "Team 1 Goals", "Team 2 Goals",
+            "Team 1 Home Won", "Team 1 Home Drew", "Team 1 Home Lost", "Team 2 Home Won", "Team 2 Home Drew", "Team 2 Home Lost", "Past Results" };
+    private static final int[] PAIR_WIDTHS = { -20, -20, 6, 10, 4, 10, 12, 12, 15, 16, 16, 15, 16, 16, -12 };
+
+    // Position of each team in the matrix
+    private final Map<String, Integer> teamIndexes;
+
+    // Names of the teams in the order they were added
+    private final List<String> teams;
+
+    // Stats of every home and away pairing, laid out as [home team][away team][stat]
+    private int[] cells;
+
+    // Number of teams the cells have room for
+    private int capacity;
+
+    // The meetings of each pair of teams from the newest to the oldest, kept under the cell of the pair's lower team at home
+    private final Map<Integer, List<H2HMeeting>> meetings;
+
+    // Number of played matches added to the matrix
+    private int matchCount;
+
+    // Lets many threads read at once while only one thread adds results
+    private final ReentrantReadWriteLock lock;
+
+
+    /** Creates an empty matrix
+     */
+    public H2HMatrix() {
+        teamIndexes = new HashMap<>();
+        teams = new ArrayList<>();
+        meetings = new HashMap<>();
+        lock = new ReentrantReadWriteLock();
+        capacity = 32;
+        cells = new int[capacity * capacity * STATS_PER_CELL];
+    }
+
+
+    /** Builds a matrix from every fixture in a list of fixtures
+     * @param fixtures a list of rows, where each row represents match data from the fixtures data
+     * @return the matrix of every fixture
+     */
+    public static H2HMatrix fromFixtures(List<String[]> fixtures) {
+        H2HMatrix matrix = new H2HMatrix();
+        for (String[] fixture : fixtures) {
+            matrix.addResult(fixture);
+        }
+        return matrix;
+    }
+
+
+    /** Gets the names of the teams in the matrix
+     * @return a copy of the list of teams
+     */
+    public List<String> getTeams() {
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(teams);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Gets the number of results in the matrix
+     * @return the number of played matches added
+     */
+    public int getMatchCount() {
+        lock.readLock().lock();
+        try {
+            return matchCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+
+    /** Adds a fixture row to the matrix. Played matches are added to the stats, and fixtures that have not been played are only kept as meetings.
+     * @param fixture the row of match data from the fixtures data
+     * @return true if a played match was added, or false if it was not played or could not be read
+     */
+    public boolean addResult(String[] fixture) {
+        if (fixture.length < 7 || fixture[1].trim().isEmpty() || fixture[6].trim().isEmpty()) {
+            return false;
+        }
+
+        // Skips rows whose season cannot be read
+        String season = fixture[0].trim();
+        int seasonStart;
+        try {
+            seasonStart = Integer.parseInt(season.split(" ")[0]);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+
+        // Keeps matches that have not been played yet as unplayed meetings
+        try {
+            int homeScore = Integer.parseInt(fixture[3].trim());
+            int awayScore = Integer.parseInt(fixture[4].trim());
+            addResult(season, seasonStart, fixture[1].trim(), fixture[6].trim(), homeScore, awayScore);
+            return true;
+        } catch (NumberFormatException e) {
+            addFixture(season, seasonStart, fixture[1].trim(), fixture[6].trim());
+            return false;
+        }
+    }
+
+    /** Adds a played match to the matrix, replacing the unplayed meeting of the same fixture if there is one
+     * @param season the season of the match (Eg. 2024 2025)
+     * @param seasonStart the first year of the season
+     * @param homeTeam the name of the home team
+     * @param awayTeam the name of the away team
+     * @param homeScore the goals scored by the home team
+     * @param awayScore the goals scored by the away team
+     */
+    public void addResult(String season, int seasonStart, String homeTeam, String awayTeam, int homeScore, int awayScore) {
+        lock.writeLock().lock();
+        try {
+            int home = teamIndex(homeTeam);
+            int away = teamIndex(awayTeam);
+            int cell = cellIndex(home, away);
+
+            // Increases the matches played and the win, draw or loss of the home team
+            cells[cell]++;
+            if (homeScore > awayScore) {
+                cells[cell + 1]++;
+            } else if (homeScore == awayScore) {
+                cells[cell + 2]++;
+            } else {
+                cells[cell + 3]++;
+            }
+            cells[cell + 4] += homeScore;
+            cells[cell + 5] += awayScore;
+
+            // Replaces the fixture if it was waiting to be played, otherwise adds it as a new meeting
+            H2HMeeting meeting = new H2HMeeting(season, seasonStart, homeTeam, awayTeam, homeScore, awayScore);
+            List<H2HMeeting> pairMeetings = meetingsOf(home, away);
+            int unplayed = -1;
+            for (int i = firstIndex(pairMeetings, seasonStart, false); i < pairMeetings.size() && pairMeetings.get(i).getSeasonStart() == seasonStart; i++) {
+                if (!pairMeetings.get(i).isPlayed() && pairMeetings.get(i).getHomeTeam().equals(homeTeam)) {
+                    unplayed = i;
+                    break;
+                }
+            }
+            if (unplayed >= 0) {
+                pairMeetings.set(unplayed, meeting);
+            } else {
+
+                // Matches are added in the order they are played, so a new meeting is the newest of its season and goes at the start of it
+                pairMeetings.add(firstIndex(pairMeetings, seasonStart, false), meeting);
+            }
+            matchCount++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Adds a fixture that has not been played yet as a meeting, without changing the stats
+     * @param season the season of the fixture (Eg. 2024 2025)
+     * @param seasonStart the first year of the season
+     * @param homeTeam the name of the home team
+     * @param awayTeam the name of the away team
+     */
+    public void addFixture(String season, int seasonStart, String homeTeam, String awayTeam) {
+        lock.writeLock().lock();
+        try {
+            List<H2HMeeting> pairMeetings = meetingsOf(teamIndex(homeTeam), teamIndex(awayTeam));
+            pairMeetings.add(firstIndex(pairMeetings, seasonStart, false), new H2HMeeting(season, seasonStart, homeTeam, awayTeam, -1, -1));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+
+    /** Gets the head-to-head record between two teams over every played match
+     * @param team1 the name of team 1
+     * @param team2 the name of team 2
+     * @return the record of the two teams without its meetings, which is empty if they have not played
+     */
+    public H2HRecord getRecord(String team1, String team2) {
+        lock.readLock().lock();
+        try {
+            return new H2HRecord(team1, team2, readCell(team1, team2), readCell(team2, team1));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+
+    /** Gets every played meeting between two teams
+     * @param team1 the name of team 1
+     * @param team2 the name of team 2
+     * @return the played meetings from the newest season to the oldest
+     */
+    public List<H2HMeeting> getPastResults(String team1, String team2) {
+        return query(team1, team2, new H2HFilter()).getMeetings();
+    }
+
+
+    /** Gets the head-to-head record between two teams over the meetings that match a filter.
+     * The range of seasons is found with a binary search, so only the meetings in the range are looked at.
+     * @param team1 the name of team 1
+     * @param team2 the name of team 2
+     * @param filter the seasons, venue, number of recent meetings and played fixtures to include
+     * @return the record of the matching played meetings, along with every matching meeting from newest to oldest
+     */
+    public H2HRecord query(String team1, String team2, H2HFilter filter) {
+        lock.readLock().lock();
+        try {
+            int[] team1Home = new int[STATS_PER_CELL];
+            int[] team2Home = new int[STATS_PER_CELL];
+            List<H2HMeeting> matches = new ArrayList<>();
+            Integer index1 = teamIndexes.get(team1);
+            Integer index2 = teamIndexes.get(team2);
+            if (index1 == null || index2 == null) {
+                return new H2HRecord(team1, team2, team1Home, team2Home, matches);
+            }
+
+            List<H2HMeeting> pairMeetings = meetings.getOrDefault(cellIndex(Math.min(index1, index2), Math.max(index1, index2)), Collections.emptyList());
+            int end = firstIndex(pairMeetings, filter.getFromSeason(), true);
+            for (int i = firstIndex(pairMeetings, filter.getToSeason(), false); i < end; i++) {
+                H2HMeeting meeting = pairMeetings.get(i);
+                boolean team1AtHome = meeting.getHomeTeam().equals(team1);
+
+                // Skips meetings at the wrong venue or that have not been played when only played meetings are wanted
+                if ((filter.getVenue() == H2HFilter.TEAM1_HOME && !team1AtHome) || (filter.getVenue() == H2HFilter.TEAM1_AWAY && team1AtHome)) {
+                    continue;
+                }
+                if (filter.isPlayedOnly() && !meeting.isPlayed()) {
+                    continue;
+                }
+                matches.add(meeting);
+
+                // Adds played meetings to the stats of the home team's cell
+                if (meeting.isPlayed()) {
+                    int[] cell = team1AtHome ? team1Home : team2Home;
+                    cell[0]++;
+                    if (meeting.getHomeScore() > meeting.getAwayScore()) {
+                        cell[1]++;
+                    } else if (meeting.getHomeScore() == meeting.getAwayScore()) {
+                        cell[2]++;
+                    } else {
+                        cell[3]++;
+                    }
+                    cell[4] += meeting.getHomeScore();
+                    cell[5] += meeting.getAwayScore();
+                }
+
+                // The meetings are newest first, so the query is done once it has enough of them
+                if (matches.size() == filter.getLastMeetings()) {
+                    break;
+                }
+            }
+            return new H2HRecord(team1, team2, team1Home, team2Home, matches);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+
+    /** Writes the record and past results of every pair of teams that have played as a report, one pair per row.
+     * The pairs are written in alphabetical order and the past results are a list, which is an array in JSON and joined by " | " otherwise.
+     * @param out the writer the report goes to, which is flushed but not closed
+     * @param format the layout of the report
+     * @return the number of pairs written
+     */
+    public int writePairs(PrintWriter out, ReportWriter.Format format) {
+        lock.readLock().lock();
+        try {
+            ReportWriter report = new ReportWriter(out, format, PAIR_COLUMNS, PAIR_WIDTHS);
+            List<String> pastResults = new ArrayList<>();
+            int[] order = alphabeticalOrder();
+
+            for (int i = 0; i < order.length; i++) {
+                for (int j = i + 1; j < order.length; j++) {
+                    int team1 = order[i];
+                    int team2 = order[j];
+                    int team1Home = cellIndex(team1, team2);
+                    int team2Home = cellIndex(team2, team1);
+                    if (cells[team1Home] + cells[team2Home] == 0) {
+                        continue;
+                    }
+
+                    // Adds the overall record and each team's home record, worked out the same way as in H2HRecord
+                    report.cell(teams.get(team1));
+                    report.cell(teams.get(team2));
+                    report.cell(cells[team1Home] + cells[team2Home]);
+                    report.cell(cells[team1Home + 1] + cells[team2Home + 3]);
+                    report.cell(cells[team1Home + 2] + cells[team2Home + 2]);
+                    report.cell(cells[team2Home + 1] + cells[team1Home + 3]);
+                    report.cell(cells[team1Home + 4] + cells[team2Home + 5]);
+                    report.cell(cells[team2Home + 4] + cells[team1Home + 5]);
+                    for (int stat = 1; stat <= 3; stat++) {
+                        report.cell(cells[team1Home + stat]);
+                    }
+                    for (int stat = 1; stat <= 3; stat++) {
+                        report.cell(cells[team2Home + stat]);
+                    }
+
+                    // Adds the past results as one list, newest first
+                    pastResults.clear();
+                    for (H2HMeeting meeting : meetings.get(cellIndex(Math.min(team1, team2), Math.max(team1, team2)))) {
+                        if (meeting.isPlayed()) {
+                            pastResults.add(meeting.getSeason() + " " + meeting.getHomeTeam() + " " + meeting.getHomeScore() + " - " + meeting.getAwayScore() + " " + meeting.getAwayTeam());
+                        }
+                    }
+                    report.cell(pastResults, " | ");
+                    report.endRow();
+                }
+            }
+            report.finish();
+            return report.getRowCount();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+
+    /** Sorts the positions of the teams by name. Only called while holding a lock.
+     * @return the team positions in alphabetical order of the team names
+     */
+    private int[] alphabeticalOrder() {
+        Integer[] order = new Integer[teams.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparing(teams::get));
+
+        int[] sorted = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            sorted[i] = order[i];
+        }
+        return sorted;
+    }
+
+
+    /** Copies the stats of one home and away pairing
+     * @param homeTeam the name of the home team
+     * @param awayTeam the name of the away team
+     * @return the matches, home wins, draws, away wins, home goals and away goals, which are all 0 if either team is unknown
+     */
+    private int[] readCell(String homeTeam, String awayTeam) {
+        Integer home = teamIndexes.get(homeTeam);
+        Integer away = teamIndexes.get(awayTeam);
+        if (home == null || away == null) {
+            return new int[STATS_PER_CELL];
+        }
+        int cell = cellIndex(home, away);
+        return Arrays.copyOfRange(cells, cell, cell + STATS_PER_CELL);
+    }
+
+
+    /** Gets the position of a team, adding it and growing the matrix if the team is new. Only called while holding the write lock.
+     * @param team the name of the team
+     * @return the team's position in the matrix
+     */
+    private int teamIndex(String team) {
+        Integer index = teamIndexes.get(team);
+        if (index != null) {
+            return index;
+        }
+
+        // Doubles the matrix and copies each row of cells into place when it is full
+        if (teams.size() == capacity) {
+            int newCapacity = capacity * 2;
+            int[] newCells = new int[newCapacity * newCapacity * STATS_PER_CELL];
+            for (int home = 0; home < capacity; home++) {
+                System.arraycopy(cells, home * capacity * STATS_PER_CELL, newCells, home * newCapacity * STATS_PER_CELL, capacity * STATS_PER_CELL);
+            }
+
+            // The keys of the meetings point at the old layout, so they are moved to the new one
+            Map<Integer, List<H2HMeeting>> moved = new HashMap<>();
+            for (Map.Entry<Integer, List<H2HMeeting>> entry : meetings.entrySet()) {
+                int pairing = entry.getKey() / STATS_PER_CELL;
+                moved.put(((pairing / capacity) * newCapacity + pairing % capacity) * STATS_PER_CELL, entry.getValue());
+            }
+            meetings.clear();
+            meetings.putAll(moved);
+
+            cells = newCells;
+            capacity = newCapacity;
+        }
+
+        teamIndexes.put(team, teams.size());
+        teams.add(team);
+        return teams.size() - 1;
+    }
+
+
+    /** Gets the meetings of a pair of teams, creating the list the first time. Only called while holding the write lock.
+     * @param team1 the position of one team
+     * @param team2 the position of the other team
+     * @return the meetings of the pair from the newest season to the oldest
+     */
+    private List<H2HMeeting> meetingsOf(int team1, int team2) {
+        return meetings.computeIfAbsent(cellIndex(Math.min(team1, team2), Math.max(team1, team2)), key -> new ArrayList<>());
+    }
+
+
+    /** Finds where a season starts or ends in a list of meetings sorted from the newest season to the oldest using a binary search
+     * @param pairMeetings the meetings to search
+     * @param seasonStart the first year of the season
+     * @param after true to find the first meeting older than the season, or false to find the first meeting in or older than the season
+     * @return the index of the first matching meeting, or the size of the list if there is none
+     */
+    private static int firstIndex(List<H2HMeeting> pairMeetings, int seasonStart, boolean after) {
+        int low = 0;
+        int high = pairMeetings.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int middleSeason = pairMeetings.get(middle).getSeasonStart();
+            if (after ? middleSeason >= seasonStart : middleSeason > seasonStart) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+
+    /** Gets the position of the first stat of a home and away pairing
+     * @param home the position of the home team
+     * @param away the position of the away team
+     * @return the index of the pairing's first stat in the cells
+     */
+    private int cellIndex(int home, int away) {
+        return (home * capacity + away) * STATS_PER_CELL;
+    }
+}
@@ -0,0 +1,106 @@
+package modules;
+
+/** One fixture between two teams, kept in the head-to-head matrix.
+ * The scores are stored as numbers and the meeting is only turned into text when it is printed,
+ * so callers that only need the aggregates never pay for formatting. Nothing in it changes after it is created.
+ */
+public class H2HMeeting {
+
+    // The season of the fixture (Eg. 2024 2025)
+    private final String season;
+
+    // The first year of the season, used to sort and search the meetings
+    private final int seasonStart;
+
+    // The name of the home team
+    private final String homeTeam;
+
+    // The name of the away team
+    private final String awayTeam;
+
+    // Goals scored by the home team, or -1 if the fixture has not been played
+    private final int homeScore;
+
+    // Goals scored by the away team, or -1 if the fixture has not been played
+    private final int awayScore;
+
+
+    /** Creates a meeting
+     * @param season the season of the fixture
+     * @param seasonStart the first year of the season
+     * @param homeTeam the name of the home team
+     * @param awayTeam the name of the away team
+     * @param homeScore the goals scored by the home team, or -1 if the fixture has not been played
+     * @param awayScore the goals scored by the away team, or -1 if the fixture has not been played
+     */
+    public H2HMeeting(String season, int seasonStart, String homeTeam, String awayTeam, int homeScore, int awayScore) {
+        this.season = season;
+        this.seasonStart = seasonStart;
+        this.homeTeam = homeTeam;
+        this.awayTeam = awayTeam;
+        this.homeScore = homeScore;
+        this.awayScore = awayScore;
+    }
+
+
+    /** Gets the season of the fixture
+     * @return the season
+     */
+    public String getSeason() {
+        return season;
+    }
+
+    /** Gets the first year of the season
+     * @return the first year of the season (Eg. 2024)
+     */
+    public int getSeasonStart() {
+        return seasonStart;
+    }
+
+    /** Gets the name of the home team
+     * @return the home team
+     */
+    public String getHomeTeam() {
+        return homeTeam;
+    }
+
+    /** Gets the name of the away team
+     * @return the away team
+     */
+    public String getAwayTeam() {
+        return awayTeam;
+    }
+
+    /** Gets the goals scored by the home team
+     * @return the home score, or -1 if the fixture has not been played
+     */
+    public int getHomeScore() {
+        return homeScore;
+    }
+
+    /** Gets the goals scored by the away team
+     * @return the away score, or -1 if the fixture has not been played
+     */
+    public int getAwayScore() {
+        return awayScore;
+    }
+
+    /** Checks if the fixture has been played
+     * @return true if the fixture has a result, otherwise false
+     */
+    public boolean isPlayed() {
+        return homeScore >= 0;
+    }
+
+
+    /** Describes the meeting in the form "[season] home team score - score away team"
+     * @return the meeting as text
+     */
+    @Override
+    public String toString() {
+        if (!isPlayed()) {
+            return "[" + season + "] " + homeTeam + " vs " + awayTeam + " (not played)";
+        }
+        return "[" + season + "] " + homeTeam + " " + homeScore + " - " + awayScore + " " + awayTeam;
+    }
+}
@@ -0,0 +1,170 @@
+package modules;
+import java.util.*;
+
+/** The head-to-head record between two teams, taken from the head-to-head matrix at one moment.
+ * It holds the results of team 1's home matches against team 2 and of team 2's home matches against team 1,
+ * and the overall record is worked out from the two. Nothing in it changes after it is created.
+ */
+public class H2HRecord {
+
+    // The name of team 1
+    private final String team1;
+
+    // The name of team 2
+    private final String team2;
+
+    // Matches, home wins, draws, away wins, home goals and away goals with team 1 at home
+    private final int[] team1Home;
+
+    // Matches, home wins, draws, away wins, home goals and away goals with team 2 at home
+    private final int[] team2Home;
+
+    // The meetings the record was worked out from, which is empty for a record read straight from the matrix
+    private final List<H2HMeeting> meetings;
+
+
+    /** Creates a head-to-head record
+     * @param team1 the name of team 1
+     * @param team2 the name of team 2
+     * @param team1Home the matches, home wins, draws, away wins, home goals and away goals with team 1 at home
+     * @param team2Home the matches, home wins, draws, away wins, home goals and away goals with team 2 at home
+     */
+    public H2HRecord(String team1, String team2, int[] team1Home, int[] team2Home) {
+        this(team1, team2, team1Home, team2Home, Collections.emptyList());
+    }
+
+    /** Creates a head-to-head record along with the meetings it was worked out from
+     * @param team1 the name of team 1
+     * @param team2 the name of team 2
+     * @param team1Home the matches, home wins, draws, away wins, home goals and away goals with team 1 at home
+     * @param team2Home the matches, home wins, draws, away wins, home goals and away goals with team 2 at home
+     * @param meetings the meetings the record was worked out from
+     */
+    public H2HRecord(String team1, String team2, int[] team1Home, int[] team2Home, List<H2HMeeting> meetings) {
+        this.team1 = team1;
+        this.team2 = team2;
+        this.team1Home = team1Home.clone();
+        this.team2Home = team2Home.clone();
+        this.meetings = Collections.unmodifiableList(new ArrayList<>(meetings));
+    }
+
+
+    /** Gets the name of team 1
+     * @return the name of team 1
+     */
+    public String getTeam1() {
+        return team1;
+    }
+
+    /** Gets the name of team 2
+     * @return the name of team 2
+     */
+    public String getTeam2() {
+        return team2;
+    }
+
+    /** Gets the meetings the record was worked out from, which are only turned into text when printed
+     * @return the meetings from the newest season to the oldest, or an empty list for a record read straight from the matrix
+     */
+    public List<H2HMeeting> getMeetings() {
+        return meetings;
+    }
+
+    /** Gets the total number of games played between the two teams
+     * @return the number of games played
+     */
+    public int getGamesPlayed() {
+        return team1Home[0] + team2Home[0];
+    }
+
+    /** Gets the total number of games won by team 1
+     * @return the number of games won by team 1
+     */
+    public int getTeam1GamesWon() {
+        return team1Home[1] + team2Home[3];
+    }
+
+    /** Gets the total number of games won by team 2
+     * @return the number of games won by team 2
+     */
+    public int getTeam2GamesWon() {
+        return team2Home[1] + team1Home[3];
+    }
+
+    /** Gets the total number of games drawn between the two teams
+     * @return the number of games drawn
+     */
+    public int getGamesDrew() {
+        return team1Home[2] + team2Home[2];
+    }
+
+    /** Gets the total goals scored by team 1, which are also the goals conceded by team 2
+     * @return the number of goals scored by team 1
+     */
+    public int getTeam1GoalsScored() {
+        return team1Home[4] + team2Home[5];
+    }
+
+    /** Gets the total goals scored by team 2, which are also the goals conceded by team 1
+     * @return the number of goals scored by team 2
+     */
+    public int getTeam2GoalsScored() {
+        return team2Home[4] + team1Home[5];
+    }
+
+    /** Gets the number of games team 1 played at home against team 2
+     * @return the number of home games of team 1
+     */
+    public int getTeam1HomePlayed() {
+        return team1Home[0];
+    }
+
+    /** Gets the number of games team 1 won at home against team 2
+     * @return the number of home wins of team 1
+     */
+    public int getTeam1HomeWon() {
+        return team1Home[1];
+    }
+
+    /** Gets the number of games drawn with team 1 at home
+     * @return the number of draws at team 1's ground
+     */
+    public int getTeam1HomeDrew() {
+        return team1Home[2];
+    }
+
+    /** Gets the number of games team 1 lost at home against team 2
+     * @return the number of home losses of team 1
+     */
+    public int getTeam1HomeLost() {
+        return team1Home[3];
+    }
+
+    /** Gets the number of games team 2 played at home against team 1
+     * @return the number of home games of team 2
+     */
+    public int getTeam2HomePlayed() {
+        return team2Home[0];
+    }
+
+    /** Gets the number of games team 2 won at home against team 1
+     * @return the number of home wins of team 2
+     */
+    public int getTeam2HomeWon() {
+        return team2Home[1];
+    }
+
+    /** Gets the number of games drawn with team 2 at home
+     * @return the number of draws at team 2's ground
+     */
+    public int getTeam2HomeDrew() {
+        return team2Home[2];
+    }
+
+    /** Gets the number of games team 2 lost at home against team 1
+     * @return the number of home losses of team 2
+     */
+    public int getTeam2HomeLost() {
+        return team2Home[3];
+    }
+}
@@ -1,4 +1,5 @@
 package modules;
+import java.io.*;
 import java.util.*;
 
 /** A head-to-head stats feature where the user can get a stats for any two teams.
@@ -7,6 +8,10 @@ import java.util.*;
  */
 public class H2HStats extends BaseFeatures {
 
+    // Files the export of every pair of teams is written to
+    private static final String EXPORT_CSV_FILE = "data/H2H Export.csv";
+    private static final String EXPORT_JSON_FILE = "data/H2H Export.json";
+
     // Instance variables to track stats
     private int gamesPlayed = 0;
     private int team1GoalsScored = 0;
@@ -17,6 +22,9 @@ public class H2HStats extends BaseFeatures {
     private int team2GamesWon = 0;
     private int gamesDrew = 0;
 
+    // Head-to-head results of every pair of teams, built once from the fixtures data
+    private H2HMatrix matrix;
+
     
     /** Gets the total number of games played between the two teams
      * @return the number of games played
@@ -132,108 +140,52 @@ public class H2HStats extends BaseFeatures {
     }
 
 
-    /** Updates the stats based on the parsed results 
-     * @param homeTeam the name of the home team
-     * @param awayTeam the name of the away team
-     * @param homeScore the score of the home team
-     * @param awayScore the score of the away team
-     * @param team1 the name of team 1
-     * @param team2 the name of team 2
+    /** Gets the head-to-head matrix the stats are looked up in, reading the fixtures data and building it the first time
+     * @return the matrix of every fixture
      */
-    private void updateStats(String homeTeam, String awayTeam, int homeScore, int awayScore, String team1, String team2) {
-
-        // Updates stats for team1 and team2 based on home/away match results
-        // Increases the home/away score depending on the results
-        if (homeTeam.equals(team1)) {
-            team1GoalsScored += homeScore;
-            team2GoalsScored += awayScore;
-
-            team1GoalsConceded += awayScore;
-            team2GoalsConceded += homeScore;
-
-            // Increases the game won count depending on the results
-            if (homeScore > awayScore) {
-                team1GamesWon++;
-            } else if (homeScore < awayScore) {
-                team2GamesWon++;
-            } else {
-                gamesDrew++;
-            }
-
-        // Increases the home/away score depending on the results
-        } else if (homeTeam.equals(team2)) {
-            team2GoalsScored += homeScore;
-            team1GoalsScored += awayScore;
-
-            team2GoalsConceded += awayScore;
-            team1GoalsConceded += homeScore;
-
-            // Increases the game won count depending on the results
-            if (homeScore > awayScore) {
-                team2GamesWon++;
-            } else if (homeScore < awayScore) {
-                team1GamesWon++;
-            } else {
-                gamesDrew++;
-            }
+    public H2HMatrix getMatrix() {
+        if (matrix == null) {
+            matrix = H2HMatrix.fromFixtures(readCSV(FIXTURES_FILE, true, null));
         }
+        return matrix;
     }
 
 
-    /** Parses fixture data to update stats for the specified teams 
-     * @param fixtures the list of fixture data
-     * @param team1 the name of team 1
-     * @param team2 the name of team 2
-     * @param pastResults a list to store past match results for display
+    /** Copies the head-to-head record of two teams into the stats
+     * @param record the record looked up in the matrix
      */
-    private void parseData(ArrayList<String[]> fixtures, String team1, String team2, ArrayList<String> pastResults) {
-
-        // Skips any invalid fixtures
-        for (String[] fixture : fixtures) {
-            if (!isFixtureValid(fixture)) {
-                continue;
-            }
-
-            try {
-
-                // Parses the data and stores them in variables
-                String date = fixture[0].trim();
-                String homeTeam = fixture[1].trim();
-                String awayTeam = fixture[6].trim();
-                int homeScore = Integer.parseInt(fixture[3].trim());
-                int awayScore = Integer.parseInt(fixture[4].trim());
-
-                // Updates the stats of the team and gets added to the past results arraylist 
-                if ((homeTeam.equals(team1) && awayTeam.equals(team2)) || (homeTeam.equals(team2) && awayTeam.equals(team1))) {
-                    gamesPlayed++;
-                    updateStats(homeTeam, awayTeam, homeScore, awayScore, team1, team2);
-                    pastResults.add(String.format("[%s] %s %d - %d %s", date, homeTeam, homeScore, awayScore, awayTeam));
-                }
-            
-            // Skips if values cannot be parsed as numbers
-            } catch (NumberFormatException e) {}
-        }
+    private void updateStats(H2HRecord record) {
+
+        // Goals conceded by one team are the goals scored by the other
+        gamesPlayed = record.getGamesPlayed();
+        team1GoalsScored = record.getTeam1GoalsScored();
+        team2GoalsScored = record.getTeam2GoalsScored();
+        team1GoalsConceded = record.getTeam2GoalsScored();
+        team2GoalsConceded = record.getTeam1GoalsScored();
+        team1GamesWon = record.getTeam1GamesWon();
+        team2GamesWon = record.getTeam2GamesWon();
+        gamesDrew = record.getGamesDrew();
     }
 
 
     /** Determinees and displays the head-to-heads stats for the input teams
-     * @param fixtures the list of fixture data
      * @param teamInput the input string containing the two teams' names
+     * @param filter the seasons, venue and number of recent meetings to include
      */
-    private void determineH2HStats(ArrayList<String[]> fixtures, String teamInput) {
+    private void determineH2HStats(String teamInput, H2HFilter filter) {
 
         // Splits input into team names
         String[] teams = parseTeams(teamInput); 
         String team1 = teams[0];
         String team2 = teams[1];
 
-        // Parses fixtures and updates stats
-        ArrayList<String> pastResults = new ArrayList<>();
-        parseData(fixtures, team1, team2, pastResults);
+        // Looks up the stats of the two teams, which replaces any stats from an earlier lookup
+        H2HRecord record = getMatrix().query(team1, team2, filter);
+        updateStats(record);
 
         // Prints summary if games exist
         if (gamesPlayed > 0) {
-            printSummary(team1, team2, pastResults); 
+            printSummary(record);
         } else {
             System.out.println("\nNo fixtures found between " + team1 + " and " + team2 + ".");
         }
@@ -241,11 +193,11 @@ public class H2HStats extends BaseFeatures {
 
 
     /** Prints the summary of head-to-head stats
-     * @param team1 the name of team 1
-     * @param team2 the name of team 2
-     * @param pastResults the list of past results to display
+     * @param record the record of the two teams along with the past results to display
      */
-    private void printSummary(String team1, String team2, ArrayList<String> pastResults) {
+    private void printSummary(H2HRecord record) {
+        String team1 = record.getTeam1();
+        String team2 = record.getTeam2();
 
         // Prints the header and the number of games won, lost, drawed and played
         System.out.println("\nHead-to-Head Statistics: " + team1 + " vs " + team2);
@@ -257,29 +209,159 @@ public class H2HStats extends BaseFeatures {
         System.out.println(team1 + " Goals Conceded: " + team1GoalsConceded + "     " + team2 + " Goals Conceded: " + team2GoalsConceded);
         System.out.println(team1 + " Goal Difference: " + (team1GoalsScored - team1GoalsConceded) + "    " + team2 + " Goal Difference: " + (team2GoalsScored - team2GoalsConceded) + "\n");
 
-        // Prints the past fixtures of both teams
-        System.out.println("Past Fixture Results:");
-        for (String result : pastResults) {
-            System.out.println(result);
+        // Prints each team's record at its own ground
+        System.out.println(team1 + " at home: W" + record.getTeam1HomeWon() + " D" + record.getTeam1HomeDrew() + " L" + record.getTeam1HomeLost()
+                + "      " + team2 + " at home: W" + record.getTeam2HomeWon() + " D" + record.getTeam2HomeDrew() + " L" + record.getTeam2HomeLost() + "\n");
+
+        // Prints the past fixtures of both teams as a one column report under its heading
+        ReportWriter report = new ReportWriter(new PrintWriter(System.out), ReportWriter.Format.FIXED_WIDTH,
+                new String[] { "Past Fixture Results:" }, new int[] { 0 });
+        for (H2HMeeting meeting : record.getMeetings()) {
+            report.cell(meeting.toString());
+            report.endRow();
         }
+        report.finish();
     }
 
     
+    /** Asks the user for the seasons, venue and number of recent meetings to include in a head-to-head query
+     * @param input the scanner used for the user's input
+     * @return the filter made from the user's answers
+     */
+    private H2HFilter getFilterInput(Scanner input) {
+        H2HFilter filter = new H2HFilter();
+
+        // Gets the range of seasons, where a blank answer keeps every season
+        while (true) {
+            System.out.print("Enter the first season (Eg. 2021 2022) or leave blank for all: ");
+            String from = input.nextLine().trim();
+            if (from.isEmpty()) {
+                break;
+            }
+            System.out.print("Enter the last season (Eg. 2023 2024): ");
+            String to = input.nextLine().trim();
+            if (isValidSeason(from) && isValidSeason(to) && from.compareTo(to) <= 0) {
+                filter.setSeasonRange(Integer.parseInt(from.split(" ")[0]), Integer.parseInt(to.split(" ")[0]));
+                break;
+            }
+            System.out.println("Invalid seasons. Please try again. \n");
+        }
+
+        // Gets the venue of team 1
+        while (true) {
+            System.out.print("Enter the venue of Team 1 (all, home or away): ");
+            String venue = input.nextLine().trim().toLowerCase();
+            if (venue.equals("all") || venue.isEmpty()) {
+                break;
+            } else if (venue.equals("home")) {
+                filter.setVenue(H2HFilter.TEAM1_HOME);
+                break;
+            } else if (venue.equals("away")) {
+                filter.setVenue(H2HFilter.TEAM1_AWAY);
+                break;
+            }
+            System.out.println("Invalid venue. Please try again. \n");
+        }
+
+        // Gets the number of most recent meetings
+        while (true) {
+            System.out.print("Enter the number of most recent meetings or leave blank for all: ");
+            String last = input.nextLine().trim();
+            if (last.isEmpty()) {
+                break;
+            }
+            try {
+                filter.setLastMeetings(Integer.parseInt(last));
+                break;
+            } catch (IllegalArgumentException e) {
+                System.out.println("Invalid number. Please try again. \n");
+            }
+        }
+
+        // Gets whether fixtures that have not been played yet are included
+        while (true) {
+            System.out.print("Include fixtures that have not been played yet (yes or no): ");
+            String unplayed = input.nextLine().trim().toLowerCase();
+            if (unplayed.equals("no") || unplayed.isEmpty()) {
+                break;
+            } else if (unplayed.equals("yes")) {
+                filter.setPlayedOnly(false);
+                break;
+            }
+            System.out.println("Invalid answer. Please try again. \n");
+        }
+        return filter;
+    }
+
+
+    /** Writes the record and past results of every pair of teams to a CSV file and a JSON file
+     * @param csvPath the path of the CSV file
+     * @param jsonPath the path of the JSON file
+     * @return the number of pairs written to each file
+     * @throws IOException if either file cannot be written
+     */
+    public int exportAllPairs(String csvPath, String jsonPath) throws IOException {
+        int pairs = 0;
+        for (String path : new String[] { csvPath, jsonPath }) {
+            try (PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter(path)))) {
+                pairs = getMatrix().writePairs(out, path.equals(csvPath) ? ReportWriter.Format.CSV : ReportWriter.Format.JSON);
+            }
+        }
+        return pairs;
+    }
+
+
+    /** Exports every pair of teams and prints how long it took
+     */
+    private void printExport() {
+        try {
+            long startTime = System.nanoTime();
+            int pairs = exportAllPairs(EXPORT_CSV_FILE, EXPORT_JSON_FILE);
+            long elapsed = System.nanoTime() - startTime;
+            System.out.printf("%nWrote %d head-to-head pairs to %s and %s in %.2f ms.%n", pairs, EXPORT_CSV_FILE, EXPORT_JSON_FILE, elapsed / 1e6);
+        } catch (IOException e) {
+            System.out.println("Could not export the head-to-head stats: " + e.getMessage());
+        }
+    }
+
+
     /**Executes the head-to-head statistics feature
+     * @param input the Scanner object to read user input
      */
-    public void executeFeature() {
-
-        // Reads the data from the CSV file
-        ArrayList<String[]> fixtures = readCSV("data/Fixtures.csv", true, null);
-
-        // Prints the header
-        System.out.println("\n--- Head-to-Head Statistics ---");
-       
-        // Asks the user for their input
-        Scanner input = new Scanner(System.in);
-        String teamInput = getTeamInput(input);
-        
-        // Calculates and prints the head-to-head stats
-        determineH2HStats(fixtures, teamInput);
+    public void executeFeature(Scanner input) {
+
+        // Reads the data from the CSV file and builds the head-to-head matrix
+        getMatrix();
+
+        // Displays an interactive menu
+        // Asks the users for their feature choice executes that feature accordingly
+        while (true) {
+            System.out.println("\n--- Head-to-Head Statistics ---");
+            System.out.println("   (1) View the head-to-head stats of two teams");
+            System.out.println("   (2) View the head-to-head stats of two teams for some seasons, a venue or recent meetings");
+            System.out.println("   (3) Export every pair of teams to CSV and JSON \n");
+            System.out.println("   (0) Exit to feature list \n");
+            System.out.print("Enter your choice: ");
+
+            String choice = input.nextLine();
+
+            switch (choice) {
+                case "1":
+                    determineH2HStats(getTeamInput(input), new H2HFilter());
+                    break;
+                case "2":
+                    String teamInput = getTeamInput(input);
+                    determineH2HStats(teamInput, getFilterInput(input));
+                    break;
+                case "3":
+                    printExport();
+                    break;
+                case "0":
+                    System.out.println("Exiting tool.");
+                    return;
+                default:
+                    System.out.println("Invalid choice. Please try again.");
+            }
+        }
     }
 }
@@ -0,0 +1,465 @@
+package modules;
+import java.util.*;
+import java.util.function.IntPredicate;
+import java.util.function.IntToDoubleFunction;
+
+/** A small query language over the league table store, compiled once into a filter, a sort key and an aggregate that work on row numbers.
+ * A query has up to four parts, which must come in this order:
+ *   where COLUMN OP VALUE [and COLUMN OP VALUE ...]   keeps the rows that match every condition, where OP is one of = != < <= > >=
+ *   group by COLUMN AGGREGATE COLUMN                  combines the rows with the same value using count, sum, avg, min or max
+ *   sort by COLUMN [asc|desc]                         orders the rows, or the groups when used with group by, where groups can only be sorted
+ *                                                     by the group column or by "value", which is their aggregate
+ *   limit N                                           keeps the first N rows or groups
+ * The columns are season, squad and the stat names of the league tables data (Eg. Pts, xGD/90), in any case.
+ * Seasons are compared by their first year and names with spaces go in double quotes, for example:
+ *   where season>=2021 and xGD/90>0.5 sort by Pts desc limit 10
+ *   where squad="Manchester City" sort by season
+ *   group by Rk avg Pts limit 4
+ * Running a query reads the store's arrays directly and creates no objects for each row.
+ */
+public class LeagueQuery {
+
+    // Column numbers of the season and squad, next to the stat columns of the store
+    public static final int SEASON = -1;
+    public static final int SQUAD = -2;
+
+    // The aggregates a group by can use
+    private static final List<String> AGGREGATES = Arrays.asList("count", "sum", "avg", "min", "max");
+
+    // The store the query runs over
+    private final LeagueTableStore store;
+
+    // The conditions every returned row matches, combined into one test
+    private final IntPredicate filter;
+
+    // The column and direction the rows or groups are sorted by, where the column is null when unsorted
+    private final String sortColumn;
+    private final boolean descending;
+
+    // The column the rows are grouped by, or null when they are not grouped
+    private final String groupColumn;
+
+    // The aggregate used on each group and the column it is used on
+    private final String aggregate;
+    private final String aggregateColumn;
+
+    // Most rows or groups returned, or -1 for no limit
+    private final int limit;
+
+    // The first year of each season and the alphabetical position of each squad, used to compare and sort them
+    private final int[] seasonStarts;
+    private final int[] squadOrder;
+
+
+    /** Compiles a query for a store
+     * @param text the query
+     * @param store the store the query runs over
+     * @throws IllegalArgumentException if the query cannot be understood, with a message explaining why
+     */
+    public LeagueQuery(String text, LeagueTableStore store) {
+        this.store = store;
+
+        // Works out the first year of each season and the alphabetical order of the squads once
+        List<String> seasons = store.getSeasons();
+        seasonStarts = new int[seasons.size()];
+        for (int i = 0; i < seasons.size(); i++) {
+            seasonStarts[i] = parseSeasonStart(seasons.get(i));
+        }
+        List<String> squads = store.getSquads();
+        List<String> sortedSquads = new ArrayList<>(squads);
+        sortedSquads.sort(String.CASE_INSENSITIVE_ORDER);
+        squadOrder = new int[squads.size()];
+        for (int i = 0; i < squads.size(); i++) {
+            squadOrder[i] = sortedSquads.indexOf(squads.get(i));
+        }
+
+        List<String> tokens = tokenize(text);
+        int position = 0;
+
+        // Combines the where conditions into one test
+        IntPredicate where = row -> true;
+        if (position < tokens.size() && tokens.get(position).equalsIgnoreCase("where")) {
+            do {
+                position++;
+                if (position + 3 > tokens.size()) {
+                    throw new IllegalArgumentException("A condition needs a column, an operator and a value");
+                }
+                where = where.and(condition(tokens.get(position), tokens.get(position + 1), tokens.get(position + 2)));
+                position += 3;
+            } while (position < tokens.size() && tokens.get(position).equalsIgnoreCase("and"));
+        }
+        filter = where;
+
+        // Reads the group by
+        String group = null;
+        String groupAggregate = null;
+        String groupValue = null;
+        if (position < tokens.size() && tokens.get(position).equalsIgnoreCase("group")) {
+            expect(tokens, position + 1, "by");
+            if (position + 5 > tokens.size()) {
+                throw new IllegalArgumentException("A group by needs a column, an aggregate and a column (Eg. group by Rk avg Pts)");
+            }
+            group = tokens.get(position + 2);
+            groupAggregate = tokens.get(position + 3).toLowerCase();
+            groupValue = tokens.get(position + 4);
+            columnNumber(group);
+            if (!AGGREGATES.contains(groupAggregate)) {
+                throw new IllegalArgumentException("Unknown aggregate " + groupAggregate + ", use one of " + AGGREGATES);
+            }
+            if (columnNumber(groupValue) < 0 && !groupAggregate.equals("count")) {
+                throw new IllegalArgumentException("Only count can be used on " + groupValue);
+            }
+            position += 5;
+        }
+        groupColumn = group;
+        aggregate = groupAggregate;
+        aggregateColumn = groupValue;
+
+        // Reads the sort by
+        String sort = null;
+        boolean sortDescending = false;
+        if (position < tokens.size() && tokens.get(position).equalsIgnoreCase("sort")) {
+            expect(tokens, position + 1, "by");
+            if (position + 3 > tokens.size()) {
+                throw new IllegalArgumentException("A sort by needs a column");
+            }
+            sort = tokens.get(position + 2);
+            if (!(group != null && sort.equalsIgnoreCase("value"))) {
+                int sortNumber = columnNumber(sort);
+
+                // Each group only has one value of the group column and its aggregate, so there is nothing else to sort the groups by
+                if (group != null && sortNumber != columnNumber(group)) {
+                    throw new IllegalArgumentException("Groups can only be sorted by " + group + " or value, not " + sort);
+                }
+            }
+            position += 3;
+            if (position < tokens.size() && (tokens.get(position).equalsIgnoreCase("asc") || tokens.get(position).equalsIgnoreCase("desc"))) {
+                sortDescending = tokens.get(position).equalsIgnoreCase("desc");
+                position++;
+            }
+        }
+        sortColumn = sort;
+        descending = sortDescending;
+
+        // Reads the limit
+        int maxRows = -1;
+        if (position < tokens.size() && tokens.get(position).equalsIgnoreCase("limit")) {
+            if (position + 2 > tokens.size()) {
+                throw new IllegalArgumentException("A limit needs a number");
+            }
+            try {
+                maxRows = Integer.parseInt(tokens.get(position + 1));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("The limit " + tokens.get(position + 1) + " is not a number");
+            }
+            if (maxRows < 0) {
+                throw new IllegalArgumentException("The limit cannot be negative");
+            }
+            position += 2;
+        }
+        limit = maxRows;
+
+        if (position < tokens.size()) {
+            throw new IllegalArgumentException("Unexpected " + tokens.get(position) + ", the parts must be in the order where, group by, sort by, limit");
+        }
+    }
+
+
+    /** Runs the query over the store
+     * @return the matching rows, or the groups if the query has a group by
+     */
+    public LeagueQueryResult run() {
+        long startTime = System.nanoTime();
+
+        // Keeps the rows that match every condition
+        int[] rows = new int[store.getRowCount()];
+        int count = 0;
+        for (int row = 0; row < rows.length; row++) {
+            if (filter.test(row)) {
+                rows[count++] = row;
+            }
+        }
+
+        if (groupColumn == null) {
+            if (sortColumn != null) {
+                sortRows(rows, count, keyOf(columnNumber(sortColumn)), descending);
+            }
+            int kept = limit < 0 ? count : Math.min(limit, count);
+            return new LeagueQueryResult(Arrays.copyOf(rows, kept), System.nanoTime() - startTime);
+        }
+
+        // Sorts the rows by the group column so each group is one run of rows
+        int groupNumber = columnNumber(groupColumn);
+        IntToDoubleFunction groupKey = keyOf(groupNumber);
+        sortRows(rows, count, groupKey, false);
+
+        int valueNumber = columnNumber(aggregateColumn);
+        String[] labels = new String[count];
+        double[] values = new double[count];
+        int[] sizes = new int[count];
+        int groups = 0;
+
+        for (int start = 0; start < count; ) {
+            double key = groupKey.applyAsDouble(rows[start]);
+            int end = start;
+            double sum = 0;
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+
+            // Adds up every row in the run with the same key
+            while (end < count && groupKey.applyAsDouble(rows[end]) == key) {
+                if (valueNumber >= 0) {
+                    double value = store.getValue(valueNumber, rows[end]);
+                    sum += value;
+                    min = Math.min(min, value);
+                    max = Math.max(max, value);
+                }
+                end++;
+            }
+
+            labels[groups] = label(groupNumber, rows[start]);
+            sizes[groups] = end - start;
+            switch (aggregate) {
+                case "count":
+                    values[groups] = end - start;
+                    break;
+                case "sum":
+                    values[groups] = sum;
+                    break;
+                case "avg":
+                    values[groups] = sum / (end - start);
+                    break;
+                case "min":
+                    values[groups] = min;
+                    break;
+                default:
+                    values[groups] = max;
+            }
+            groups++;
+            start = end;
+        }
+
+        // Sorts the groups by their aggregate when asked, or by their key in the chosen direction
+        int[] order = new int[groups];
+        for (int i = 0; i < groups; i++) {
+            order[i] = i;
+        }
+        if (sortColumn != null && sortColumn.equalsIgnoreCase("value")) {
+            sortRows(order, groups, group -> values[group], descending);
+        } else if (descending) {
+            for (int i = 0; i < groups / 2; i++) {
+                int swap = order[i];
+                order[i] = order[groups - 1 - i];
+                order[groups - 1 - i] = swap;
+            }
+        }
+
+        int kept = limit < 0 ? groups : Math.min(limit, groups);
+        String[] keptLabels = new String[kept];
+        double[] keptValues = new double[kept];
+        int[] keptSizes = new int[kept];
+        for (int i = 0; i < kept; i++) {
+            keptLabels[i] = labels[order[i]];
+            keptValues[i] = values[order[i]];
+            keptSizes[i] = sizes[order[i]];
+        }
+        return new LeagueQueryResult(groupColumn, aggregate + " " + aggregateColumn, keptLabels, keptValues, keptSizes, System.nanoTime() - startTime);
+    }
+
+
+    /** Compiles one where condition into a test on a row number
+     * @param column the column name
+     * @param operator the comparison operator
+     * @param value the value to compare against
+     * @return the test
+     */
+    private IntPredicate condition(String column, String operator, String value) {
+        int number = columnNumber(column);
+        if (!Arrays.asList("=", "!=", "<", "<=", ">", ">=").contains(operator)) {
+            throw new IllegalArgumentException("Unknown operator " + operator + " after " + column);
+        }
+
+        // Squads can only be checked for equality, by comparing their numbers
+        if (number == SQUAD) {
+            int squad = store.getSquadCode(value);
+            if (operator.equals("=")) {
+                return row -> store.getSquadCode(row) == squad;
+            } else if (operator.equals("!=")) {
+                return row -> store.getSquadCode(row) != squad;
+            }
+            throw new IllegalArgumentException("Squads can only be compared with = or !=");
+        }
+
+        // Seasons are compared by their first year, so both 2021 and "2021 2022" mean the 2021 2022 season
+        double target;
+        try {
+            target = number == SEASON ? parseSeasonStart(value) : Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("The value " + value + " for " + column + " is not a number");
+        }
+        IntToDoubleFunction key = keyOf(number);
+        switch (operator) {
+            case "=":
+                return row -> key.applyAsDouble(row) == target;
+            case "!=":
+                return row -> key.applyAsDouble(row) != target;
+            case "<":
+                return row -> key.applyAsDouble(row) < target;
+            case "<=":
+                return row -> key.applyAsDouble(row) <= target;
+            case ">":
+                return row -> key.applyAsDouble(row) > target;
+            default:
+                return row -> key.applyAsDouble(row) >= target;
+        }
+    }
+
+
+    /** Gets the number a column is compared and sorted by
+     * @param column the column number, which can be SEASON or SQUAD
+     * @return a function from a row number to its value, where seasons give their first year and squads their alphabetical position
+     */
+    private IntToDoubleFunction keyOf(int column) {
+        if (column == SEASON) {
+            return row -> seasonStarts[store.getSeasonCode(row)];
+        } else if (column == SQUAD) {
+            return row -> squadOrder[store.getSquadCode(row)];
+        }
+        return row -> store.getValue(column, row);
+    }
+
+
+    /** Gets the text of a group's key
+     * @param column the column the rows are grouped by
+     * @param row a row of the group
+     * @return the season, squad or value of the row
+     */
+    private String label(int column, int row) {
+        if (column == SEASON) {
+            return store.getSeason(row);
+        } else if (column == SQUAD) {
+            return store.getSquad(row);
+        } else if (column < LeagueTableStore.INT_COLUMNS) {
+            return Integer.toString(store.getInt(column, row));
+        }
+        return String.format("%.2f", store.getValue(column, row));
+    }
+
+
+    /** Sorts the first entries of an array of row numbers by a key using a merge sort, keeping rows with equal keys in their order
+     * @param rows the row numbers to sort in place
+     * @param count the number of entries to sort
+     * @param key the value each row is sorted by
+     * @param descending true to put the largest key first
+     */
+    static void sortRows(int[] rows, int count, IntToDoubleFunction key, boolean descending) {
+        double[] keys = new double[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = descending ? -key.applyAsDouble(rows[i]) : key.applyAsDouble(rows[i]);
+        }
+        int[] rowBuffer = new int[count];
+        double[] keyBuffer = new double[count];
+
+        // Merges runs of doubling width until the whole range is one sorted run
+        for (int width = 1; width < count; width *= 2) {
+            for (int low = 0; low < count - width; low += 2 * width) {
+                int middle = low + width;
+                int high = Math.min(low + 2 * width, count);
+                int left = low;
+                int right = middle;
+                for (int i = low; i < high; i++) {
+                    if (right >= high || (left < middle && keys[left] <= keys[right])) {
+                        rowBuffer[i] = rows[left];
+                        keyBuffer[i] = keys[left++];
+                    } else {
+                        rowBuffer[i] = rows[right];
+                        keyBuffer[i] = keys[right++];
+                    }
+                }
+                System.arraycopy(rowBuffer, low, rows, low, high - low);
+                System.arraycopy(keyBuffer, low, keys, low, high - low);
+            }
+        }
+    }
+
+
+    /** Gets the number of a column from its name, ignoring case
+     * @param column the column name
+     * @return the stat column number of the store, or SEASON or SQUAD
+     */
+    private static int columnNumber(String column) {
+        if (column.equalsIgnoreCase("season")) {
+            return SEASON;
+        } else if (column.equalsIgnoreCase("squad") || column.equalsIgnoreCase("team")) {
+            return SQUAD;
+        }
+        for (int i = 0; i < LeagueTableStore.COLUMN_NAMES.length; i++) {
+            if (LeagueTableStore.COLUMN_NAMES[i].equalsIgnoreCase(column)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown column " + column + ", use season, squad or one of " + Arrays.toString(LeagueTableStore.COLUMN_NAMES));
+    }
+
+
+    /** Checks that a token is the expected keyword
+     * @param tokens the tokens of the query
+     * @param position the position of the token
+     * @param keyword the keyword that should be there
+     */
+    private static void expect(List<String> tokens, int position, String keyword) {
+        if (position >= tokens.size() || !tokens.get(position).equalsIgnoreCase(keyword)) {
+            throw new IllegalArgumentException("Expected " + keyword + " after " + tokens.get(position - 1));
+        }
+    }
+
+
+    /** Gets the first year of a season
+     * @param season the season (Eg. 2024 2025 or 2024)
+     * @return the first year of the season
+     */
+    private static int parseSeasonStart(String season) {
+        return Integer.parseInt(season.trim().split(" ")[0]);
+    }
+
+
+    /** Splits a query into words, operators and quoted text
+     * @param text the query
+     * @return the tokens of the query, with the quotes removed from quoted text
+     */
+    private static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '"') {
+
+                // Reads everything up to the closing quote as one token
+                int end = text.indexOf('"', i + 1);
+                if (end < 0) {
+                    throw new IllegalArgumentException("Missing closing quote");
+                }
+                tokens.add(text.substring(i + 1, end));
+                i = end + 1;
+            } else if (c == '<' || c == '>' || c == '=' || c == '!') {
+
+                // Reads one or two character operators
+                int end = i + 1 < text.length() && text.charAt(i + 1) == '=' ? i + 2 : i + 1;
+                tokens.add(text.substring(i, end));
+                i = end;
+            } else {
+
+                // Reads a word up to the next space, quote or operator
+                int end = i;
+                while (end < text.length() && !Character.isWhitespace(text.charAt(end)) && "\"<>=!".indexOf(text.charAt(end)) < 0) {
+                    end++;
+                }
+                tokens.add(text.substring(i, end));
+                i = end;
+            }
+        }
+        return tokens;
+    }
+}
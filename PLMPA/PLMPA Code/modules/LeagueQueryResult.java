@@ -0,0 +1,121 @@
+package modules;
+
+/** The result of a league query, which is either a list of row numbers of the league table store or a list of groups with their aggregates.
+ */
+public class LeagueQueryResult {
+
+    // The matching row numbers in order, or null if the query has a group by
+    private final int[] rows;
+
+    // The column the rows were grouped by and the aggregate that was worked out, or null if the query has no group by
+    private final String groupColumn;
+    private final String aggregate;
+
+    // The key, aggregate value and number of rows of each group
+    private final String[] groupLabels;
+    private final double[] groupValues;
+    private final int[] groupSizes;
+
+    // Time taken to run the query in nanoseconds
+    private final long elapsedNanos;
+
+
+    /** Creates the result of a query without a group by
+     * @param rows the matching row numbers in order
+     * @param elapsedNanos the time taken to run the query in nanoseconds
+     */
+    public LeagueQueryResult(int[] rows, long elapsedNanos) {
+        this.rows = rows;
+        this.groupColumn = null;
+        this.aggregate = null;
+        this.groupLabels = null;
+        this.groupValues = null;
+        this.groupSizes = null;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /** Creates the result of a query with a group by
+     * @param groupColumn the column the rows were grouped by
+     * @param aggregate the aggregate that was worked out (Eg. avg Pts)
+     * @param groupLabels the key of each group
+     * @param groupValues the aggregate value of each group
+     * @param groupSizes the number of rows in each group
+     * @param elapsedNanos the time taken to run the query in nanoseconds
+     */
+    public LeagueQueryResult(String groupColumn, String aggregate, String[] groupLabels, double[] groupValues, int[] groupSizes, long elapsedNanos) {
+        this.rows = null;
+        this.groupColumn = groupColumn;
+        this.aggregate = aggregate;
+        this.groupLabels = groupLabels;
+        this.groupValues = groupValues;
+        this.groupSizes = groupSizes;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+
+    /** Checks if the result is a list of groups
+     * @return true if the query had a group by, otherwise false
+     */
+    public boolean isGrouped() {
+        return rows == null;
+    }
+
+    /** Gets the matching row numbers
+     * @return a copy of the row numbers in order, or null if the result is grouped
+     */
+    public int[] getRows() {
+        return rows == null ? null : rows.clone();
+    }
+
+    /** Gets the number of rows or groups in the result
+     * @return the number of rows, or the number of groups if the result is grouped
+     */
+    public int size() {
+        return rows == null ? groupLabels.length : rows.length;
+    }
+
+    /** Gets the column the rows were grouped by
+     * @return the column name, or null if the result is not grouped
+     */
+    public String getGroupColumn() {
+        return groupColumn;
+    }
+
+    /** Gets the aggregate worked out for each group
+     * @return the aggregate and its column (Eg. avg Pts), or null if the result is not grouped
+     */
+    public String getAggregate() {
+        return aggregate;
+    }
+
+    /** Gets the key of a group
+     * @param group the position of the group
+     * @return the season, squad or value the group's rows share
+     */
+    public String getGroupLabel(int group) {
+        return groupLabels[group];
+    }
+
+    /** Gets the aggregate value of a group
+     * @param group the position of the group
+     * @return the aggregate value
+     */
+    public double getGroupValue(int group) {
+        return groupValues[group];
+    }
+
+    /** Gets the number of rows in a group
+     * @param group the position of the group
+     * @return the number of rows
+     */
+    public int getGroupSize(int group) {
+        return groupSizes[group];
+    }
+
+    /** Gets the time taken to run the query
+     * @return the time in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+}
@@ -0,0 +1,119 @@
+package modules;
+
+/** Sorts simulated league tables using a configurable list of tie-break rules.
+ * Each row's stats are packed into one long sort key, with the first rule in the highest bits, so two teams are compared with a single comparison.
+ * The rows are then sorted in place with an insertion sort, which is quick for a 20 team table and creates no new objects.
+ */
+public class LeagueRanker {
+
+    /** The stats a league table can be sorted by, each linked to its column in the simulated table.
+     */
+    public enum TieBreak {
+        POINTS(5, 1),
+        GOAL_DIFFERENCE(8, 1),
+        GOALS_FOR(6, 1),
+        WINS(2, 1),
+        FEWEST_GOALS_AGAINST(7, -1);
+
+        // Column of the stat in the simulated league table
+        private final int column;
+
+        // 1 if a higher value ranks higher, -1 if a lower value ranks higher
+        private final int direction;
+
+        TieBreak(int column, int direction) {
+            this.column = column;
+            this.direction = direction;
+        }
+    }
+
+    // Number of bits each rule takes up in a sort key
+    private static final int BITS_PER_RULE = 12;
+
+    // Added to each value so negative stats such as goal difference pack as positive numbers
+    private static final int VALUE_OFFSET = 1 << (BITS_PER_RULE - 1);
+
+    // Range of values a rule can pack, -2048 to 2047 with 12 bits
+    static final int MIN_VALUE = -VALUE_OFFSET;
+    static final int MAX_VALUE = VALUE_OFFSET - 1;
+
+    // Most rules that fit in one sort key
+    private static final int MAX_RULES = 63 / BITS_PER_RULE;
+
+    // The rules in the order they are applied
+    private final TieBreak[] rules;
+
+
+    /** Creates a ranker that applies the rules in the given order
+     * @param rules the stats to sort by, from most to least important
+     */
+    public LeagueRanker(TieBreak... rules) {
+        if (rules.length == 0 || rules.length > MAX_RULES) {
+            throw new IllegalArgumentException("A ranker needs between 1 and " + MAX_RULES + " tie-break rules");
+        }
+        this.rules = rules.clone();
+    }
+
+
+    /** Creates a ranker with the Premier League rules of points, then goal difference, then goals scored
+     * @return the Premier League ranker
+     */
+    public static LeagueRanker premierLeague() {
+        return new LeagueRanker(TieBreak.POINTS, TieBreak.GOAL_DIFFERENCE, TieBreak.GOALS_FOR);
+    }
+
+
+    /** Gets the rules in the order they are applied
+     * @return a copy of the tie-break rules
+     */
+    public TieBreak[] getRules() {
+        return rules.clone();
+    }
+
+
+    /** Packs the stats of a row into a sort key where a larger key ranks higher.
+     * Each stat, after its direction is applied, must be between MIN_VALUE and MAX_VALUE, or it would spill into the bits of the next rule.
+     * @param row the row of the simulated league table
+     * @return the sort key of the row
+     * @throws IllegalArgumentException if a stat is outside the range a rule can pack
+     */
+    public long sortKey(int[] row) {
+        long key = 0;
+        for (TieBreak rule : rules) {
+            int value = row[rule.column] * rule.direction;
+            if (value < MIN_VALUE || value > MAX_VALUE) {
+                throw new IllegalArgumentException("The " + rule + " value " + value + " is outside the sortable range of "
+                        + MIN_VALUE + " to " + MAX_VALUE);
+            }
+            key = (key << BITS_PER_RULE) | (value + VALUE_OFFSET);
+        }
+        return key;
+    }
+
+
+    /** Sorts the rows of a league table from 1st place to last. Teams that are level on every rule keep their order.
+     * @param rows the rows of the league table to sort in place
+     * @param keys a buffer with at least one entry per row, used to hold the sort keys
+     */
+    public void rank(int[][] rows, long[] keys) {
+        for (int i = 0; i < rows.length; i++) {
+            keys[i] = sortKey(rows[i]);
+        }
+
+        // Moves each row up past every row with a smaller key
+        for (int i = 1; i < rows.length; i++) {
+            long key = keys[i];
+            int[] row = rows[i];
+            int j = i - 1;
+
+            while (j >= 0 && keys[j] < key) {
+                keys[j + 1] = keys[j];
+                rows[j + 1] = rows[j];
+                j--;
+            }
+
+            keys[j + 1] = key;
+            rows[j + 1] = row;
+        }
+    }
+}
@@ -0,0 +1,356 @@
+package modules;
+import java.io.*;
+import java.util.*;
+
+/** A compact store of every row of the league tables data, read once and never changed.
+ * Each stat is kept in its own array of numbers with one entry per row, and the seasons and squads are each stored once
+ * with every row holding the number of its season and squad. A row is found from its season and team through an index with one slot per season and squad.
+ * The rows of each squad are also indexed from the newest season to the oldest, and the rows of each season from first to last place,
+ * so a team's history or a season's table only touches the rows it needs.
+ * Rows that cannot be read are skipped and reported instead of being silently dropped.
+ */
+public class LeagueTableStore {
+
+    // Columns of the stats, in the order they appear in the league tables data after the season
+    public static final int RANK = 0;
+    public static final int MATCHES_PLAYED = 1;
+    public static final int WINS = 2;
+    public static final int DRAWS = 3;
+    public static final int LOSSES = 4;
+    public static final int GOALS_FOR = 5;
+    public static final int GOALS_AGAINST = 6;
+    public static final int GOAL_DIFFERENCE = 7;
+    public static final int POINTS = 8;
+    public static final int POINTS_PER_MATCH = 9;
+    public static final int XG = 10;
+    public static final int XGA = 11;
+    public static final int XGD = 12;
+    public static final int XGD_PER_90 = 13;
+
+    // The names of the columns in the league tables data, where the squad sits between rank and matches played
+    public static final String[] COLUMN_NAMES = { "Rk", "MP", "W", "D", "L", "GF", "GA", "GD", "Pts", "Pts/MP", "xG", "xGA", "xGD", "xGD/90" };
+
+    // Number of columns stored as whole numbers, which come before the decimal columns
+    public static final int INT_COLUMNS = 9;
+
+    // Every distinct season and squad in the order they first appear
+    private final String[] seasons;
+    private final String[] squads;
+
+    // The season and squad number of each row
+    private final int[] seasonCodes;
+    private final int[] squadCodes;
+
+    // The whole number stats as [column][row] and the decimal stats as [column - INT_COLUMNS][row]
+    private final int[][] intStats;
+    private final double[][] doubleStats;
+
+    // The row of each season and squad pair at [season * squad count + squad], or -1 if there is none
+    private final int[] rowIndex;
+
+    // The rows of each squad from the newest season to the oldest, and of each season from first to last place
+    private final int[][] squadRows;
+    private final int[][] seasonRows;
+
+    // The number of each season and of each squad in lower case
+    private final Map<String, Integer> seasonLookup;
+    private final Map<String, Integer> squadLookup;
+
+    // Number of rows that could not be read
+    private final int skippedRows;
+
+    // Time taken to read and build the store in nanoseconds
+    private final long loadNanos;
+
+
+    /** Creates a store from rows that have already been split into columns
+     * @param rows the rows of the league tables data without the header
+     * @param loadStart the time from System.nanoTime() when loading started
+     */
+    private LeagueTableStore(List<String[]> rows, long loadStart) {
+        List<String> seasonList = new ArrayList<>();
+        List<String> squadList = new ArrayList<>();
+        seasonLookup = new HashMap<>();
+        squadLookup = new HashMap<>();
+
+        int[] seasonColumn = new int[rows.size()];
+        int[] squadColumn = new int[rows.size()];
+        int[][] ints = new int[INT_COLUMNS][rows.size()];
+        double[][] doubles = new double[COLUMN_NAMES.length - INT_COLUMNS][rows.size()];
+        int count = 0;
+        int skipped = 0;
+
+        for (String[] row : rows) {
+
+            // Parses every number first so a bad row leaves nothing behind
+            int[] rowInts = new int[INT_COLUMNS];
+            double[] rowDoubles = new double[doubles.length];
+            try {
+                if (row.length < COLUMN_NAMES.length + 2) {
+                    throw new IllegalArgumentException("expected " + (COLUMN_NAMES.length + 2) + " columns but found " + row.length);
+                }
+                for (int column = 0; column < COLUMN_NAMES.length; column++) {
+
+                    // The squad is the third column in the data, so every column after rank is shifted by one
+                    String value = row[column == RANK ? 1 : column + 2].trim();
+                    if (column < INT_COLUMNS) {
+                        rowInts[column] = Integer.parseInt(value);
+                    } else {
+                        rowDoubles[column - INT_COLUMNS] = Double.parseDouble(value);
+                    }
+                }
+            } catch (IllegalArgumentException e) {
+                System.err.println("Skipping league table row " + String.join(",", row) + ": " + e.getMessage());
+                skipped++;
+                continue;
+            }
+
+            // Adds the season and squad to the dictionaries the first time they are seen
+            seasonColumn[count] = code(row[0].trim(), seasonList, seasonLookup);
+            squadColumn[count] = code(row[2].trim(), squadList, squadLookup);
+            for (int column = 0; column < INT_COLUMNS; column++) {
+                ints[column][count] = rowInts[column];
+            }
+            for (int column = 0; column < doubles.length; column++) {
+                doubles[column][count] = rowDoubles[column];
+            }
+            count++;
+        }
+
+        // Trims the columns down to the rows that were read
+        seasons = seasonList.toArray(new String[0]);
+        squads = squadList.toArray(new String[0]);
+        seasonCodes = Arrays.copyOf(seasonColumn, count);
+        squadCodes = Arrays.copyOf(squadColumn, count);
+        intStats = new int[INT_COLUMNS][];
+        for (int column = 0; column < INT_COLUMNS; column++) {
+            intStats[column] = Arrays.copyOf(ints[column], count);
+        }
+        doubleStats = new double[doubles.length][];
+        for (int column = 0; column < doubles.length; column++) {
+            doubleStats[column] = Arrays.copyOf(doubles[column], count);
+        }
+
+        // Builds the index of every season and squad pair
+        rowIndex = new int[seasons.length * squads.length];
+        Arrays.fill(rowIndex, -1);
+        for (int row = 0; row < count; row++) {
+            rowIndex[seasonCodes[row] * squads.length + squadCodes[row]] = row;
+        }
+
+        // Builds the indexes of each squad's rows and each season's rows
+        squadRows = groupRows(squadCodes, squads.length, Comparator.comparing((Integer row) -> seasons[seasonCodes[row]]).reversed());
+        seasonRows = groupRows(seasonCodes, seasons.length, Comparator.comparingInt((Integer row) -> intStats[RANK][row]));
+
+        skippedRows = skipped;
+        loadNanos = System.nanoTime() - loadStart;
+    }
+
+
+    /** Reads the league tables data into a store
+     * @param filePath the path to the league tables CSV file
+     * @return the store of every row that could be read, which is empty if the file cannot be read
+     */
+    public static LeagueTableStore load(String filePath) {
+        long loadStart = System.nanoTime();
+        List<String[]> rows = new ArrayList<>();
+
+        // Reads every row after the header
+        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
+            String line = reader.readLine();
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    rows.add(line.split(","));
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error reading CSV file: " + e.getMessage());
+        }
+        return new LeagueTableStore(rows, loadStart);
+    }
+
+
+    /** Gets the number of rows in the store
+     * @return the number of rows
+     */
+    public int getRowCount() {
+        return seasonCodes.length;
+    }
+
+    /** Gets the season of a row
+     * @param row the row number
+     * @return the season (Eg. 2024 2025)
+     */
+    public String getSeason(int row) {
+        return seasons[seasonCodes[row]];
+    }
+
+    /** Gets the squad of a row
+     * @param row the row number
+     * @return the squad name
+     */
+    public String getSquad(int row) {
+        return squads[squadCodes[row]];
+    }
+
+    /** Gets the number of the season of a row, which is its position in getSeasons()
+     * @param row the row number
+     * @return the season number
+     */
+    public int getSeasonCode(int row) {
+        return seasonCodes[row];
+    }
+
+    /** Gets the number of the squad of a row, which is its position in getSquads()
+     * @param row the row number
+     * @return the squad number
+     */
+    public int getSquadCode(int row) {
+        return squadCodes[row];
+    }
+
+    /** Gets a whole number stat of a row
+     * @param column a column from RANK to POINTS
+     * @param row the row number
+     * @return the value of the stat
+     */
+    public int getInt(int column, int row) {
+        return intStats[column][row];
+    }
+
+    /** Gets any stat of a row as a decimal
+     * @param column any column from RANK to XGD_PER_90
+     * @param row the row number
+     * @return the value of the stat
+     */
+    public double getValue(int column, int row) {
+        return column < INT_COLUMNS ? intStats[column][row] : doubleStats[column - INT_COLUMNS][row];
+    }
+
+    /** Gets every distinct season in the order they first appear
+     * @return a copy of the list of seasons
+     */
+    public List<String> getSeasons() {
+        return new ArrayList<>(Arrays.asList(seasons));
+    }
+
+    /** Gets every distinct squad in the order they first appear
+     * @return a copy of the list of squads
+     */
+    public List<String> getSquads() {
+        return new ArrayList<>(Arrays.asList(squads));
+    }
+
+    /** Gets the number of rows that could not be read
+     * @return the number of skipped rows
+     */
+    public int getSkippedRows() {
+        return skippedRows;
+    }
+
+    /** Gets the time taken to read and build the store
+     * @return the load time in nanoseconds
+     */
+    public long getLoadNanos() {
+        return loadNanos;
+    }
+
+    /** Estimates the memory used by the store's arrays and indexes, not counting the season and squad names
+     * @return the estimated size in bytes
+     */
+    public long getMemoryBytes() {
+        long rows = getRowCount();
+        return rows * 4 * (4 + INT_COLUMNS) + rows * 8 * doubleStats.length + 4L * rowIndex.length;
+    }
+
+
+    /** Finds the row of a team in a season, ignoring the case of the team name
+     * @param season the season (Eg. 2024 2025)
+     * @param team the name of the team
+     * @return the row number, or -1 if the team has no row in that season
+     */
+    public int findRow(String season, String team) {
+        Integer seasonCode = seasonLookup.get(season.toLowerCase());
+        Integer squadCode = squadLookup.get(team.toLowerCase());
+        if (seasonCode == null || squadCode == null) {
+            return -1;
+        }
+        return rowIndex[seasonCode * squads.length + squadCode];
+    }
+
+    /** Gets the rows of a season from first to last place
+     * @param season the season (Eg. 2024 2025)
+     * @return a copy of the row numbers, which is empty if the season is not in the store
+     */
+    public int[] getSeasonRows(String season) {
+        int seasonCode = getSeasonCode(season);
+        return seasonCode < 0 ? new int[0] : seasonRows[seasonCode].clone();
+    }
+
+    /** Gets the rows of a squad from the newest season to the oldest, ignoring the case of the team name
+     * @param team the name of the team
+     * @return a copy of the row numbers, which is empty if the team is not in the store
+     */
+    public int[] getSquadRows(String team) {
+        int squadCode = getSquadCode(team);
+        return squadCode < 0 ? new int[0] : squadRows[squadCode].clone();
+    }
+
+    /** Gets the number of a season
+     * @param season the season (Eg. 2024 2025)
+     * @return the season number, or -1 if it is not in the store
+     */
+    public int getSeasonCode(String season) {
+        return seasonLookup.getOrDefault(season.toLowerCase(), -1);
+    }
+
+    /** Gets the number of a squad, ignoring case
+     * @param team the name of the team
+     * @return the squad number, or -1 if it is not in the store
+     */
+    public int getSquadCode(String team) {
+        return squadLookup.getOrDefault(team.toLowerCase(), -1);
+    }
+
+
+    /** Groups the rows by a code column and sorts each group
+     * @param codes the code of each row
+     * @param groupCount the number of distinct codes
+     * @param order the order of the rows within each group
+     * @return the sorted row numbers of each code
+     */
+    private static int[][] groupRows(int[] codes, int groupCount, Comparator<Integer> order) {
+        List<List<Integer>> groups = new ArrayList<>();
+        for (int group = 0; group < groupCount; group++) {
+            groups.add(new ArrayList<>());
+        }
+        for (int row = 0; row < codes.length; row++) {
+            groups.get(codes[row]).add(row);
+        }
+
+        int[][] rows = new int[groupCount][];
+        for (int group = 0; group < groupCount; group++) {
+            List<Integer> sorted = groups.get(group);
+            sorted.sort(order);
+            rows[group] = sorted.stream().mapToInt(Integer::intValue).toArray();
+        }
+        return rows;
+    }
+
+
+    /** Gets the number of a name in a dictionary, adding it if it is new
+     * @param name the name to look up
+     * @param names the names in the order they were added
+     * @param lookup the number of each name in lower case
+     * @return the number of the name
+     */
+    private static int code(String name, List<String> names, Map<String, Integer> lookup) {
+        Integer existing = lookup.get(name.toLowerCase());
+        if (existing != null) {
+            return existing;
+        }
+        lookup.put(name.toLowerCase(), names.size());
+        names.add(name);
+        return names.size() - 1;
+    }
+}
@@ -17,6 +17,27 @@ public class MatchPredictor extends BaseFeatures {
     private int team1Matches = 0;
     private int team2Matches = 0;
 
+    // Number of recent matches used for each team's form
+    static final int FORM_WINDOW = 5;
+
+    // Recent form of every team, built from the fixtures the first time a prediction needs it
+    private FormTracker form;
+
+    // Share of the predicted goals that comes from recent form instead of past meetings, which is 0 unless it is turned on
+    private double formWeight = 0;
+
+
+    /** Creates a predictor that works out each team's form from the fixtures it is given
+     */
+    public MatchPredictor() {}
+
+    /** Creates a predictor that uses form that has already been worked out, so the form can be shared by many predictors
+     * @param form the recent form of every team, which must have a window of FORM_WINDOW matches
+     */
+    public MatchPredictor(FormTracker form) {
+        this.form = form;
+    }
+
 
     /** Gets the total expected goals for team 1
      * @return the total expected goals for team 1
@@ -61,6 +82,14 @@ public class MatchPredictor extends BaseFeatures {
     }
 
     
+    /** Gets the share of the predicted goals that comes from recent form
+     * @return the form weight, where 0 means the prediction only uses past meetings
+     */
+    public double getFormWeight() {
+        return formWeight;
+    }
+
+    
     /** Sets the total expected goals for team 1
      * @param team1TotalXG the total expected goals for team 1
      */
@@ -103,6 +132,18 @@ public class MatchPredictor extends BaseFeatures {
         this.team2Matches = team2Matches;
     }
 
+    /** Sets the share of the predicted goals that comes from recent form instead of past meetings.
+     * The weight has not been tested against past results, so it is off unless asked for and the default prediction only uses past meetings.
+     * @param formWeight the form weight from 0 to 1
+     * @throws IllegalArgumentException if the weight is outside 0 to 1
+     */
+    public void setFormWeight(double formWeight) {
+        if (!(formWeight >= 0 && formWeight <= 1)) {
+            throw new IllegalArgumentException("The form weight must be from 0 to 1, not " + formWeight);
+        }
+        this.formWeight = formWeight;
+    }
+
 
     /** Updates the stats for both teams based on the match data
      * @param homeTeam the name of the home team
@@ -174,16 +215,23 @@ public class MatchPredictor extends BaseFeatures {
     }
 
 
-    /** Calculates the predicted match outcome for the two teams based on their historical performance
+    /** Predicts the goals each team scores when they meet, based on their xG and finishing in past meetings.
+     * If a form weight is set, that share of the prediction comes from recent form instead, which is the team's xG over its last few matches
+     * averaged with the xG its opponent has conceded.
      * @param fixtures the list of fixture data
-     * @param teamInput the string input containing the names of the two teams
+     * @param team1 the name of team 1
+     * @param team2 the name of team 2
+     * @return the predicted goals of team 1 and team 2, which are NaN if the teams have never played each other
      */
-    private void calculatePrediction(ArrayList<String[]> fixtures, String teamInput) {
+    public double[] predictGoals(ArrayList<String[]> fixtures, String team1, String team2) {
 
-        // Splits the input into team names
-        String[] teams = parseTeams(teamInput); 
-        String team1 = teams[0];
-        String team2 = teams[1];
+        // Starts from no matches so the same predictor can be used for another pair of teams
+        team1TotalXG = 0;
+        team2TotalXG = 0;
+        team1TotalGoals = 0;
+        team2TotalGoals = 0;
+        team1Matches = 0;
+        team2Matches = 0;
 
         // Parses data
         parseData(fixtures, team1, team2); 
@@ -200,8 +248,72 @@ public class MatchPredictor extends BaseFeatures {
         double team1PredictedGoals = team1PredictedXG * team1PF;
         double team2PredictedGoals = team2PredictedXG * team2PF;
 
+        // Blends in recent form if it is turned on and both teams have played recently
+        if (formWeight > 0 && getForm(fixtures).getMatches(team1, FORM_WINDOW) > 0 && form.getMatches(team2, FORM_WINDOW) > 0) {
+            team1PredictedGoals = (1 - formWeight) * team1PredictedGoals + formWeight * formGoals(team1, team2);
+            team2PredictedGoals = (1 - formWeight) * team2PredictedGoals + formWeight * formGoals(team2, team1);
+        }
+
+        return new double[] { team1PredictedGoals, team2PredictedGoals };
+    }
+
+
+    /** Gets the recent form of every team, building it from the fixtures the first time
+     * @param fixtures the list of fixture data
+     * @return the form tracker
+     */
+    private FormTracker getForm(ArrayList<String[]> fixtures) {
+        if (form == null) {
+            form = FormTracker.fromFixtures(fixtures, FORM_WINDOW);
+        }
+        return form;
+    }
+
+
+    /** Works out the goals a team is expected to score from the recent form of both teams
+     * @param team the name of the team scoring
+     * @param opponent the name of the team conceding
+     * @return the average of the team's xG and the opponent's xG against per match
+     */
+    private double formGoals(String team, String opponent) {
+        return (form.getAverage(team, FORM_WINDOW, FormTracker.XG_FOR) + form.getAverage(opponent, FORM_WINDOW, FormTracker.XG_AGAINST)) / 2;
+    }
+
+
+    /** Calculates the predicted match outcome for the two teams based on their historical performance
+     * @param fixtures the list of fixture data
+     * @param teamInput the string input containing the names of the two teams
+     */
+    private void calculatePrediction(ArrayList<String[]> fixtures, String teamInput) {
+
+        // Splits the input into team names
+        String[] teams = parseTeams(teamInput); 
+        String team1 = teams[0];
+        String team2 = teams[1];
+
+        // Predicts the goals of each team from their past meetings
+        double[] predictedGoals = predictGoals(fixtures, team1, team2);
+        double team1PredictedGoals = predictedGoals[0];
+        double team2PredictedGoals = predictedGoals[1];
+
          // Prints the predicted scoreline and winner
         printSummary(team1PredictedGoals, team2PredictedGoals, team1, team2);
+
+        // Prints the recent form of both teams alongside the prediction
+        getForm(fixtures);
+        System.out.println("\nForm over the last " + FORM_WINDOW + " matches:");
+        printForm(team1);
+        printForm(team2);
+    }
+
+
+    /** Prints a team's results, points per game and xG over its most recent matches
+     * @param team the name of the team
+     */
+    private void printForm(String team) {
+        System.out.printf("%-20s %-6s %.2f PPG, xG %.2f for and %.2f against per match\n", team, form.getResults(team, FORM_WINDOW),
+                form.getPointsPerGame(team, FORM_WINDOW), form.getAverage(team, FORM_WINDOW, FormTracker.XG_FOR),
+                form.getAverage(team, FORM_WINDOW, FormTracker.XG_AGAINST));
     }
 
 
@@ -228,17 +340,17 @@ public class MatchPredictor extends BaseFeatures {
 
     
     /** Executes the match prediction feature
+     * @param input the Scanner object to read user input
      */
-    public void executeFeature() {
+    public void executeFeature(Scanner input) {
         
         // Reads the data from the CSV file
-        ArrayList<String[]> fixtures = readCSV("data/Fixtures.csv", true, null); 
+        ArrayList<String[]> fixtures = readCSV(FIXTURES_FILE, true, null); 
 
         // Prints the header
         System.out.println("\n--- Match Predictor ---");
 
         // Asks the user for their input
-        Scanner input = new Scanner(System.in);
         String teamInput = getTeamInput(input); 
 
         // Calculates and prints the prediction
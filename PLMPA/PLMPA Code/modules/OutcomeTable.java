@@ -0,0 +1,270 @@
+package modules;
+import java.util.SplittableRandom;
+
+/** A precomputed table of scorelines for every home and away pairing in a league.
+ * The goals a team scores follow the same distribution used by the season simulator, where each of a fixed number of trials is a goal with probability 1 / (1 + xG).
+ * The chance of every scoreline of a pairing is worked out once per set of team strengths and stored as an alias table,
+ * so simulating a match is one random number and one table lookup instead of drawing each trial.
+ */
+public class OutcomeTable {
+
+    // Number of teams in the league
+    private final int teamCount;
+
+    // Number of trials per team in a match, which is also the most goals a team can score
+    private final int trials;
+
+    // Number of possible scorelines of a match
+    private final int outcomeCount;
+
+    // Chance out of 2^32 of keeping the scoreline in each column, laid out as [home team][away team][column]
+    private final long[] thresholds;
+
+    // Scoreline used when the column is kept, laid out the same way
+    private final int[] outcomes;
+
+    // Scoreline used when the column is not kept, laid out the same way
+    private final int[] aliases;
+
+
+    /** Builds the table for every pairing of teams
+     * @param strengths the attack and defense strengths of each team
+     * @param trials the number of trials per team in a match
+     */
+    public OutcomeTable(double[][] strengths, int trials) {
+        this.teamCount = strengths.length;
+        this.trials = trials;
+        this.outcomeCount = (trials + 1) * (trials + 1);
+        this.thresholds = new long[teamCount * teamCount * outcomeCount];
+        this.outcomes = new int[thresholds.length];
+        this.aliases = new int[thresholds.length];
+
+        double[] homeGoals = new double[trials + 1];
+        double[] awayGoals = new double[trials + 1];
+        double[] scorelines = new double[outcomeCount];
+
+        // Iterates through every home and away pairing and stores the chance of each scoreline
+        for (int home = 0; home < teamCount; home++) {
+            for (int away = 0; away < teamCount; away++) {
+                double homeXG = strengths[home][0] * strengths[away][1];
+                double awayXG = strengths[away][0] * strengths[home][1];
+
+                fillGoalProbabilities(homeGoals, homeXG);
+                fillGoalProbabilities(awayGoals, awayXG);
+
+                // Both teams score independently, so a scoreline's chance is the product of both sides
+                for (int h = 0; h <= trials; h++) {
+                    for (int a = 0; a <= trials; a++) {
+                        scorelines[h * (trials + 1) + a] = homeGoals[h] * awayGoals[a];
+                    }
+                }
+
+                buildAliasTable((home * teamCount + away) * outcomeCount, scorelines);
+            }
+        }
+    }
+
+
+    /** Gets the number of teams in the table
+     * @return the number of teams
+     */
+    public int getTeamCount() {
+        return teamCount;
+    }
+
+    /** Gets the number of trials per team in a match
+     * @return the number of trials
+     */
+    public int getTrials() {
+        return trials;
+    }
+
+
+    /** Gets the home goals from a sampled scoreline
+     * @param outcome the scoreline returned by the sample methods
+     * @return the number of goals scored by the home team
+     */
+    public static int homeGoals(int outcome) {
+        return outcome >>> 8;
+    }
+
+    /** Gets the away goals from a sampled scoreline
+     * @param outcome the scoreline returned by the sample methods
+     * @return the number of goals scored by the away team
+     */
+    public static int awayGoals(int outcome) {
+        return outcome & 0xFF;
+    }
+
+
+    /** Stores the binomial probability of each number of goals for one side of a pairing
+     * @param probabilities the array to fill, with one entry per number of goals
+     * @param mean the expected goals for the side
+     */
+    private void fillGoalProbabilities(double[] probabilities, double mean) {
+
+        // Probability of a goal being scored in a single trial
+        double p = 1 / (1 + mean);
+
+        // Keeps the probability between 0 and 1, the same way a trial by trial draw treats strengths outside the usual range
+        if (!(p > 0)) {
+            p = 0;
+        } else if (p > 1) {
+            p = 1;
+        }
+
+        double ways = 1;
+        for (int goals = 0; goals <= trials; goals++) {
+            probabilities[goals] = ways * Math.pow(p, goals) * Math.pow(1 - p, trials - goals);
+            ways = ways * (trials - goals) / (goals + 1);
+        }
+    }
+
+
+    /** Builds the alias table of one pairing using Vose's method
+     * @param start the index of the pairing's first column
+     * @param probabilities the chance of each scoreline of the pairing
+     */
+    private void buildAliasTable(int start, double[] probabilities) {
+        double[] scaled = new double[outcomeCount];
+        int[] small = new int[outcomeCount];
+        int[] large = new int[outcomeCount];
+        int smallCount = 0;
+        int largeCount = 0;
+
+        // Scales each chance so an average column holds exactly 1 and splits the columns into under and over full
+        double total = 0;
+        for (double probability : probabilities) {
+            total += probability;
+        }
+        for (int i = 0; i < outcomeCount; i++) {
+            scaled[i] = probabilities[i] * outcomeCount / total;
+            if (scaled[i] < 1) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+
+        // Tops up each under full column with part of an over full one
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+
+            setColumn(start + less, scaled[less], less, more);
+            scaled[more] = (scaled[more] + scaled[less]) - 1;
+
+            if (scaled[more] < 1) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+
+        // Any columns left over are full up to rounding
+        while (largeCount > 0) {
+            int column = large[--largeCount];
+            setColumn(start + column, 1, column, column);
+        }
+        while (smallCount > 0) {
+            int column = small[--smallCount];
+            setColumn(start + column, 1, column, column);
+        }
+    }
+
+
+    /** Stores one column of an alias table
+     * @param index the index of the column in the table
+     * @param keep the chance of keeping the column's own scoreline
+     * @param outcome the column's own scoreline
+     * @param alias the scoreline used otherwise
+     */
+    private void setColumn(int index, double keep, int outcome, int alias) {
+        thresholds[index] = (long) (keep * (1L << 32));
+        outcomes[index] = encode(outcome);
+        aliases[index] = encode(alias);
+    }
+
+
+    /** Packs a scoreline number into home goals and away goals
+     * @param outcome the scoreline number, counting home goals first
+     * @return the packed scoreline
+     */
+    private int encode(int outcome) {
+        return ((outcome / (trials + 1)) << 8) | (outcome % (trials + 1));
+    }
+
+
+    /** Samples the scoreline of a pairing from 64 random bits
+     * @param home the index of the home team
+     * @param away the index of the away team
+     * @param bits 64 random bits, where the top half picks a column and the bottom half decides between the column and its alias
+     * @return the packed scoreline, read with homeGoals and awayGoals
+     */
+    public int sample(int home, int away, long bits) {
+        int column = (home * teamCount + away) * outcomeCount + (int) (((bits >>> 32) * outcomeCount) >>> 32);
+        return (bits & 0xFFFFFFFFL) < thresholds[column] ? outcomes[column] : aliases[column];
+    }
+
+    /** Samples the scoreline of a pairing
+     * @param home the index of the home team
+     * @param away the index of the away team
+     * @param random the random stream to draw from
+     * @return the packed scoreline, read with homeGoals and awayGoals
+     */
+    public int sample(int home, int away, SplittableRandom random) {
+        return sample(home, away, random.nextLong());
+    }
+
+
+    /** Samples the scoreline of one pairing for many simulated seasons at once.
+     * The pairing's place in the table is found once, and each season is then a fixed set of steps with no branches,
+     * so the loop can be unrolled and kept in registers by the JIT compiler.
+     * @param home the index of the home team
+     * @param away the index of the away team
+     * @param bits 64 random bits for each season, used the same way as the single sample method
+     * @param results the array to store each season's packed scoreline in
+     * @param count the number of seasons to sample
+     */
+    public void sampleBatch(int home, int away, long[] bits, int[] results, int count) {
+        sampleBatch(home, away, bits, results, 0, 1, count);
+    }
+
+    /** Samples the scoreline of one pairing for many simulated seasons whose random bits are spread through an array,
+     * such as one fixture across a batch of seasons stored season after season
+     * @param home the index of the home team
+     * @param away the index of the away team
+     * @param bits 64 random bits for each season, used the same way as the single sample method
+     * @param results the array to store each season's packed scoreline in, at the same position as its bits
+     * @param offset the position of the first season's bits
+     * @param stride the distance between the bits of one season and the next
+     * @param count the number of seasons to sample
+     */
+    public void sampleBatch(int home, int away, long[] bits, int[] results, int offset, int stride, int count) {
+        int start = (home * teamCount + away) * outcomeCount;
+
+        for (int i = 0, position = offset; i < count; i++, position += stride) {
+            long random = bits[position];
+            int column = start + (int) (((random >>> 32) * outcomeCount) >>> 32);
+
+            // The sign bit of the difference is all ones when the column is kept, which picks between the scorelines without a branch
+            int keep = (int) (((random & 0xFFFFFFFFL) - thresholds[column]) >> 63);
+            results[position] = (outcomes[column] & keep) | (aliases[column] & ~keep);
+        }
+    }
+
+    /** Samples the scoreline of one pairing for many simulated seasons at once
+     * @param home the index of the home team
+     * @param away the index of the away team
+     * @param random the random stream to draw from
+     * @param bits a buffer with room for one entry per season, used to hold the random bits
+     * @param results the array to store each season's packed scoreline in
+     * @param count the number of seasons to sample
+     */
+    public void sampleBatch(int home, int away, SplittableRandom random, long[] bits, int[] results, int count) {
+        for (int i = 0; i < count; i++) {
+            bits[i] = random.nextLong();
+        }
+        sampleBatch(home, away, bits, results, count);
+    }
+}
@@ -0,0 +1,176 @@
+package modules;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/** Tunes the parameters of the season simulator's strength model against the real final tables of past seasons.
+ * Each candidate model works out new team strengths for every finished season, simulates each season on its compiled schedule,
+ * and is scored by how far the average simulated points of each team are from its real points.
+ * The seasons are read and compiled once and shared by every candidate, every candidate uses the same random streams so they are compared on the same luck,
+ * and the candidates are evaluated in parallel.
+ */
+public class ParameterTuner {
+
+    /** A candidate model and its score, where a lower score is better.
+     */
+    public static class Candidate {
+
+        // The parameters that were evaluated
+        private final StrengthModel model;
+
+        // Mean absolute difference between each team's average simulated points and its real points
+        private final double pointsError;
+
+        // Mean absolute difference between each team's average simulated position and its real position
+        private final double rankError;
+
+        Candidate(StrengthModel model, double pointsError, double rankError) {
+            this.model = model;
+            this.pointsError = pointsError;
+            this.rankError = rankError;
+        }
+
+        /** Gets the parameters that were evaluated
+         * @return the strength model
+         */
+        public StrengthModel getModel() {
+            return model;
+        }
+
+        /** Gets the mean absolute points error, which is the score of the candidate
+         * @return the mean absolute difference between simulated and real points
+         */
+        public double getPointsError() {
+            return pointsError;
+        }
+
+        /** Gets the mean absolute rank error
+         * @return the mean absolute difference between simulated and real positions
+         */
+        public double getRankError() {
+            return rankError;
+        }
+    }
+
+
+    // The finished seasons every candidate is scored against
+    private final List<SeasonData> seasons;
+
+    // The tie-break rules used to sort the simulated tables
+    private final LeagueRanker ranker;
+
+    // Number of times each season is simulated for each candidate
+    private final int runsPerSeason;
+
+    // The seed every candidate's random streams are derived from
+    private final long seed;
+
+
+    /** Creates a tuner that scores candidates against the finished seasons of a simulation
+     * @param simulation the simulation the seasons, ranker and seed are taken from
+     * @param seasons the seasons to score against, where seasons still being played are skipped
+     * @param runsPerSeason the number of times each season is simulated for each candidate
+     */
+    public ParameterTuner(SimulateSeason simulation, List<String> seasons, int runsPerSeason) {
+        this.seasons = new ArrayList<>();
+        for (String season : seasons) {
+            SeasonData data = simulation.getSeasonData(season);
+            if (data.isComplete()) {
+                this.seasons.add(data);
+            }
+        }
+        this.ranker = simulation.getRanker();
+        this.runsPerSeason = runsPerSeason;
+        this.seed = simulation.getSeed();
+    }
+
+
+    /** Gets the number of finished seasons each candidate is scored against
+     * @return the number of seasons
+     */
+    public int getSeasonCount() {
+        return seasons.size();
+    }
+
+
+    /** Scores one candidate model against every finished season
+     * @param model the parameters to evaluate
+     * @return the candidate with its scores
+     */
+    public Candidate evaluate(StrengthModel model) {
+        double pointsError = 0;
+        double rankError = 0;
+        int teamCount = 0;
+
+        for (SeasonData season : seasons) {
+
+            // Only the strengths and scorelines depend on the model, so the compiled schedule is reused
+            double[][] strengths = SimulateSeason.calculateTeamStrengths(season.getLeagueData(), season.getTeams(), model);
+            OutcomeTable outcomes = new OutcomeTable(strengths, model.getTrials());
+            SimulationSummary summary = new SimulationSummary(season.getTeams().size());
+
+            for (int block = 0; block * SimulateSeason.RUNS_PER_STREAM < runsPerSeason; block++) {
+                SplittableRandom random = SimulateSeason.createStream(seed, block);
+                SeasonSimulator simulator = new SeasonSimulator(season.getSchedule(), outcomes, ranker);
+                simulator.simulate(random, Math.min(SimulateSeason.RUNS_PER_STREAM, runsPerSeason - block * SimulateSeason.RUNS_PER_STREAM), summary);
+            }
+
+            for (int team = 0; team < season.getTeams().size(); team++) {
+                pointsError += Math.abs(summary.getAveragePoints(team) - season.getActualPoints(team));
+                rankError += Math.abs(summary.getAveragePosition(team) - season.getActualRank(team));
+                teamCount++;
+            }
+        }
+
+        return new Candidate(model, pointsError / teamCount, rankError / teamCount);
+    }
+
+
+    /** Scores candidate models in parallel and sorts them from best to worst
+     * @param models the parameters to evaluate
+     * @return the candidates, with the lowest points error first
+     */
+    public List<Candidate> evaluateAll(List<StrengthModel> models) {
+        List<Candidate> candidates = models.parallelStream().map(this::evaluate).collect(Collectors.toList());
+        candidates.sort(Comparator.comparingDouble(Candidate::getPointsError));
+        return candidates;
+    }
+
+
+    /** Scores every combination of the given parameter values
+     * @param xgdWeights the xGD weights to try
+     * @param trials the numbers of trials to try
+     * @param matchDivisors the match divisors to try
+     * @return the candidates, with the lowest points error first
+     */
+    public List<Candidate> gridSearch(double[] xgdWeights, int[] trials, double[] matchDivisors) {
+        List<StrengthModel> models = new ArrayList<>();
+        for (double xgdWeight : xgdWeights) {
+            for (int trial : trials) {
+                for (double matchDivisor : matchDivisors) {
+                    models.add(new StrengthModel(xgdWeight, trial, matchDivisor));
+                }
+            }
+        }
+        return evaluateAll(models);
+    }
+
+
+    /** Scores randomly chosen parameter values between the given limits
+     * @param count the number of candidates to try
+     * @param minWeight the lowest xGD weight
+     * @param maxWeight the highest xGD weight
+     * @param maxTrials the highest number of trials, where the lowest is 1
+     * @param minDivisor the lowest match divisor
+     * @param maxDivisor the highest match divisor
+     * @param random the random stream used to choose the candidates
+     * @return the candidates, with the lowest points error first
+     */
+    public List<Candidate> randomSearch(int count, double minWeight, double maxWeight, int maxTrials, double minDivisor, double maxDivisor, SplittableRandom random) {
+        List<StrengthModel> models = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            models.add(new StrengthModel(minWeight + random.nextDouble() * (maxWeight - minWeight), 1 + random.nextInt(maxTrials),
+                    minDivisor + random.nextDouble() * (maxDivisor - minDivisor)));
+        }
+        return evaluateAll(models);
+    }
+}
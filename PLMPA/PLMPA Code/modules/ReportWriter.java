@@ -0,0 +1,301 @@
+package modules;
+import java.io.PrintWriter;
+import java.util.List;
+
+/** Renders a report one row at a time as a fixed-width table, CSV, JSON or newline-delimited JSON.
+ * Every cell is added to one reusable buffer, with numbers written digit by digit instead of through String.format,
+ * and the buffer is only written out when it gets large or the report is finished, so a report of any size is written in a few large pieces.
+ * Column widths work like printf, where a positive width pads on the left and a negative width pads on the right.
+ * A left aligned last column is not padded, so fixed-width lines do not end in spaces.
+ */
+public class ReportWriter {
+
+    /** The layouts a report can be written in.
+     */
+    public enum Format {
+        FIXED_WIDTH,
+        CSV,
+        JSON,
+
+        // One JSON object per line with no surrounding array, so each line can be read on its own
+        NDJSON
+    }
+
+    // Size the buffer can reach before it is written out
+    private static final int FLUSH_SIZE = 1 << 16;
+
+    // Powers of ten used to round decimals
+    private static final long[] POWERS_OF_TEN = { 1, 10, 100, 1000, 10000, 100000, 1000000, 10000000, 100000000, 1000000000 };
+
+    // Spaces copied in to pad a cell, so the padding is added in one step instead of one space at a time (cells are padded to at most 64 characters)
+    private static final char[] SPACES = "                                                                ".toCharArray();
+
+    // The writer the report goes to
+    private final PrintWriter out;
+
+    // The layout of the report
+    private final Format format;
+
+    // The name and width of each column
+    private final String[] columns;
+    private final int[] widths;
+
+    // True if the rows are written as JSON objects
+    private final boolean json;
+
+    // What is written before each cell of a JSON row, which is the separator and the quoted key worked out once (Eg. , "Pts": )
+    private final String[] jsonKeys;
+
+    // The text of the report that has not been written out yet
+    private final StringBuilder buffer;
+
+    // The column the next cell goes in
+    private int column;
+
+    // Number of rows finished so far
+    private int rows;
+
+
+    /** Creates a report and adds its header, which is the column names for a table or CSV and the opening bracket for JSON
+     * @param out the writer the report goes to, which is flushed but not closed when the report is finished
+     * @param format the layout of the report
+     * @param columns the name of each column
+     * @param widths the width of each column for a fixed-width table, which are ignored for CSV and JSON
+     */
+    public ReportWriter(PrintWriter out, Format format, String[] columns, int[] widths) {
+        this(out, format, columns, widths, true);
+    }
+
+    /** Creates a report
+     * @param out the writer the report goes to, which is flushed but not closed when the report is finished
+     * @param format the layout of the report
+     * @param columns the name of each column
+     * @param widths the width of each column for a fixed-width table, which are ignored for CSV and JSON
+     * @param header true to add the column names to a fixed-width table or CSV, which JSON and NDJSON always use as their keys
+     */
+    public ReportWriter(PrintWriter out, Format format, String[] columns, int[] widths, boolean header) {
+        if (columns.length == 0 || columns.length != widths.length) {
+            throw new IllegalArgumentException("A report needs at least one column and one width per column");
+        }
+        this.out = out;
+        this.format = format;
+        this.columns = columns.clone();
+        this.widths = widths.clone();
+        this.buffer = new StringBuilder(FLUSH_SIZE + 1024);
+        this.jsonKeys = new String[columns.length];
+        this.json = format == Format.JSON || format == Format.NDJSON;
+
+        // Adds the column names as the first row of a table or CSV
+        if (json) {
+            for (int i = 0; i < columns.length; i++) {
+                buffer.append(i == 0 ? "{" : ", ");
+                appendQuoted(columns[i], true);
+                buffer.append(": ");
+                jsonKeys[i] = buffer.toString();
+                buffer.setLength(0);
+            }
+            if (format == Format.JSON) {
+                buffer.append("[\n");
+            }
+        } else if (header) {
+            for (String name : columns) {
+                cell(name);
+            }
+            column = 0;
+            buffer.append('\n');
+        }
+    }
+
+
+    /** Gets the number of rows finished so far, not counting the header
+     * @return the number of rows
+     */
+    public int getRowCount() {
+        return rows;
+    }
+
+
+    /** Adds a text cell to the current row
+     * @param value the text of the cell
+     */
+    public void cell(String value) {
+        int start = startCell();
+        appendText(value);
+        endCell(start);
+    }
+
+    /** Adds a cell holding a list of text, which is an array of strings in JSON and the items joined by a separator otherwise
+     * @param values the items of the list
+     * @param separator the text put between the items when they are joined (Eg. " | ")
+     */
+    public void cell(List<String> values, String separator) {
+        int start = startCell();
+        if (json) {
+            buffer.append('[');
+            for (int i = 0; i < values.size(); i++) {
+                buffer.append(i == 0 ? "" : ", ");
+                appendQuoted(values.get(i), true);
+            }
+            buffer.append(']');
+        } else {
+            appendText(String.join(separator, values));
+        }
+        endCell(start);
+    }
+
+    /** Adds a whole number cell to the current row
+     * @param value the number
+     */
+    public void cell(long value) {
+        int start = startCell();
+        buffer.append(value);
+        endCell(start);
+    }
+
+    /** Adds a decimal cell to the current row, rounded half up like printf
+     * @param value the number
+     * @param decimals the number of digits after the decimal point, from 0 to 9
+     */
+    public void cell(double value, int decimals) {
+        cell(value, decimals, "", false);
+    }
+
+    /** Adds a decimal cell with a unit after it, such as a percentage, rounded half up like printf.
+     * The unit and the plus sign only appear in a fixed-width table, so CSV and JSON keep the plain number.
+     * @param value the number
+     * @param decimals the number of digits after the decimal point, from 0 to 9
+     * @param unit the text after the number (Eg. %), or an empty string for none
+     * @param signed true to put a + in front of numbers that are not negative, like the + flag of printf
+     */
+    public void cell(double value, int decimals, String unit, boolean signed) {
+        int start = startCell();
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            buffer.append(json ? "null" : Double.toString(value));
+        } else {
+
+            // Rounds the size of the number and adds the sign separately, so -0.001 becomes -0.00 as it does with printf
+            long scale = POWERS_OF_TEN[decimals];
+            long scaled = Math.round(Math.abs(value) * scale);
+            if (value < 0 || (value == 0 && 1 / value < 0)) {
+                buffer.append('-');
+            } else if (signed && format == Format.FIXED_WIDTH) {
+                buffer.append('+');
+            }
+            buffer.append(scaled / scale);
+            if (decimals > 0) {
+                buffer.append('.');
+                long fraction = scaled % scale;
+                for (long place = scale / 10; place > 0; place /= 10) {
+                    buffer.append((char) ('0' + fraction / place % 10));
+                }
+            }
+            if (format == Format.FIXED_WIDTH) {
+                buffer.append(unit);
+            }
+        }
+        endCell(start);
+    }
+
+
+    /** Finishes the current row, writing out the buffer if it has grown large
+     */
+    public void endRow() {
+        if (column != columns.length) {
+            throw new IllegalStateException("A row needs " + columns.length + " cells but has " + column);
+        }
+        buffer.append(format == Format.JSON ? "}" : format == Format.NDJSON ? "}\n" : "\n");
+        column = 0;
+        rows++;
+
+        if (buffer.length() >= FLUSH_SIZE) {
+            out.append(buffer);
+            buffer.setLength(0);
+        }
+    }
+
+
+    /** Finishes the report and writes out everything left in the buffer
+     */
+    public void finish() {
+        if (column != 0) {
+            throw new IllegalStateException("The last row is missing " + (columns.length - column) + " cells");
+        }
+        if (format == Format.JSON) {
+            buffer.append(rows > 0 ? "\n]\n" : "]\n");
+        }
+        out.append(buffer);
+        buffer.setLength(0);
+        out.flush();
+    }
+
+
+    /** Adds whatever goes before a cell, which is a separator or for JSON the start of an object and the key
+     * @return the position in the buffer where the cell's text starts
+     */
+    private int startCell() {
+        if (column >= columns.length) {
+            throw new IllegalStateException("A row only has " + columns.length + " cells");
+        }
+        if (json) {
+            if (column == 0 && format == Format.JSON) {
+                buffer.append(rows > 0 ? ",\n  " : "  ");
+            }
+            buffer.append(jsonKeys[column]);
+        } else if (column > 0) {
+            buffer.append(format == Format.CSV ? ',' : ' ');
+        }
+        return buffer.length();
+    }
+
+    /** Pads a cell of a fixed-width table to its column's width and moves on to the next column
+     * @param start the position in the buffer where the cell's text starts
+     */
+    private void endCell(int start) {
+        if (format == Format.FIXED_WIDTH) {
+            int width = widths[column];
+            int padding = Math.min(Math.abs(width) - (buffer.length() - start), SPACES.length);
+            if (padding > 0 && width > 0) {
+                buffer.insert(start, SPACES, 0, padding);
+            } else if (padding > 0 && column < columns.length - 1) {
+                buffer.append(SPACES, 0, padding);
+            }
+        }
+        column++;
+    }
+
+
+    /** Adds the text of a cell, quoting it for JSON or when it has a character that would break a CSV row
+     * @param value the text
+     */
+    private void appendText(String value) {
+        if (json) {
+            appendQuoted(value, true);
+        } else if (format == Format.CSV && (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0)) {
+            appendQuoted(value, false);
+        } else {
+            buffer.append(value);
+        }
+    }
+
+
+    /** Adds text in double quotes, escaping the characters that need it
+     * @param value the text
+     * @param escapeJson true to escape for JSON, or false to double the quotes for CSV
+     */
+    private void appendQuoted(String value, boolean escapeJson) {
+        buffer.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                buffer.append(escapeJson ? "\\\"" : "\"\"");
+            } else if (escapeJson && c == '\\') {
+                buffer.append("\\\\");
+            } else if (escapeJson && c == '\n') {
+                buffer.append("\\n");
+            } else {
+                buffer.append(c);
+            }
+        }
+        buffer.append('"');
+    }
+}
@@ -0,0 +1,97 @@
+package modules;
+import java.util.Arrays;
+
+/** A what-if scenario for the season simulator that pins the results of chosen fixtures.
+ * Fixtures are given by their position in the schedule being simulated, such as the schedule of unplayed fixtures.
+ * Every fixture that is not pinned keeps whatever result the simulation gives it.
+ */
+public class Scenario {
+
+    // Name of the scenario used when printing results
+    private final String name;
+
+    // Position of each pinned fixture in the schedule
+    private int[] fixtures = new int[0];
+
+    // Pinned home goals of each pinned fixture
+    private int[] homeGoals = new int[0];
+
+    // Pinned away goals of each pinned fixture
+    private int[] awayGoals = new int[0];
+
+
+    /** Creates a scenario with no pinned fixtures
+     * @param name the name of the scenario
+     */
+    public Scenario(String name) {
+        this.name = name;
+    }
+
+
+    /** Gets the name of the scenario
+     * @return the name of the scenario
+     */
+    public String getName() {
+        return name;
+    }
+
+    /** Gets the number of pinned fixtures
+     * @return the number of pinned fixtures
+     */
+    public int getPinCount() {
+        return fixtures.length;
+    }
+
+    /** Gets the position in the schedule of a pinned fixture
+     * @param pin the number of the pin
+     * @return the position of the fixture in the schedule
+     */
+    public int getFixture(int pin) {
+        return fixtures[pin];
+    }
+
+    /** Gets the pinned home goals of a pinned fixture
+     * @param pin the number of the pin
+     * @return the number of goals scored by the home team
+     */
+    public int getHomeGoals(int pin) {
+        return homeGoals[pin];
+    }
+
+    /** Gets the pinned away goals of a pinned fixture
+     * @param pin the number of the pin
+     * @return the number of goals scored by the away team
+     */
+    public int getAwayGoals(int pin) {
+        return awayGoals[pin];
+    }
+
+
+    /** Pins the result of a fixture, replacing any result already pinned for it
+     * @param fixture the position of the fixture in the schedule
+     * @param home the number of goals scored by the home team
+     * @param away the number of goals scored by the away team
+     * @return this scenario, so several fixtures can be pinned in a row
+     */
+    public Scenario pin(int fixture, int home, int away) {
+        if (fixture < 0 || home < 0 || away < 0) {
+            throw new IllegalArgumentException("A pinned fixture needs a valid position and scoreline");
+        }
+
+        // Finds the pin for the fixture, or adds a new one at the end
+        int pin = 0;
+        while (pin < fixtures.length && fixtures[pin] != fixture) {
+            pin++;
+        }
+        if (pin == fixtures.length) {
+            fixtures = Arrays.copyOf(fixtures, pin + 1);
+            homeGoals = Arrays.copyOf(homeGoals, pin + 1);
+            awayGoals = Arrays.copyOf(awayGoals, pin + 1);
+        }
+
+        fixtures[pin] = fixture;
+        homeGoals[pin] = home;
+        awayGoals[pin] = away;
+        return this;
+    }
+}
@@ -0,0 +1,172 @@
+package modules;
+import java.util.*;
+
+/** Generates random double round robin fixture lists, so a season can be simulated before its real fixtures are published.
+ * The first half of the season uses the circle method, where one team stays fixed and the rest rotate around it so every pair meets once.
+ * The second half plays the same pairings with home and away swapped, so every team has as many home matches as away matches.
+ * The teams are shuffled and the rounds of each half are played in a random order, so each schedule is different.
+ */
+public class ScheduleGenerator {
+
+    // Number of teams in the league
+    private final int teamCount;
+
+    // Number of rounds in each half of the season
+    private final int roundsPerHalf;
+
+    // Number of matches in each round
+    private final int fixturesPerRound;
+
+
+    /** Creates a generator for a league
+     * @param teamCount the number of teams in the league, which must be even
+     */
+    public ScheduleGenerator(int teamCount) {
+        if (teamCount < 2 || teamCount % 2 != 0) {
+            throw new IllegalArgumentException("A round robin needs an even number of teams, not " + teamCount);
+        }
+        this.teamCount = teamCount;
+        this.roundsPerHalf = teamCount - 1;
+        this.fixturesPerRound = teamCount / 2;
+    }
+
+
+    /** Gets the number of teams in the league
+     * @return the number of teams
+     */
+    public int getTeamCount() {
+        return teamCount;
+    }
+
+    /** Gets the number of rounds in a season
+     * @return the number of rounds, which is 38 for 20 teams
+     */
+    public int getRoundCount() {
+        return 2 * roundsPerHalf;
+    }
+
+    /** Gets the number of matches in each round
+     * @return the number of matches per round
+     */
+    public int getFixturesPerRound() {
+        return fixturesPerRound;
+    }
+
+
+    /** Generates a random fixture list, with the matches of each round next to each other in round order
+     * @param random the random stream used to shuffle the teams and rounds
+     * @return the schedule of every match, with none played yet
+     */
+    public CompiledSchedule generate(SplittableRandom random) {
+        int[] teams = shuffled(teamCount, random);
+        int[] rounds = shuffled(roundsPerHalf, random);
+        int[] secondHalfRounds = shuffled(roundsPerHalf, random);
+        int[] homeTeams = new int[getRoundCount() * fixturesPerRound];
+        int[] awayTeams = new int[homeTeams.length];
+
+        for (int round = 0; round < roundsPerHalf; round++) {
+            int first = rounds[round] * fixturesPerRound;
+            int second = (roundsPerHalf + secondHalfRounds[round]) * fixturesPerRound;
+
+            // The last team stays fixed and plays the team at the rotating start, switching between home and away each round
+            int fixed = teams[teamCount - 1];
+            int opponent = teams[round];
+            boolean fixedAtHome = round % 2 == 0;
+            setFixture(homeTeams, awayTeams, first, fixedAtHome ? fixed : opponent, fixedAtHome ? opponent : fixed);
+            setFixture(homeTeams, awayTeams, second, fixedAtHome ? opponent : fixed, fixedAtHome ? fixed : opponent);
+
+            // Pairs the other teams working outwards from the rotating start, alternating who is at home
+            for (int slot = 1; slot < fixturesPerRound; slot++) {
+                int home = teams[(round + slot) % roundsPerHalf];
+                int away = teams[(round + roundsPerHalf - slot) % roundsPerHalf];
+                if (slot % 2 == 1) {
+                    int swap = home;
+                    home = away;
+                    away = swap;
+                }
+                setFixture(homeTeams, awayTeams, first + slot, home, away);
+                setFixture(homeTeams, awayTeams, second + slot, away, home);
+            }
+        }
+
+        return new CompiledSchedule(homeTeams, awayTeams);
+    }
+
+
+    /** Checks that a schedule is a valid double round robin laid out one round after another.
+     * Every team must play once in each round, and every team must play every other team exactly once at home.
+     * @param schedule the schedule to check
+     * @param teamCount the number of teams in the league
+     * @return true if the schedule is valid, otherwise false
+     */
+    public static boolean isValid(CompiledSchedule schedule, int teamCount) {
+        int fixturesPerRound = teamCount / 2;
+        if (teamCount % 2 != 0 || schedule.size() != teamCount * (teamCount - 1)) {
+            return false;
+        }
+
+        int[] homeTeams = schedule.getHomeTeams();
+        int[] awayTeams = schedule.getAwayTeams();
+        boolean[] pairings = new boolean[teamCount * teamCount];
+        int[] lastRound = new int[teamCount];
+        Arrays.fill(lastRound, -1);
+
+        for (int i = 0; i < schedule.size(); i++) {
+            int home = homeTeams[i];
+            int away = awayTeams[i];
+            int round = i / fixturesPerRound;
+            if (home < 0 || away < 0 || home >= teamCount || away >= teamCount || home == away) {
+                return false;
+            }
+
+            // Neither team can already have played in this round
+            if (lastRound[home] == round || lastRound[away] == round) {
+                return false;
+            }
+            lastRound[home] = round;
+            lastRound[away] = round;
+
+            // Each home and away pairing can only happen once
+            if (pairings[home * teamCount + away]) {
+                return false;
+            }
+            pairings[home * teamCount + away] = true;
+        }
+
+        // There are exactly as many fixtures as ordered pairings, so no repeats means every pairing was played
+        return true;
+    }
+
+
+    /** Stores one match of a schedule
+     * @param homeTeams the home team of each match
+     * @param awayTeams the away team of each match
+     * @param index the position of the match
+     * @param home the index of the home team
+     * @param away the index of the away team
+     */
+    private static void setFixture(int[] homeTeams, int[] awayTeams, int index, int home, int away) {
+        homeTeams[index] = home;
+        awayTeams[index] = away;
+    }
+
+
+    /** Creates the numbers from 0 up to a length in a random order using a Fisher-Yates shuffle
+     * @param length the number of numbers
+     * @param random the random stream used for the shuffle
+     * @return the shuffled numbers
+     */
+    private static int[] shuffled(int length, SplittableRandom random) {
+        int[] values = new int[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = i;
+        }
+        for (int i = length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = values[i];
+            values[i] = values[j];
+            values[j] = swap;
+        }
+        return values;
+    }
+}
@@ -0,0 +1,187 @@
+package modules;
+import java.util.*;
+
+/** Everything the season simulator needs to know about one season, worked out once when the season is first loaded.
+ * It holds the teams and their strengths, the precomputed scorelines, the compiled fixtures and the real table so far.
+ * Nothing in it changes after it is created, so it can be cached and shared by simulations running at the same time.
+ */
+public class SeasonData {
+
+    // The season the data is for (Eg. 2024 2025)
+    private final String season;
+
+    // List of teams in the season, where each team's position is its index
+    private final List<String> teams;
+
+    // The attack and defense strengths of each team
+    private final double[][] strengths;
+
+    // Precomputed scorelines for every home and away pairing
+    private final OutcomeTable outcomes;
+
+    // The league table rows of the season from the CSV file
+    private final List<String[]> leagueData;
+
+    // The fixture rows of the season from the CSV file
+    private final List<String[]> fixturesData;
+
+    // Every fixture of the season compiled into team indexes
+    private final CompiledSchedule schedule;
+
+    // The fixtures that have not been played yet
+    private final CompiledSchedule remainingSchedule;
+
+    // The real league table from the fixtures that have been played, indexed by team
+    private final int[][] currentTable;
+
+    // Each team's rank in the scraped league table
+    private final int[] actualRanks;
+
+    // Each team's points in the scraped league table
+    private final int[] actualPoints;
+
+    // Hash of the fixture rows, which changes whenever a result or fixture is added
+    private final long dataVersion;
+
+    // Hash of the team strengths and goal model, which changes whenever the model inputs change
+    private final long parameterHash;
+
+
+    /** Creates the data of a season
+     * @param season the season the data is for
+     * @param teams the list of teams in the season
+     * @param strengths the attack and defense strengths of each team
+     * @param outcomes the precomputed scorelines for every pairing
+     * @param leagueData the league table rows of the season
+     * @param fixturesData the fixture rows of the season
+     * @param schedule every fixture compiled into team indexes
+     * @param actualRanks each team's rank in the scraped league table
+     * @param actualPoints each team's points in the scraped league table
+     */
+    public SeasonData(String season, List<String> teams, double[][] strengths, OutcomeTable outcomes, List<String[]> leagueData, List<String[]> fixturesData,
+            CompiledSchedule schedule, int[] actualRanks, int[] actualPoints) {
+        this.season = season;
+        this.teams = Collections.unmodifiableList(new ArrayList<>(teams));
+        this.strengths = strengths;
+        this.outcomes = outcomes;
+        this.leagueData = leagueData;
+        this.fixturesData = fixturesData;
+        this.schedule = schedule;
+        this.actualRanks = actualRanks;
+        this.actualPoints = actualPoints;
+
+        // Builds the real table so far and the list of fixtures still to be played
+        this.currentTable = SeasonSimulator.tableFromResults(schedule, teams.size());
+        this.remainingSchedule = schedule.unplayed();
+
+        // Works out the hashes used to tell if cached simulation results are still valid
+        long version = 0;
+        for (String[] row : fixturesData) {
+            version = version * 31 + Arrays.hashCode(row);
+        }
+        this.dataVersion = version;
+        this.parameterHash = Arrays.deepHashCode(strengths) * 31L + outcomes.getTrials();
+    }
+
+
+    /** Gets the season the data is for
+     * @return the season (Eg. 2024 2025)
+     */
+    public String getSeason() {
+        return season;
+    }
+
+    /** Gets the teams in the season
+     * @return the list of teams, where each team's position is its index
+     */
+    public List<String> getTeams() {
+        return teams;
+    }
+
+    /** Gets the teams strengths which contains the attack and defense strength
+     * @return a 2D array of team strengths, where each row contains the attack and defense strengths of a team
+     */
+    public double[][] getStrengths() {
+        return strengths;
+    }
+
+    /** Gets the precomputed scorelines for every pairing of teams
+     * @return the outcome table built from the team strengths
+     */
+    public OutcomeTable getOutcomes() {
+        return outcomes;
+    }
+
+    /** Gets the league table rows of the season
+     * @return a list of rows, where each row represents team data from the league table
+     */
+    public List<String[]> getLeagueData() {
+        return leagueData;
+    }
+
+    /** Gets the fixture rows of the season
+     * @return a list of rows, where each row represents match data from the fixtures data
+     */
+    public List<String[]> getFixturesData() {
+        return fixturesData;
+    }
+
+    /** Gets every fixture of the season compiled into team indexes
+     * @return the compiled schedule
+     */
+    public CompiledSchedule getSchedule() {
+        return schedule;
+    }
+
+    /** Gets the fixtures that have not been played yet
+     * @return the compiled schedule of unplayed fixtures
+     */
+    public CompiledSchedule getRemainingSchedule() {
+        return remainingSchedule;
+    }
+
+    /** Gets the real league table from the fixtures that have been played
+     * @return the current league table indexed by team
+     */
+    public int[][] getCurrentTable() {
+        return currentTable;
+    }
+
+    /** Gets a team's rank in the scraped league table
+     * @param team the index of the team
+     * @return the team's rank, where 1 is first place
+     */
+    public int getActualRank(int team) {
+        return actualRanks[team];
+    }
+
+    /** Gets a team's points in the scraped league table
+     * @param team the index of the team
+     * @return the team's points
+     */
+    public int getActualPoints(int team) {
+        return actualPoints[team];
+    }
+
+    /** Gets the version of the fixture data the season was built from
+     * @return a hash of the fixture rows, which changes when new fixtures or results arrive
+     */
+    public long getDataVersion() {
+        return dataVersion;
+    }
+
+    /** Gets the hash of the inputs to the goal model
+     * @return a hash of the team strengths and number of trials
+     */
+    public long getParameterHash() {
+        return parameterHash;
+    }
+
+
+    /** Checks if every fixture of the season has been played
+     * @return true if there are no unplayed fixtures, otherwise false
+     */
+    public boolean isComplete() {
+        return remainingSchedule.size() == 0;
+    }
+}
@@ -0,0 +1,327 @@
+package modules;
+import java.util.SplittableRandom;
+
+/** Simulates single seasons of a compiled schedule for the season simulator.
+ * A season can start from an empty table or from a table of real results, in which case only the remaining fixtures are played.
+ * Each simulator keeps one league table that is cleared and reused for every season it plays,
+ * so simulating a season only works with primitive arrays and creates no new objects while the fixtures are played.
+ * A simulator is used by one thread at a time, so each worker of a parallel simulation has its own.
+ */
+public class SeasonSimulator {
+
+    // Number of seasons whose scorelines are drawn together, which keeps the batch's random bits and scorelines small enough to stay in the cache
+    public static final int BATCH_SEASONS = 32;
+
+    // The fixtures to play, as team indexes
+    private final CompiledSchedule schedule;
+
+    // Precomputed scorelines for every pairing of teams
+    private final OutcomeTable outcomes;
+
+    // The league table indexed by team, where each row holds index, MP, W, D, L, Pts, GF, GA and GD
+    private final int[][] table;
+
+    // The table every season starts from, indexed by team
+    private final int[][] startingTable;
+
+    // The rows of the league table in finishing order after a season is sorted
+    private final int[][] standings;
+
+    // The tie-break rules used to sort the table
+    private final LeagueRanker ranker;
+
+    // Buffer for the sort key of each row while the table is sorted
+    private final long[] sortKeys;
+
+    // The simulated scoreline of each fixture in the last season played
+    private final int[] playedOutcomes;
+
+    // The league table of the last season with a scenario's pinned results swapped in
+    private final int[][] scenarioTable;
+
+    // The random bits and scorelines of a batch of seasons, stored season after season with one entry per fixture
+    private long[] batchBits;
+    private int[] batchOutcomes;
+
+
+    /** Creates a simulator where every season starts from an empty league table
+     * @param schedule the fixtures to play
+     * @param outcomes the precomputed scorelines for every pairing of teams
+     * @param ranker the tie-break rules used to sort the table
+     */
+    public SeasonSimulator(CompiledSchedule schedule, OutcomeTable outcomes, LeagueRanker ranker) {
+        this(schedule, outcomes, ranker, emptyTable(outcomes.getTeamCount()));
+    }
+
+    /** Creates a simulator where every season starts from the given league table
+     * @param schedule the fixtures to play
+     * @param outcomes the precomputed scorelines for every pairing of teams
+     * @param ranker the tie-break rules used to sort the table
+     * @param startingTable the table indexed by team that each season starts from
+     */
+    public SeasonSimulator(CompiledSchedule schedule, OutcomeTable outcomes, LeagueRanker ranker, int[][] startingTable) {
+        this.schedule = schedule;
+        this.outcomes = outcomes;
+        this.ranker = ranker;
+        this.startingTable = startingTable;
+        this.table = new int[outcomes.getTeamCount()][10];
+        this.standings = new int[table.length][];
+        this.sortKeys = new long[table.length];
+        this.playedOutcomes = new int[schedule.size()];
+        this.scenarioTable = new int[table.length][10];
+    }
+
+
+    /** Gets the league table of the last season played, indexed by team
+     * @return the league table, which is reused by the next season
+     */
+    public int[][] getTable() {
+        return table;
+    }
+
+
+    /** Simulates a full season and sorts the final league table
+     * @param random the random stream used for the goals in every match
+     * @return the rows of the league table from 1st place to last, which are reused by the next season
+     */
+    public int[][] simulate(SplittableRandom random) {
+        playFixtures(random);
+        return rankTable();
+    }
+
+
+    /** Simulates a number of seasons and records each final table, drawing the scorelines a batch of seasons at a time.
+     * The random bits are taken from the stream in the same order as simulating the seasons one by one, so the results are the same.
+     * @param random the random stream used for the goals in every match
+     * @param seasons the number of seasons to simulate
+     * @param summary the summary to record the final tables in
+     */
+    public void simulate(SplittableRandom random, int seasons, SimulationSummary summary) {
+        for (int first = 0; first < seasons; first += BATCH_SEASONS) {
+            int batch = drawBatch(random, Math.min(BATCH_SEASONS, seasons - first));
+            for (int season = 0; season < batch; season++) {
+                summary.record(playDrawn(season));
+            }
+        }
+    }
+
+
+    /** Draws the scorelines of every fixture for a batch of seasons.
+     * The random bits are taken season by season as the single season methods would, and each fixture is then sampled
+     * across the whole batch at once with the branch-free batch sampler, since one fixture always has the same pairing.
+     * @param random the random stream used for the goals in every match
+     * @param seasons the number of seasons to draw, which is at most BATCH_SEASONS
+     * @return the number of seasons drawn
+     */
+    public int drawBatch(SplittableRandom random, int seasons) {
+        int fixtures = schedule.size();
+        if (batchBits == null) {
+            batchBits = new long[BATCH_SEASONS * fixtures];
+            batchOutcomes = new int[BATCH_SEASONS * fixtures];
+        }
+
+        for (int i = 0; i < seasons * fixtures; i++) {
+            batchBits[i] = random.nextLong();
+        }
+
+        // Samples each fixture for every season of the batch, where a season's fixtures are one row of the buffer
+        int[] homeTeams = schedule.getHomeTeams();
+        int[] awayTeams = schedule.getAwayTeams();
+        for (int fixture = 0; fixture < fixtures; fixture++) {
+            outcomes.sampleBatch(homeTeams[fixture], awayTeams[fixture], batchBits, batchOutcomes, fixture, fixtures, seasons);
+        }
+        return seasons;
+    }
+
+
+    /** Plays one season of the last batch drawn and sorts its final league table
+     * @param season the position of the season in the batch
+     * @return the rows of the league table from 1st place to last, which are reused by the next season
+     */
+    public int[][] playDrawn(int season) {
+        resetLeagueTable();
+
+        int[] homeTeams = schedule.getHomeTeams();
+        int[] awayTeams = schedule.getAwayTeams();
+
+        // Remembers the season's scorelines for scenarios and adds each one to the table
+        System.arraycopy(batchOutcomes, season * playedOutcomes.length, playedOutcomes, 0, playedOutcomes.length);
+        for (int i = 0; i < playedOutcomes.length; i++) {
+            int outcome = playedOutcomes[i];
+            updateLeagueTable(table, homeTeams[i], awayTeams[i], OutcomeTable.homeGoals(outcome), OutcomeTable.awayGoals(outcome), 1);
+        }
+        return rankTable();
+    }
+
+
+    /** Sorts the rows of the current league table using the tie-break rules
+     * @return the rows of the league table from 1st place to last, which are reused by the next season
+     */
+    public int[][] rankTable() {
+        return rank(table);
+    }
+
+
+    /** Sorts the last season played as if some of its fixtures had the results pinned by a scenario.
+     * Every other fixture keeps the scoreline it was given, so the scenario and the season share the same random draws.
+     * Only the pinned fixtures are swapped in the table, so a scenario costs a few updates instead of a whole season.
+     * @param scenario the fixtures to pin and their results
+     * @return the rows of the scenario's league table from 1st place to last, which are reused by the next scenario
+     */
+    public int[][] rankScenario(Scenario scenario) {
+        for (int i = 0; i < table.length; i++) {
+            System.arraycopy(table[i], 0, scenarioTable[i], 0, table[i].length);
+        }
+
+        // Takes out the simulated result of each pinned fixture and puts in the pinned result
+        int[] homeTeams = schedule.getHomeTeams();
+        int[] awayTeams = schedule.getAwayTeams();
+        for (int pin = 0; pin < scenario.getPinCount(); pin++) {
+            int fixture = scenario.getFixture(pin);
+            int outcome = playedOutcomes[fixture];
+
+            updateLeagueTable(scenarioTable, homeTeams[fixture], awayTeams[fixture], OutcomeTable.homeGoals(outcome), OutcomeTable.awayGoals(outcome), -1);
+            updateLeagueTable(scenarioTable, homeTeams[fixture], awayTeams[fixture], scenario.getHomeGoals(pin), scenario.getAwayGoals(pin), 1);
+        }
+
+        return rank(scenarioTable);
+    }
+
+
+    /** Sorts the rows of a league table using the tie-break rules
+     * @param source the league table indexed by team
+     * @return the rows of the league table from 1st place to last
+     */
+    private int[][] rank(int[][] source) {
+
+        // Starts from team order each time so teams level on every rule are always listed the same way
+        System.arraycopy(source, 0, standings, 0, source.length);
+        ranker.rank(standings, sortKeys);
+        return standings;
+    }
+
+
+    /** Creates an empty league table
+     * @param teamCount the number of teams in the league
+     * @return a 2D array representing the initial league table
+     */
+    public static int[][] emptyTable(int teamCount) {
+        int[][] table = new int[teamCount][10];
+
+        // Assigns each team's index value to the first column
+        for (int i = 0; i < teamCount; i++) {
+            table[i][0] = i;
+        }
+        return table;
+    }
+
+
+    /** Creates the league table of the fixtures in a schedule that have already been played
+     * @param schedule the schedule with the real scores
+     * @param teamCount the number of teams in the league
+     * @return the league table indexed by team
+     */
+    public static int[][] tableFromResults(CompiledSchedule schedule, int teamCount) {
+        int[][] table = emptyTable(teamCount);
+
+        // Adds the real result of every played fixture to the table
+        for (int i = 0; i < schedule.size(); i++) {
+            if (schedule.isPlayed(i)) {
+                updateLeagueTable(table, schedule.getHomeTeams()[i], schedule.getAwayTeams()[i], schedule.getHomeGoals()[i], schedule.getAwayGoals()[i], 1);
+            }
+        }
+        return table;
+    }
+
+
+    /** Resets the league table and plays every fixture of the schedule
+     * @param random the random stream used for the goals in every match
+     */
+    public void playFixtures(SplittableRandom random) {
+        resetLeagueTable();
+
+        int[] homeTeams = schedule.getHomeTeams();
+        int[] awayTeams = schedule.getAwayTeams();
+
+        // Iterates through each match in the schedule and simulates it
+        for (int i = 0; i < homeTeams.length; i++) {
+            simulateMatch(i, homeTeams[i], awayTeams[i], random);
+        }
+    }
+
+
+    /** Resets the league table to the table the season starts from
+     */
+    private void resetLeagueTable() {
+        for (int i = 0; i < table.length; i++) {
+            System.arraycopy(startingTable[i], 0, table[i], 0, table[i].length);
+        }
+    }
+
+
+    /** Processes a match between two teams and updates the league table based on the result
+     * @param fixture the position of the match in the schedule
+     * @param homeIndex the index of the home team in the league table
+     * @param awayIndex the index of the away team in the league table
+     * @param random the random stream used for the goals
+     */
+    private void simulateMatch(int fixture, int homeIndex, int awayIndex, SplittableRandom random) {
+
+        // Picks the scoreline from the precomputed table of the pairing and remembers it for scenarios
+        int outcome = outcomes.sample(homeIndex, awayIndex, random);
+        playedOutcomes[fixture] = outcome;
+
+        // Updates the league table with the match results
+        updateLeagueTable(table, homeIndex, awayIndex, OutcomeTable.homeGoals(outcome), OutcomeTable.awayGoals(outcome), 1);
+    }
+
+
+    /** Updates the league table based on the results of a match
+     * @param table the league table to update
+     * @param homeIndex the index of the home team
+     * @param awayIndex the index of the away team
+     * @param homeGoals the number of goals scored by the home team
+     * @param awayGoals the number of goals scored by the away team
+     * @param change 1 to add the result to the table, or -1 to take it back out
+     */
+    static void updateLeagueTable(int[][] table, int homeIndex, int awayIndex, int homeGoals, int awayGoals, int change) {
+
+        // Increases the matches played by 1 for both teams
+        table[homeIndex][1] += change;
+        table[awayIndex][1] += change;
+
+        // Determine the outcome of the match and update wins, draws, losses, and points accordingly
+        if (homeGoals > awayGoals) {
+            table[homeIndex][2] += change; // Increases home team win
+            table[awayIndex][4] += change; // Increases away team loss
+            table[homeIndex][5] += 3 * change; // Increases home teams pounts by 3
+
+        } else if (homeGoals < awayGoals) {
+            table[awayIndex][2] += change; // Increases away team wins
+            table[homeIndex][4] += change; // Increases home team loss
+            table[awayIndex][5] += 3 * change; // Increases away teams pounts by 3
+
+        } else {
+
+            // Increases draws by 1
+            table[homeIndex][3] += change;
+            table[awayIndex][3] += change;
+
+            // Increases points by 1
+            table[homeIndex][5] += change;
+            table[awayIndex][5] += change;
+        }
+
+        // Calculates and updates GF for both teams
+        table[homeIndex][6] += homeGoals * change;
+        table[awayIndex][6] += awayGoals * change;
+
+        // Calculates and updates GA for both teams
+        table[homeIndex][7] += awayGoals * change;
+        table[awayIndex][7] += homeGoals * change;
+
+        // Calculates and updates the GD for both teams
+        table[homeIndex][8] = table[homeIndex][6] - table[homeIndex][7];
+        table[awayIndex][8] = table[awayIndex][6] - table[awayIndex][7];
+    }
+}
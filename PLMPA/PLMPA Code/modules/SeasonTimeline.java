@@ -0,0 +1,197 @@
+package modules;
+import java.util.*;
+
+/** Rebuilds the league table of a season at any point from its played fixtures.
+ * The fixtures data has no dates, so matchday k means each team's first k played matches, taken in the order they appear in the data.
+ * Each team keeps running totals of its points, wins, draws and goals after every match it has played,
+ * so the table after any matchday is read straight from those totals and only needs to be sorted.
+ * Points deductions are not in the fixtures data, so the rebuilt tables do not include them.
+ */
+public class SeasonTimeline {
+
+    // The season the timeline is for
+    private final String season;
+
+    // The teams in the order they first appear in the fixtures
+    private final List<String> teams;
+
+    // Running totals of each team as [team][matches played], where entry 0 is before the first match
+    private final int[][] points;
+    private final int[][] wins;
+    private final int[][] draws;
+    private final int[][] goalsFor;
+    private final int[][] goalsAgainst;
+
+    // Number of matches each team has played
+    private final int[] matchesPlayed;
+
+    // The tie-break rules used to sort the tables
+    private final LeagueRanker ranker;
+
+
+    /** Builds the running totals of a season from its fixtures in one pass
+     * @param season the season (Eg. 2024 2025)
+     * @param fixtures the rows of the fixtures data, where only the rows of the season with a result are used
+     * @param ranker the tie-break rules used to sort the tables
+     */
+    public SeasonTimeline(String season, List<String[]> fixtures, LeagueRanker ranker) {
+        this.season = season;
+        this.ranker = ranker;
+        teams = new ArrayList<>();
+        Map<String, Integer> teamIndexes = new HashMap<>();
+
+        // Collects the played matches of the season as team numbers and scores
+        List<int[]> matches = new ArrayList<>();
+        for (String[] fixture : fixtures) {
+            if (fixture.length < 7 || !fixture[0].trim().equals(season)) {
+                continue;
+            }
+            try {
+                int homeScore = Integer.parseInt(fixture[3].trim());
+                int awayScore = Integer.parseInt(fixture[4].trim());
+                int home = teamIndexes.computeIfAbsent(fixture[1].trim(), team -> addTeam(team));
+                int away = teamIndexes.computeIfAbsent(fixture[6].trim(), team -> addTeam(team));
+                matches.add(new int[] { home, away, homeScore, awayScore });
+
+            // Skips matches that have not been played yet
+            } catch (NumberFormatException e) {}
+        }
+
+        // Each team plays at most two matches against every other team
+        int maxMatches = 2 * Math.max(teams.size() - 1, 0);
+        points = new int[teams.size()][maxMatches + 1];
+        wins = new int[teams.size()][maxMatches + 1];
+        draws = new int[teams.size()][maxMatches + 1];
+        goalsFor = new int[teams.size()][maxMatches + 1];
+        goalsAgainst = new int[teams.size()][maxMatches + 1];
+        matchesPlayed = new int[teams.size()];
+
+        for (int[] match : matches) {
+            addMatch(match[0], match[2], match[3]);
+            addMatch(match[1], match[3], match[2]);
+        }
+    }
+
+
+    /** Gets the season the timeline is for
+     * @return the season
+     */
+    public String getSeason() {
+        return season;
+    }
+
+    /** Gets the teams of the season
+     * @return a copy of the list of teams, in the order the rows of the tables refer to them
+     */
+    public List<String> getTeams() {
+        return new ArrayList<>(teams);
+    }
+
+    /** Gets the number of matches a team has played
+     * @param team the index of the team
+     * @return the number of matches played
+     */
+    public int getMatchesPlayed(int team) {
+        return matchesPlayed[team];
+    }
+
+    /** Gets the last matchday any team has reached
+     * @return the most matches played by one team
+     */
+    public int getMatchdayCount() {
+        int most = 0;
+        for (int played : matchesPlayed) {
+            most = Math.max(most, played);
+        }
+        return most;
+    }
+
+
+    /** Builds the league table after a matchday, where teams that have played fewer matches use all of theirs
+     * @param matchday the number of matches counted for each team
+     * @return the table sorted from 1st place to last, with each row as index, MP, W, D, L, Pts, GF, GA, GD
+     */
+    public int[][] tableAsOf(int matchday) {
+        int[][] table = new int[teams.size()][10];
+        for (int team = 0; team < teams.size(); team++) {
+            int played = Math.min(Math.max(matchday, 0), matchesPlayed[team]);
+            int[] row = table[team];
+            row[0] = team;
+            row[1] = played;
+            row[2] = wins[team][played];
+            row[3] = draws[team][played];
+            row[4] = played - wins[team][played] - draws[team][played];
+            row[5] = points[team][played];
+            row[6] = goalsFor[team][played];
+            row[7] = goalsAgainst[team][played];
+            row[8] = goalsFor[team][played] - goalsAgainst[team][played];
+        }
+        ranker.rank(table, new long[table.length]);
+        return table;
+    }
+
+
+    /** Works out the position of every team after every matchday, reusing one table and one buffer for all of them
+     * @return the positions as [team][matchday - 1], where 1 is first place
+     */
+    public int[][] positionChart() {
+        int matchdays = getMatchdayCount();
+        int[][] chart = new int[teams.size()][matchdays];
+        int[][] table = new int[teams.size()][10];
+        long[] keys = new long[teams.size()];
+
+        for (int matchday = 1; matchday <= matchdays; matchday++) {
+
+            // Fills in only the stats the ranker can sort by
+            for (int team = 0; team < teams.size(); team++) {
+                int played = Math.min(matchday, matchesPlayed[team]);
+                int[] row = table[team];
+                row[0] = team;
+                row[1] = played;
+                row[2] = wins[team][played];
+                row[5] = points[team][played];
+                row[6] = goalsFor[team][played];
+                row[7] = goalsAgainst[team][played];
+                row[8] = goalsFor[team][played] - goalsAgainst[team][played];
+            }
+            ranker.rank(table, keys);
+
+            for (int position = 0; position < table.length; position++) {
+                chart[table[position][0]][matchday - 1] = position + 1;
+            }
+        }
+        return chart;
+    }
+
+
+    /** Adds a new team to the season
+     * @param team the name of the team
+     * @return the index of the team
+     */
+    private int addTeam(String team) {
+        teams.add(team);
+        return teams.size() - 1;
+    }
+
+
+    /** Adds one match to a team's running totals
+     * @param team the index of the team
+     * @param scored the goals the team scored
+     * @param conceded the goals the team conceded
+     */
+    private void addMatch(int team, int scored, int conceded) {
+        int before = matchesPlayed[team];
+        int after = before + 1;
+        if (after >= points[team].length) {
+            throw new IllegalArgumentException(teams.get(team) + " has more matches in " + season + " than a double round robin allows");
+        }
+
+        int result = Integer.compare(scored, conceded);
+        points[team][after] = points[team][before] + (result > 0 ? 3 : result == 0 ? 1 : 0);
+        wins[team][after] = wins[team][before] + (result > 0 ? 1 : 0);
+        draws[team][after] = draws[team][before] + (result == 0 ? 1 : 0);
+        goalsFor[team][after] = goalsFor[team][before] + scored;
+        goalsAgainst[team][after] = goalsAgainst[team][before] + conceded;
+        matchesPlayed[team] = after;
+    }
+}
@@ -1,46 +1,222 @@
 package modules;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
-/** A simulate season feature where the user can simulate the 2024/2025 season.
- * It uses the 2024/2025 fixtures and the current available data for each team and makes predictions to who will win.
+/** A simulate season feature where the user can simulate any season in the data, starting with the 2024/2025 season.
+ * It uses the season's fixtures and the current available data for each team and makes predictions to who will win.
  * The stats from the predictions are then update on the league table.
  * The league table is sorted from 1st place to last and printed.
+ * The user can also project the rest of the season, which starts from the real table and simulates only the unplayed fixtures many times,
+ * see how the odds change if an unplayed fixture ends in a home win, a draw or an away win,
+ * and simulate every season at once to compare the simulated tables against the actual ones.
  */
 public class SimulateSeason extends BaseFeatures {
 
-    // List of teams participating in the league
-    private List<String> teams;
+    // The data of the season being simulated
+    private SeasonData data;
 
-    // Array to store the attack and defense strengths for each team
-    private double[][] strengths;
+    // The data of every season loaded so far, so team strengths are only worked out once per season
+    private final Map<String, SeasonData> seasonCache;
 
+    // Results of earlier simulations so repeating a query is answered straight away, or null to always simulate
+    private SimulationCache resultCache;
 
-    /** Initializes the list of teams.
+    // Every simulated rest of season of the loaded season, kept so real results can be swapped in without simulating again
+    private UniverseStore universes;
+
+    // When the CSV files were last changed, used to notice new fixtures and results
+    private long dataModified;
+
+    // The tie-break rules used to sort the simulated tables
+    private LeagueRanker ranker;
+
+    // The parameters of the team strength and goal model
+    private StrengthModel model;
+
+    // The seed every random stream of the simulation is derived from
+    private long seed;
+
+    // The random stream the next single simulated season uses, so each one is a new season that can still be replayed from the seed
+    private int nextSingleStream;
+
+    // Number of simulated seasons that share one random stream, which is also the size of a shard given to a worker process
+    static final int RUNS_PER_STREAM = 256;
+
+    // Number of blocks of seasons simulated between each precision check
+    private static final int STREAMS_PER_BATCH = 16;
+
+    // Largest standard error allowed for the title, top four and relegation odds of a projection
+    private static final double TARGET_ERROR = 0.0025;
+
+    // Most seasons simulated for a projection, even if the target precision has not been reached
+    private static final int MAX_PROJECTION_RUNS = 2000000;
+
+    // Number of seasons simulated when comparing what-if scenarios
+    private static final int SCENARIO_RUNS = 100000;
+
+    // Number of runs of each season for each candidate when tuning the strength model
+    private static final int TUNING_RUNS = 512;
+
+    // Most simulated seasons kept for updating the projection with real results
+    private static final int MAX_STORED_UNIVERSES = 200000;
+
+    // Number of seasons simulated when the projection is spread across worker processes
+    private static final int WORKER_RUNS = 500000;
+
+    // Most worker processes the user can ask for
+    private static final int MAX_WORKERS = 16;
+
+    // Number of runs of each season when comparing simulated and actual tables
+    private static final int HISTORY_RUNS = 20000;
+
+    // Most simulation results kept in memory
+    private static final int RESULT_CACHE_SIZE = 64;
+
+
+    /** Initializes the season cache and picks a random seed.
      */
     public SimulateSeason() {
-        teams = new ArrayList<>();
+        seasonCache = new ConcurrentHashMap<>();
+        resultCache = new SimulationCache(RESULT_CACHE_SIZE);
+        seed = new SplittableRandom().nextLong();
+        ranker = LeagueRanker.premierLeague();
+        model = StrengthModel.defaults();
     }
 
 
+    /** Gets the data of the loaded season
+     * @return the season data
+     */
+    public SeasonData getData() {
+        return data;
+    }
+
     /** Gets the team names for the simultion
      * @return the list of teams in the league
      */
     public List<String> getTeams() {
-        return teams;
+        return data.getTeams();
     }
 
     /** Gets the teams strengths which contains the attack and defense strength
      * @return a 2D array of team strengths, where each row contains the attack and defense strengths of a team
      */
     public double[][] getStrengths() {
-        return strengths;
+        return data.getStrengths();
+    }
+
+    /** Gets the precomputed goal distributions for every pairing of teams
+     * @return the outcome table built from the team strengths
+     */
+    public OutcomeTable getOutcomes() {
+        return data.getOutcomes();
+    }
+
+    /** Gets the fixtures of the loaded season
+     * @return a list of rows, where each row represents match data from the fixtures data
+     */
+    public List<String[]> getFixturesData() {
+        return data.getFixturesData();
+    }
+
+    /** Gets the fixtures of the loaded season compiled into team indexes
+     * @return the compiled schedule
+     */
+    public CompiledSchedule getSchedule() {
+        return data.getSchedule();
+    }
+
+    /** Gets the fixtures of the loaded season that have not been played yet
+     * @return the compiled schedule of unplayed fixtures
+     */
+    public CompiledSchedule getRemainingSchedule() {
+        return data.getRemainingSchedule();
+    }
+
+    /** Gets the real league table from the fixtures that have been played
+     * @return the current league table indexed by team
+     */
+    public int[][] getCurrentTable() {
+        return data.getCurrentTable();
+    }
+
+    /** Gets the seed used for the simulation
+     * @return the seed every random stream is derived from
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /** Gets the tie-break rules used to sort the simulated tables
+     * @return the league ranker
+     */
+    public LeagueRanker getRanker() {
+        return ranker;
+    }
+
+    /** Gets the parameters of the team strength and goal model
+     * @return the strength model
+     */
+    public StrengthModel getStrengthModel() {
+        return model;
+    }
+
+    /** Gets the cache of simulation results
+     * @return the result cache, or null if results are not cached
+     */
+    public SimulationCache getResultCache() {
+        return resultCache;
+    }
+
+
+    /** Sets the seed used for the simulation so a run can be repeated exactly
+     * @param seed the seed every random stream is derived from
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+        this.nextSingleStream = 0;
+    }
+
+    /** Sets the tie-break rules used to sort the simulated tables
+     * @param ranker the league ranker to use
+     */
+    public void setRanker(LeagueRanker ranker) {
+        this.ranker = ranker;
+    }
+
+    /** Sets the parameters of the team strength and goal model, working out every season again with the new model
+     * @param model the strength model to use
+     */
+    public synchronized void setStrengthModel(StrengthModel model) {
+        this.model = model;
+        seasonCache.clear();
+        universes = null;
+        if (data != null) {
+            data = getSeasonData(data.getSeason());
+        }
+    }
+
+    /** Sets the cache of simulation results, such as one that also saves results to disk
+     * @param resultCache the result cache to use, or null to always simulate
+     */
+    public void setResultCache(SimulationCache resultCache) {
+        this.resultCache = resultCache;
     }
 
 
     /** Extracts the list of teams from the given league data
      * @param leagueData a list of rows, where each row represents team data from the league table
+     * @return the list of teams in the league
      */
-    private void extractTeams(List<String[]> leagueData) {
+    private List<String> extractTeams(List<String[]> leagueData) {
+        List<String> teams = new ArrayList<>();
+
         // Iterates through each row in column 2 of the leagueData
         for (String[] row : leagueData) {
 
@@ -49,6 +225,7 @@ public class SimulateSeason extends BaseFeatures {
                 teams.add(row[2]);
             }
         }
+        return teams;
     }
 
 
@@ -57,7 +234,7 @@ public class SimulateSeason extends BaseFeatures {
      * @param column the column index for the statistic to average
      * @return the league-wide average for the specified statistic
      */
-    private double calculateLeagueAverage(List<String[]> leagueData, int column) {
+    private static double calculateLeagueAverage(List<String[]> leagueData, int column) {
         double total = 0 ;
         double totalMatches = 0;
 
@@ -86,9 +263,10 @@ public class SimulateSeason extends BaseFeatures {
      * @param team the name of the team
      * @param leagueAvgGF the league-wide average goals scored per match
      * @param leagueAvgGA the league-wide average goals conceded per match
+     * @param model the parameters of the strength model
      * @return an array that stores the attack strength and defense strength of the team
      */
-    private double[] calculateSingularTeamStrength(List<String[]> leagueData, String team, double leagueAvgGF, double leagueAvgGA) {
+    private static double[] calculateSingularTeamStrength(List<String[]> leagueData, String team, double leagueAvgGF, double leagueAvgGA, StrengthModel model) {
         double teamGF = 0;
         double teamGA = 0;
         double teamxGD90 = 0;
@@ -111,11 +289,11 @@ public class SimulateSeason extends BaseFeatures {
         }
 
         // Calculates the teams average GF and GA
-        double teamAvgGF = teamGF / 38;
-        double teamAvgGA = teamGA / 38;
+        double teamAvgGF = teamGF / model.getMatchDivisor();
+        double teamAvgGA = teamGA / model.getMatchDivisor();
 
         // Calculates the attack strength and defense strength of each team
-        double attackStrength = (teamAvgGF / leagueAvgGF) + (teamxGD90 * -0.82);
+        double attackStrength = (teamAvgGF / leagueAvgGF) + (teamxGD90 * model.getXGDWeight());
         double defenseStrength = (leagueAvgGA / teamAvgGA) + teamxGD90;
 
         return new double[]{attackStrength, defenseStrength};
@@ -124,9 +302,12 @@ public class SimulateSeason extends BaseFeatures {
 
     /** Calculates the attack and defense strengths for each team based on league data
      * @param leagueData a list of rows, where each row represents team data from the league table
+     * @param teams the list of teams in the league
+     * @param model the parameters of the strength model
+     * @return a 2D array of team strengths, where each row contains the attack and defense strengths of a team
      */
-    private void calculateTeamStrengths(List<String[]> leagueData) {
-        strengths = new double[teams.size()][2];
+    static double[][] calculateTeamStrengths(List<String[]> leagueData, List<String> teams, StrengthModel model) {
+        double[][] strengths = new double[teams.size()][2];
 
         // Calculates the league-wide average GF and GA
         double leagueAvgGF = calculateLeagueAverage(leagueData, 7);
@@ -134,313 +315,995 @@ public class SimulateSeason extends BaseFeatures {
 
         // Iterates through each team and calculates its strengths using the provided values
         for (int i = 0; i < teams.size(); i++) {
-            strengths[i] = calculateSingularTeamStrength(leagueData, teams.get(i), leagueAvgGF, leagueAvgGA);
+            strengths[i] = calculateSingularTeamStrength(leagueData, teams.get(i), leagueAvgGF, leagueAvgGA, model);
         }
+        return strengths;
     }
 
 
-    /** Simulates the entire season based on the fixture data
-     * @param fixturesData a list of rows, where each row represents match data from the fixtures data
-     * @return a 2D array representing the final league table
+    /** Loads a season so it is the one simulated by the feature, reusing the cached data if the season was loaded before
+     * @param season the season to load (Eg. 2024 2025)
      */
-    private int[][] simulateSeason(List<String[]> fixturesData) {
-        int[][] table = initializeLeagueTable(teams.size());
+    public void loadSeason(String season) {
+        checkForNewData();
+        data = getSeasonData(season);
+    }
 
-        // Iterates through each match in the fixture data 
-        for (String[] match : fixturesData) {
-            if (match.length < 7) {
-                continue;
-            }
 
-            // Gets the index values of the teams in the list
-            int homeIndex = teams.indexOf(match[1]);
-            int awayIndex = teams.indexOf(match[6]);
+    /** Gets the data of a season, working it out from the CSV files the first time the season is asked for
+     * @param season the season to get (Eg. 2024 2025)
+     * @return the season data
+     */
+    public SeasonData getSeasonData(String season) {
+        return seasonCache.computeIfAbsent(season, this::buildSeasonData);
+    }
 
-            // Skips matches where either team is not found in the teams list
-            if (homeIndex == -1 || awayIndex == -1) {
-                continue;
-            }
 
-            // Simulates the match
-            simulateMatch(table, homeIndex, awayIndex);
+    /** Reads the league and fixtures data of a season and calculates everything the simulation needs from it
+     * @param season the season to read (Eg. 2024 2025)
+     * @return the season data
+     */
+    private SeasonData buildSeasonData(String season) {
+
+        // Reads league and fixtures data from CSV files
+        List<String[]> leagueData = readCSV(LEAGUE_FILE, true, season);
+        List<String[]> fixturesData = readCSV(FIXTURES_FILE, true, season);
+
+        // Extract team names and other data from the league table and calculate team strengths based on that data
+        List<String> teams = extractTeams(leagueData);
+        double[][] strengths = calculateTeamStrengths(leagueData, teams, model);
+
+        // Works out the goal distributions of every pairing once for these strengths
+        OutcomeTable outcomes = new OutcomeTable(strengths, model.getTrials());
+
+        // Looks up the teams of every fixture once so the simulation only works with indexes
+        CompiledSchedule schedule = CompiledSchedule.compile(fixturesData, teams);
+
+        // Keeps each team's rank and points from the scraped table to compare simulations against
+        int[] actualRanks = new int[teams.size()];
+        int[] actualPoints = new int[teams.size()];
+        for (String[] row : leagueData) {
+            try {
+                actualRanks[teams.indexOf(row[2])] = Integer.parseInt(row[1]);
+                actualPoints[teams.indexOf(row[2])] = Integer.parseInt(row[10]);
+
+            // Skips if values cannot be parsed as numbers
+            } catch (NumberFormatException e) {}
         }
 
-        // Sort the league table based on points, goal difference and goals scored
-        sortLeagueTable(table);
-        return table;
+        return new SeasonData(season, teams, strengths, outcomes, leagueData, fixturesData, schedule, actualRanks, actualPoints);
     }
 
 
-    /** Initializes the league table 
-     * @param teamCount the number of teams in the league
-     * @return a 2D array representing the initial league table
+    /** Gets every season in the league table data
+     * @return the list of seasons in the order they appear in the file
+     */
+    public List<String> getAvailableSeasons() {
+        return readSeasons(LEAGUE_FILE);
+    }
+
+
+    /** Rebuilds the cached seasons if the CSV files have changed since they were read.
+     * A season whose fixtures or strengths are different is replaced, and its cached simulation results are removed.
      */
-    private int[][] initializeLeagueTable(int teamCount) {
-        int[][] table = new int[teamCount][10];
+    private synchronized void checkForNewData() {
+        long modified = Math.max(new File(LEAGUE_FILE).lastModified(), new File(FIXTURES_FILE).lastModified());
+        if (modified == dataModified) {
+            return;
+        }
+        dataModified = modified;
 
-        // Assigns each team's index value to the first column
-        for (int i = 0; i < teamCount; i++) {
-            table[i][0] = i;
+        for (String season : new ArrayList<>(seasonCache.keySet())) {
+            SeasonData cached = seasonCache.get(season);
+            SeasonData fresh = buildSeasonData(season);
+
+            // Only seasons whose data actually changed lose their results
+            if (fresh.getDataVersion() != cached.getDataVersion() || fresh.getParameterHash() != cached.getParameterHash()) {
+                seasonCache.put(season, fresh);
+                if (resultCache != null) {
+                    resultCache.invalidateSeason(season);
+                }
+                if (data != null && data.getSeason().equals(season)) {
+                    data = fresh;
+                }
+            }
         }
-        return table;
     }
 
 
-    /** Processes a match between two teams and updates the league table based on the result
-     * @param table the league table to update
-     * @param homeIndex the index of the home team in the league table
-     * @param awayIndex the index of the away team in the league table
+    /** Gets a simulation result from the cache, or simulates it and stores it if it is not there
+     * @param kind the kind of simulation, which is part of the cache key
+     * @param seasonData the season being simulated
+     * @param runs the number of seasons simulated, which is part of the cache key
+     * @param simulation the work that simulates the result
+     * @return the simulation result
      */
-    private void simulateMatch(int[][] table, int homeIndex, int awayIndex) {
+    private SimulationSummary cached(String kind, SeasonData seasonData, long runs, Supplier<SimulationSummary> simulation) {
+        SimulationCache cache = resultCache;
+        if (cache == null) {
+            return simulation.get();
+        }
 
-        // Calculates the xG for the home and away teams
-        double homeXG = strengths[homeIndex][0] * strengths[awayIndex][1];
-        double awayXG = strengths[awayIndex][0] * strengths[homeIndex][1];
+        String key = SimulationCache.key(kind, seasonData, Arrays.toString(ranker.getRules()), runs, seed);
+        SimulationSummary summary = cache.get(key);
+        if (summary == null) {
+            summary = simulation.get();
+            cache.put(key, summary);
+        }
+        return summary;
+    }
 
-        // Generates the actual goals scored by the home and away teams
-        int homeGoals = generateNegativeBinomial(homeXG);
-        int awayGoals = generateNegativeBinomial(awayXG);
 
+    /** Creates the random stream for a block of simulated seasons.
+     * The stream only depends on the seed and the block number, so the same seed gives the same draws no matter how many threads share the blocks.
+     * @param seed the seed of the simulation
+     * @param streamIndex the number of the block of seasons
+     * @return an independent random generator for that block
+     */
+    static SplittableRandom createStream(long seed, long streamIndex) {
 
-        // Updates the league table with the match results
-        updateLeagueTable(table, homeIndex, awayIndex, homeGoals, awayGoals);
+        // Mixes the seed and block number with the SplitMix64 finalizer so neighbouring blocks start far apart
+        long z = seed + (streamIndex + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return new SplittableRandom(z ^ (z >>> 31));
     }
 
 
-    /** Updates the league table based on the results of a match
-     * @param table the league table to update
-     * @param homeIndex the index of the home team
-     * @param awayIndex the index of the away team
-     * @param homeGoals the number of goals scored by the home team
-     * @param awayGoals the number of goals scored by the away team
+    /** Simulates the whole season many times in parallel and counts where each team finishes
+     * @param runs the number of seasons to simulate
+     * @return a summary of the finishing positions over every simulated season
      */
-    private void updateLeagueTable(int[][] table, int homeIndex, int awayIndex, int homeGoals, int awayGoals) {
+    public SimulationSummary runMonteCarlo(int runs) {
+        checkForNewData();
+        SeasonData seasonData = data;
+        return cached("full", seasonData, runs,
+                () -> runStreams(seasonData, seasonData.getSchedule(), SeasonSimulator.emptyTable(seasonData.getTeams().size()), 0, runs));
+    }
+
+
+    /** Simulates the rest of the season many times in parallel, starting each run from the real table
+     * @param runs the number of seasons to simulate
+     * @return a summary of the finishing positions over every simulated season
+     */
+    public SimulationSummary projectRestOfSeason(int runs) {
+        checkForNewData();
+        SeasonData seasonData = data;
+        return cached("rest", seasonData, runs,
+                () -> runStreams(seasonData, seasonData.getRemainingSchedule(), seasonData.getCurrentTable(), 0, runs));
+    }
+
 
-        // Increases the matches played by 1 for both teams
-        table[homeIndex][1]++;
-        table[awayIndex][1]++;
+    /** Simulates the rest of any season many times in parallel without loading it, so several seasons can be projected at the same time
+     * @param season the season to project (Eg. 2024 2025)
+     * @param runs the number of seasons to simulate
+     * @return a summary of the finishing positions over every simulated season
+     */
+    public SimulationSummary projectSeason(String season, int runs) {
+        checkForNewData();
+        SeasonData seasonData = getSeasonData(season);
+        return cached("rest", seasonData, runs,
+                () -> runStreams(seasonData, seasonData.getRemainingSchedule(), seasonData.getCurrentTable(), 0, runs));
+    }
 
-        // Determine the outcome of the match and update wins, draws, losses, and points accordingly
-        if (homeGoals > awayGoals) {
-            table[homeIndex][2]++; // Increases home team win
-            table[awayIndex][4]++; // Increases away team loss
-            table[homeIndex][5] += 3; // Increases home teams pounts by 3
 
-        } else if (homeGoals < awayGoals) {
-            table[awayIndex][2]++; // Increases away team wins
-            table[homeIndex][4]++; // Increases home team loss
-            table[awayIndex][5] += 3; // Increases away teams pounts by 3
+    /** Simulates the rest of the season in batches until the odds are precise enough
+     * @param targetError the largest standard error allowed for any title, top four or relegation probability
+     * @param maxRuns the most seasons to simulate if the target is not reached
+     * @param showProgress true to print the progress after each batch, otherwise false
+     * @return a summary of the finishing positions over every simulated season
+     */
+    public SimulationSummary projectRestOfSeason(double targetError, int maxRuns, boolean showProgress) {
+        checkForNewData();
+        SeasonData seasonData = data;
 
-        } else {
+        // The target is part of the kind, since the same maximum with a different target stops at a different number of runs
+        return cached("rest@" + targetError, seasonData, maxRuns,
+                () -> runUntilPrecise(seasonData, seasonData.getRemainingSchedule(), seasonData.getCurrentTable(), targetError, maxRuns, showProgress));
+    }
 
-            // Increases draws by 1
-            table[homeIndex][3]++;
-            table[awayIndex][3]++;
 
-            // Increases points by 1
-            table[homeIndex][5]++;
-            table[awayIndex][5]++;
+    /** Simulates the rest of the season once for a baseline and every scenario together, using common random numbers.
+     * Each simulated season is played once, then every scenario swaps its pinned results into that same season,
+     * so the differences between scenarios come from the pinned fixtures and not from different luck in the other matches.
+     * @param scenarios the scenarios to compare, with fixtures given by their position in the remaining schedule
+     * @param runs the number of seasons to simulate
+     * @return a summary for the baseline at position 0, followed by a summary for each scenario in order
+     */
+    public SimulationSummary[] evaluateScenarios(List<Scenario> scenarios, int runs) {
+        checkForNewData();
+        SeasonData seasonData = data;
+        CompiledSchedule remainingSchedule = seasonData.getRemainingSchedule();
+
+        // Checks that every pinned fixture is in the remaining schedule
+        for (Scenario scenario : scenarios) {
+            for (int pin = 0; pin < scenario.getPinCount(); pin++) {
+                if (scenario.getFixture(pin) >= remainingSchedule.size()) {
+                    throw new IllegalArgumentException("Scenario " + scenario.getName() + " pins a fixture that is not in the remaining schedule");
+                }
+            }
         }
 
-        // Calculates and updates GF for both teams
-        table[homeIndex][6] += homeGoals;
-        table[awayIndex][6] += awayGoals;
+        int streamCount = (runs + RUNS_PER_STREAM - 1) / RUNS_PER_STREAM;
+
+        // Each block of seasons gets its own random stream and summaries, and the summaries are merged at the end
+        return IntStream.range(0, streamCount).parallel().collect(
+                () -> newSummaries(scenarios.size() + 1, seasonData.getTeams().size()),
+                (summaries, streamIndex) -> simulateScenarioStream(seasonData, scenarios, streamIndex, Math.min(RUNS_PER_STREAM, runs - streamIndex * RUNS_PER_STREAM), summaries),
+                (first, second) -> {
+                    for (int i = 0; i < first.length; i++) {
+                        first[i].merge(second[i]);
+                    }
+                });
+    }
 
-        // Calculates and updates GA for both teams
-        table[homeIndex][7] += awayGoals;
-        table[awayIndex][7] += homeGoals;
 
-        // Calculates and updates the GD for both teams
-        table[homeIndex][8] = table[homeIndex][6] - table[homeIndex][7];
-        table[awayIndex][8] = table[awayIndex][6] - table[awayIndex][7];
+    /** Simulates one block of seasons for the baseline and every scenario
+     * @param seasonData the data of the season to simulate
+     * @param scenarios the scenarios to compare
+     * @param streamIndex the number of the block of seasons
+     * @param runs the number of seasons in the block
+     * @param summaries the baseline summary followed by a summary for each scenario
+     */
+    private void simulateScenarioStream(SeasonData seasonData, List<Scenario> scenarios, int streamIndex, int runs, SimulationSummary[] summaries) {
+        SplittableRandom random = createStream(seed, streamIndex);
+        SeasonSimulator simulator = new SeasonSimulator(seasonData.getRemainingSchedule(), seasonData.getOutcomes(), ranker, seasonData.getCurrentTable());
+
+        for (int first = 0; first < runs; first += SeasonSimulator.BATCH_SEASONS) {
+            int batch = simulator.drawBatch(random, Math.min(SeasonSimulator.BATCH_SEASONS, runs - first));
+            for (int run = 0; run < batch; run++) {
+                summaries[0].record(simulator.playDrawn(run));
+
+                // Re-ranks the same season with each scenario's pinned results
+                for (int i = 0; i < scenarios.size(); i++) {
+                    summaries[i + 1].record(simulator.rankScenario(scenarios.get(i)));
+                }
+            }
+        }
     }
 
 
-    /** Sorts the league table based on points, goal difference and goals scored using merge sort
-     * @param table the league table to sort
+    /** Creates an array of empty summaries
+     * @param count the number of summaries
+     * @param teamCount the number of teams in the league
+     * @return the array of empty summaries
      */
-    private void sortLeagueTable(int[][] table) {
-        mergeSort(table, 0, table.length - 1);
+    private SimulationSummary[] newSummaries(int count, int teamCount) {
+        SimulationSummary[] summaries = new SimulationSummary[count];
+        for (int i = 0; i < count; i++) {
+            summaries[i] = new SimulationSummary(teamCount);
+        }
+        return summaries;
     }
 
 
-    /** Implements the merge sort algorithm to sort the league table.
-     * @param table the league table to sort
-     * @param left the starting index of the array to sort
-     * @param right the ending index of the array to sort
+    /** Simulates the rest of the loaded season until the odds are precise enough and keeps every simulated season so real results can be applied later
+     * @param targetError the largest standard error allowed for any title, top four or relegation probability
+     * @param maxUniverses the most simulated seasons to keep
+     * @return the store of simulated seasons
      */
-    private void mergeSort(int[][] table, int left, int right) {
-        if (left < right) {
+    public UniverseStore storeUniverses(double targetError, int maxUniverses) {
+        checkForNewData();
+        UniverseStore store = new UniverseStore(data, ranker, seed);
+        store.topUp(targetError, maxUniverses, STREAMS_PER_BATCH * RUNS_PER_STREAM);
+        universes = store;
+        return store;
+    }
+
 
-            // Finds the middle point of the array
-            int mid = left + (right - left) / 2;
+    /** Applies a real result of an unplayed fixture to the stored simulated seasons, simulating and storing them first if needed.
+     * Only more seasons are simulated if the odds are not precise enough after the update.
+     * @param homeTeam the name of the home team
+     * @param awayTeam the name of the away team
+     * @param homeGoals the real goals scored by the home team
+     * @param awayGoals the real goals scored by the away team
+     * @return the updated odds, or null if the fixture is not unplayed or already has a result
+     */
+    public SimulationSummary applyResult(String homeTeam, String awayTeam, int homeGoals, int awayGoals) {
+        checkForNewData();
 
-            // Sorts both halves
-            mergeSort(table, left, mid);
-            mergeSort(table, mid + 1, right);
+        // Starts again if the data changed since the seasons were stored
+        if (universes == null || universes.getData() != data) {
+            storeUniverses(TARGET_ERROR, MAX_STORED_UNIVERSES);
+        }
 
-            // Merges the sorted halves
-            merge(table, left, mid, right);
+        int fixture = findRemainingFixture(homeTeam, awayTeam);
+        if (fixture == -1 || universes.isResolved(fixture)) {
+            return null;
         }
+
+        universes.applyResult(fixture, homeGoals, awayGoals);
+        universes.topUp(TARGET_ERROR, MAX_STORED_UNIVERSES, STREAMS_PER_BATCH * RUNS_PER_STREAM);
+        return universes.getSummary();
     }
 
 
-    /** Merges two sorted subarrays into a single sorted array
-     * @param table the league table to merge
-     * @param leftIndex the starting index of the first subarray
-     * @param midIndex the ending index of the first subarray
-     * @param rightIndex the ending index of the second subarray
+    /** Finds the position of an unplayed fixture in the remaining schedule
+     * @param homeTeam the name of the home team
+     * @param awayTeam the name of the away team
+     * @return the position of the fixture in the remaining schedule, or -1 if it is not there
      */
-    private void merge(int[][] table, int leftIndex, int midIndex, int rightIndex) {
-        
-        // Gets the size of the two halves
-        int leftHalfSize  = midIndex - leftIndex + 1;
-        int rightHalfSize  = rightIndex - midIndex;
-
-        // Creates arrays to temporary store the left and right halves
-        int[][] leftArray = new int[leftHalfSize][10];
-        int[][] rightArray = new int[rightHalfSize][10];
-
-        // Copys the information of the left and right half into the array
-        for (int i = 0; i < leftHalfSize; i++) {
-            leftArray[i] = table[leftIndex + i];
-        }
-        for (int j = 0; j < rightHalfSize; j++) {
-            rightArray[j] = table[midIndex + 1 + j];
-        }
-
-        // Index for left half
-        int i = 0;
-
-        // Index for right half
-        int j = 0;
-
-        // Index for the merged table
-        int k = leftIndex;
-
-        while (i < leftHalfSize && j < rightHalfSize) {
-
-            // If the points of the left team are greater than the right team, it places the left team in the merged table
-            // Increases the left index by 1
-            if (leftArray[i][5] > rightArray[j][5]) {
-                table[k] = leftArray[i];
-                i++;
-
-            // If the points on the left team smaller than the right team, it places the right team in the merged table
-            // Increases the right index by 1
-            } else if (leftArray[i][5] < rightArray[j][5]) {
-                table[k] = rightArray[j];
-                j++;
-
-            // If the points are equal, it compares using GD
-            } else {
-
-                // If the GD of the left team are greater than the right team, it places the left team in the merged table
-                // Increases the left index by 1
-                if (leftArray[i][8] > rightArray[j][8]) {
-                    table[k] = leftArray[i];
-                    i++;
-
-                // If the GD on the left team smaller than the right team, it places the right team in the merged table
-                // Increases the right index by 1
-                } else if (leftArray[i][8] < rightArray[j][8]) {
-                    table[k] = rightArray[j];
-                    j++;
-
-                // If the GD are equal, it compares using GF
-                } else {
-
-                    // If the GF on the left team smaller than the right team, it places the right team in the merged table
-                    // Increases the left index by 1
-                    if (leftArray[i][6] > rightArray[j][6]) {
-                        table[k] = leftArray[i];
-                        i++;
-
-                    // If the GF on the left team smaller than the right team, it places the right team in the merged table
-                    // Increases the right index by 1
-                    } else {
-                        table[k] = rightArray[j];
-                        j++;
-                    }
-                }
+    public int findRemainingFixture(String homeTeam, String awayTeam) {
+        CompiledSchedule remainingSchedule = data.getRemainingSchedule();
+        int homeIndex = data.getTeams().indexOf(homeTeam);
+        int awayIndex = data.getTeams().indexOf(awayTeam);
+
+        for (int i = 0; i < remainingSchedule.size(); i++) {
+            if (remainingSchedule.getHomeTeams()[i] == homeIndex && remainingSchedule.getAwayTeams()[i] == awayIndex) {
+                return i;
             }
-            k++;
         }
+        return -1;
+    }
+
+
+    /** Simulates one shard of a larger Monte Carlo job, so the shards of a job can be spread across worker processes.
+     * Shards that start on different blocks of seasons use different random streams, so merging every shard of a job gives the same result as running it in one go.
+     * @param restOfSeason true to simulate the unplayed fixtures from the real table, false to simulate the full season
+     * @param firstStream the number of the shard's first block of seasons
+     * @param runs the number of seasons in the shard
+     * @return a summary of the finishing positions over the shard's simulated seasons
+     */
+    public SimulationSummary simulateShard(boolean restOfSeason, int firstStream, int runs) {
+        checkForNewData();
+        SeasonData seasonData = data;
+        if (restOfSeason) {
+            return runStreams(seasonData, seasonData.getRemainingSchedule(), seasonData.getCurrentTable(), firstStream, runs);
+        }
+        return runStreams(seasonData, seasonData.getSchedule(), SeasonSimulator.emptyTable(seasonData.getTeams().size()), firstStream, runs);
+    }
+
+
+    /** Simulates the rest of the loaded season across worker processes, each in its own JVM, and merges their summaries.
+     * The workers are given this simulation's seed, strength model and tie-break rules, so the result is the same as projectRestOfSeason(runs).
+     * @param workers the number of worker processes to start
+     * @param runs the number of seasons to simulate
+     * @return a summary of the finishing positions over every simulated season
+     * @throws IOException if a worker cannot be started or sends back a bad summary
+     */
+    public SimulationSummary projectWithWorkers(int workers, int runs) throws IOException {
+        checkForNewData();
+        return new SimulationCoordinator(workers).run(data.getSeason(), true, seed, runs, model, ranker);
+    }
+
 
-        // Any remaining elements in the left array are placed into the merged table
-        while (i < leftHalfSize) {
-            table[k] = leftArray[i];
-            i++;
-            k++;
+    /** Builds the next season from the loaded one, with the bottom three teams relegated and the promoted teams joining.
+     * The promoted teams have no league data yet, so each starts with the average strengths of the relegated teams.
+     * The fixtures are a generated schedule, since the real ones are not published yet.
+     * @param promotedTeams the names of the teams joining the league
+     * @return the data of the next season
+     */
+    public SeasonData buildNextSeason(List<String> promotedTeams) {
+        checkForNewData();
+        List<String> teams = data.getTeams();
+
+        // Orders the teams by their real rank so the bottom three can be relegated
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < teams.size(); i++) {
+            order.add(i);
+        }
+        order.sort((a, b) -> Integer.compare(data.getActualRank(a), data.getActualRank(b)));
+        int staying = teams.size() - promotedTeams.size();
+
+        List<String> nextTeams = new ArrayList<>();
+        double[][] nextStrengths = new double[teams.size()][];
+        for (int i = 0; i < staying; i++) {
+            nextStrengths[nextTeams.size()] = data.getStrengths()[order.get(i)].clone();
+            nextTeams.add(teams.get(order.get(i)));
         }
 
-        // Any remaining elements in the right array are placed into the merged table
-        while (j < rightHalfSize) {
-            table[k] = rightArray[j];
-            j++;
-            k++;
+        // Averages the strengths of the relegated teams for the promoted teams
+        double[] promotedStrength = new double[2];
+        for (int i = staying; i < teams.size(); i++) {
+            promotedStrength[0] += data.getStrengths()[order.get(i)][0] / promotedTeams.size();
+            promotedStrength[1] += data.getStrengths()[order.get(i)][1] / promotedTeams.size();
         }
+        for (String team : promotedTeams) {
+            nextStrengths[nextTeams.size()] = promotedStrength.clone();
+            nextTeams.add(team);
+        }
+
+        CompiledSchedule schedule = new ScheduleGenerator(nextTeams.size()).generate(createStream(seed, -1));
+        return new SeasonData(nextSeasonName(data.getSeason()), nextTeams, nextStrengths, new OutcomeTable(nextStrengths, model.getTrials()),
+                new ArrayList<>(), new ArrayList<>(), schedule, new int[nextTeams.size()], new int[nextTeams.size()]);
     }
 
 
-    /** Generates a random number of goals scored based on the negative binomial distribution 
-     * @param mean the expected goals for the match
-     * @return the number of goals scored
+    /** Works out the name of the season after a season
+     * @param season the season (Eg. 2024 2025)
+     * @return the next season (Eg. 2025 2026), or Next Season if the years cannot be read
      */
-    private int generateNegativeBinomial(double mean) {
-        
-        // Number of trials
-        double r = 2;
+    private static String nextSeasonName(String season) {
+        try {
+            String[] years = season.split(" ");
+            return (Integer.parseInt(years[0]) + 1) + " " + (Integer.parseInt(years[1]) + 1);
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            return "Next Season";
+        }
+    }
+
+
+    /** Simulates a season whose fixtures are not known yet, giving each block of seasons its own generated schedule
+     * so the uncertainty in the fixture list is part of the simulation
+     * @param seasonData the data of the season, such as one from buildNextSeason
+     * @param runs the number of seasons to simulate
+     * @return a summary of the finishing positions over every simulated season
+     */
+    public SimulationSummary simulateGeneratedSeasons(SeasonData seasonData, int runs) {
+        ScheduleGenerator generator = new ScheduleGenerator(seasonData.getTeams().size());
+        int streamCount = (runs + RUNS_PER_STREAM - 1) / RUNS_PER_STREAM;
+
+        return IntStream.range(0, streamCount).parallel().collect(
+                () -> new SimulationSummary(seasonData.getTeams().size()),
+                (summary, block) -> {
+
+                    // The block's stream draws its schedule first and then the goals of its seasons
+                    SplittableRandom random = createStream(seed, block);
+                    CompiledSchedule schedule = generator.generate(random);
+                    SeasonSimulator simulator = new SeasonSimulator(schedule, seasonData.getOutcomes(), ranker);
+                    simulator.simulate(random, Math.min(RUNS_PER_STREAM, runs - block * RUNS_PER_STREAM), summary);
+                },
+                SimulationSummary::merge);
+    }
+
+
+    /** Simulates several whole seasons at the same time, each from its own cached data
+     * @param seasons the seasons to simulate
+     * @param runs the number of times to simulate each season
+     * @return a summary for each season, in the same order as the list of seasons
+     */
+    public List<SimulationSummary> simulateSeasons(List<String> seasons, int runs) {
+        checkForNewData();
+
+        // Each season runs as its own parallel task, and its blocks of runs are split across the threads as well
+        return seasons.parallelStream()
+                .map(season -> {
+                    SeasonData seasonData = getSeasonData(season);
+                    return cached("full", seasonData, runs,
+                            () -> runStreams(seasonData, seasonData.getSchedule(), SeasonSimulator.emptyTable(seasonData.getTeams().size()), 0, runs));
+                })
+                .collect(Collectors.toList());
+    }
 
-        // Probability of a goal being scored in a single trial
-        double p = 1 / (1 + mean);
-        int goals = 0;
 
-        // Runs until r reaches 0
-        while (r > 0) {
-            if (Math.random() < p) {
-                goals++;
+    /** Simulates a schedule in batches until the odds are precise enough, since the number of runs needed depends on how close the league is.
+     * The batches use the same blocks of seasons as a single run would, so the result is the same as runMonteCarlo with the final number of runs.
+     * @param seasonData the data of the season to simulate
+     * @param fixtures the fixtures to simulate in each run
+     * @param startingTable the table indexed by team that each run starts from
+     * @param targetError the largest standard error allowed for any title, top four or relegation probability
+     * @param maxRuns the most seasons to simulate if the target is not reached
+     * @param showProgress true to print the progress after each batch, otherwise false
+     * @return a summary of the finishing positions over every simulated season
+     */
+    private SimulationSummary runUntilPrecise(SeasonData seasonData, CompiledSchedule fixtures, int[][] startingTable, double targetError, int maxRuns, boolean showProgress) {
+        SimulationSummary total = new SimulationSummary(seasonData.getTeams().size());
+        int batchRuns = STREAMS_PER_BATCH * RUNS_PER_STREAM;
+        long startTime = System.nanoTime();
+
+        // Runs one batch at a time until the largest error is small enough or the limit is reached
+        while (total.getRuns() < maxRuns) {
+            int firstStream = (int) (total.getRuns() / RUNS_PER_STREAM);
+            int runs = (int) Math.min(batchRuns, maxRuns - total.getRuns());
+            total.merge(runStreams(seasonData, fixtures, startingTable, firstStream, runs));
+
+            double maxError = total.getMaxStandardError();
+            if (showProgress) {
+                double seconds = (System.nanoTime() - startTime) / 1e9;
+                System.out.printf("\rRuns: %,d | %,.0f runs/sec | Max error: %.2f%%   ", total.getRuns(), total.getRuns() / seconds, maxError * 100);
             }
-            r--;
+            if (maxError <= targetError) {
+                break;
+            }
+        }
+
+        if (showProgress) {
+            System.out.println();
         }
+        return total;
+    }
+
+
+    /** Simulates a run of consecutive blocks of seasons in parallel
+     * @param seasonData the data of the season to simulate
+     * @param fixtures the fixtures to simulate in each run
+     * @param startingTable the table indexed by team that each run starts from
+     * @param firstStream the number of the first block to simulate
+     * @param runs the number of seasons to simulate, starting at the first block
+     * @return a summary of the finishing positions over the simulated seasons
+     */
+    private SimulationSummary runStreams(SeasonData seasonData, CompiledSchedule fixtures, int[][] startingTable, int firstStream, int runs) {
+        int streamCount = (runs + RUNS_PER_STREAM - 1) / RUNS_PER_STREAM;
+
+        // Each block of seasons gets its own random stream and summary, and the summaries are merged at the end
+        return IntStream.range(0, streamCount).parallel().collect(
+                () -> new SimulationSummary(seasonData.getTeams().size()),
+                (summary, block) -> simulateStream(seasonData, fixtures, startingTable, firstStream + block, Math.min(RUNS_PER_STREAM, runs - block * RUNS_PER_STREAM), summary),
+                SimulationSummary::merge);
+    }
+
+
+    /** Simulates one block of seasons using the random stream of that block
+     * @param seasonData the data of the season to simulate
+     * @param fixtures the fixtures to simulate in each run
+     * @param startingTable the table indexed by team that each run starts from
+     * @param streamIndex the number of the block of seasons
+     * @param runs the number of seasons in the block
+     * @param summary the summary to record the final tables in
+     */
+    private void simulateStream(SeasonData seasonData, CompiledSchedule fixtures, int[][] startingTable, int streamIndex, int runs, SimulationSummary summary) {
+        SplittableRandom random = createStream(seed, streamIndex);
 
-        return goals;
+        // One simulator per block so its table is reused by every season in the block
+        SeasonSimulator simulator = new SeasonSimulator(fixtures, seasonData.getOutcomes(), ranker, startingTable);
+        simulator.simulate(random, runs, summary);
     }
 
 
     /** Prints the final league table after the season simulation
      * @param table the final league table to print
+     * @param stream the number of the random stream the season was simulated on
      */
-    private void printFinalTable(int[][] table) {
+    private void printFinalTable(int[][] table, int stream) {
         
         // Prints header for the league table
-        System.out.println("\n--- League Table Simulation for 2024 2025 ---");
-        System.out.printf("%5s %20s %5s %5s %5s %5s %5s %5s %5s %5s\n", "Rank", "Team", "MP", "W", "D", "L", "Pts", "GF", "GA", "GD");
+        System.out.println("\n--- League Table Simulation for " + data.getSeason() + " ---");
+        System.out.println("Seed: " + seed + " | Stream: " + stream);
+        writeTable(new PrintWriter(System.out), ReportWriter.Format.FIXED_WIDTH, table, data.getTeams());
+    }
+
+
+    /** Writes a sorted league table as a report, with every column right aligned in a fixed-width table
+     * @param out the writer the table goes to
+     * @param format the layout of the table
+     * @param table the table sorted from 1st place to last, with each row as index, MP, W, D, L, Pts, GF, GA, GD
+     * @param teams the team names, in the order the indexes of the rows refer to
+     */
+    public static void writeTable(PrintWriter out, ReportWriter.Format format, int[][] table, List<String> teams) {
+        ReportWriter report = new ReportWriter(out, format, new String[] { "Rank", "Team", "MP", "W", "D", "L", "Pts", "GF", "GA", "GD" },
+                new int[] { 5, 20, 5, 5, 5, 5, 5, 5, 5, 5 });
 
-        // Iterates through each row in the table and prints the stats 
+        // Iterates through each row in the table and adds the stats
         for (int i = 0; i < table.length; i++) {
-            int index = table[i][0];
-            System.out.printf("%5d %20s %5d %5d %5d %5d %5d %5d %5d %5d\n",
-                    i + 1, teams.get(index), table[i][1], table[i][2], table[i][3], table[i][4], table[i][5],
-                    table[i][6], table[i][7], table[i][8]);
+            report.cell(i + 1);
+            report.cell(teams.get(table[i][0]));
+            for (int column = 1; column <= 8; column++) {
+                report.cell(table[i][column]);
+            }
+            report.endRow();
         }
+        report.finish();
     }
 
 
-    /** Executes the Simulate Season feature
+    /** Prints the projected final standings after simulating the rest of the season
+     * @param summary the summary of the simulated seasons
      */
-    public void executeFeature() {
+    private void printProjection(SimulationSummary summary) {
+        List<String> teams = data.getTeams();
+        int[][] currentTable = data.getCurrentTable();
 
-        // Reads league and fixtures data from CSV files
-        List<String[]> leagueData = readCSV("data/League Tables.csv", true, "2024 2025");
-        List<String[]> fixturesData = readCSV("data/Fixtures.csv", true, "2024 2025");
+        // Orders the teams by their average final points
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < teams.size(); i++) {
+            order.add(i);
+        }
+        order.sort((a, b) -> Double.compare(summary.getAveragePoints(b), summary.getAveragePoints(a)));
+
+        // Prints header for the projection
+        System.out.println("\n--- Projected Final Table for " + data.getSeason() + " ---");
+        System.out.printf("Seed: %d | Runs: %,d | Fixtures left: %d | Max error: %.2f%%\n", seed, summary.getRuns(), data.getRemainingSchedule().size(), summary.getMaxStandardError() * 100);
+        ReportWriter report = new ReportWriter(new PrintWriter(System.out), ReportWriter.Format.FIXED_WIDTH,
+                new String[] { "Rank", "Team", "MP", "Pts", "xPts", "Title", "Top 4", "Rel" }, new int[] { 5, 20, 5, 5, 8, 8, 8, 8 });
+
+        // Iterates through each team and adds its current points, projected points and chances
+        for (int i = 0; i < order.size(); i++) {
+            int index = order.get(i);
+            report.cell(i + 1);
+            report.cell(teams.get(index));
+            report.cell(currentTable[index][1]);
+            report.cell(currentTable[index][5]);
+            addOdds(report, summary, index);
+        }
+        report.finish();
+    }
+
+
+    /** Adds a team's average points and its chances of the title, the top four and relegation to a row, then finishes the row
+     * @param report the report to add the cells to
+     * @param summary the summary of the simulated seasons
+     * @param team the index of the team
+     */
+    private static void addOdds(ReportWriter report, SimulationSummary summary, int team) {
+        report.cell(summary.getAveragePoints(team), 1);
+        report.cell(summary.getTopProbability(team, 1) * 100, 1, "%", false);
+        report.cell(summary.getTopProbability(team, 4) * 100, 1, "%", false);
+        report.cell(summary.getBottomProbability(team, 3) * 100, 1, "%", false);
+        report.endRow();
+    }
+
+
+    /** Asks the user for an unplayed fixture and prints how the odds change for each result
+     * @param input the Scanner object to read user input
+     */
+    private void handleWhatIf(Scanner input) {
+
+        // Asks for the home and away team of an unplayed fixture
+        System.out.println("\nEnter the home team as Team 1 and the away team as Team 2.");
+        String[] fixtureTeams = parseTeams(getTeamInput(input));
+        int fixture = findRemainingFixture(fixtureTeams[0], fixtureTeams[1]);
+        if (fixture == -1) {
+            System.out.println("\n" + fixtureTeams[0] + " vs " + fixtureTeams[1] + " is not an unplayed fixture this season.");
+            return;
+        }
+
+        // Compares a home win, a draw and an away win in one pass
+        List<Scenario> scenarios = Arrays.asList(
+                new Scenario(fixtureTeams[0] + " win").pin(fixture, 1, 0),
+                new Scenario("Draw").pin(fixture, 1, 1),
+                new Scenario(fixtureTeams[1] + " win").pin(fixture, 0, 1));
+        SimulationSummary[] summaries = evaluateScenarios(scenarios, SCENARIO_RUNS);
+
+        System.out.printf("\n--- What if: %s vs %s (%,d runs, seed %d) ---\n", fixtureTeams[0], fixtureTeams[1], summaries[0].getRuns(), seed);
+        printScenarioOdds("Title", summaries, scenarios, 1, true);
+        printScenarioOdds("Top 4", summaries, scenarios, 4, true);
+        printScenarioOdds("Relegation", summaries, scenarios, 3, false);
+    }
+
+
+    /** Asks the user for a real result of an unplayed fixture and prints how the odds changed
+     * @param input the Scanner object to read user input
+     */
+    private void handleNewResult(Scanner input) {
+
+        // Asks for the home and away team and the score
+        System.out.println("\nEnter the home team as Team 1 and the away team as Team 2.");
+        String[] fixtureTeams = parseTeams(getTeamInput(input));
+        int homeGoals = getGoalsInput(input, "Enter " + fixtureTeams[0] + "'s goals: ");
+        int awayGoals = getGoalsInput(input, "Enter " + fixtureTeams[1] + "'s goals: ");
+
+        // Keeps the odds from before the result to compare against
+        if (universes == null || universes.getData() != data) {
+            System.out.println("\nSimulating and storing the rest of the season...");
+            storeUniverses(TARGET_ERROR, MAX_STORED_UNIVERSES);
+        }
+        SimulationSummary before = universes.getSummary();
+
+        long start = System.nanoTime();
+        SimulationSummary after = applyResult(fixtureTeams[0], fixtureTeams[1], homeGoals, awayGoals);
+        double milliseconds = (System.nanoTime() - start) / 1e6;
+        if (after == null) {
+            System.out.println("\n" + fixtureTeams[0] + " vs " + fixtureTeams[1] + " is not an unplayed fixture without a result this season.");
+            return;
+        }
+
+        // Prints the odds before and after the result, using the scenario layout
+        List<Scenario> result = Arrays.asList(new Scenario(fixtureTeams[0] + " " + homeGoals + "-" + awayGoals + " " + fixtureTeams[1]));
+        SimulationSummary[] summaries = {before, after};
+        System.out.printf("\n--- Updated with %s (%,d stored seasons, %d bytes each, %.1f ms) ---\n",
+                result.get(0).getName(), universes.getUniverseCount(), universes.getBytesPerUniverse(), milliseconds);
+        printScenarioOdds("Title", summaries, result, 1, true);
+        printScenarioOdds("Top 4", summaries, result, 4, true);
+        printScenarioOdds("Relegation", summaries, result, 3, false);
+    }
 
-         // Extract team names and other data from the league table and calculate team strengths based on that data
-        extractTeams(leagueData);
-        calculateTeamStrengths(leagueData);
 
-        // Simulates the seasons and prints the final league table
-        int[][] finalTable = simulateSeason(fixturesData);
-        printFinalTable(finalTable);
+    /** Asks the user for the promoted teams and prints the projected table of the next season
+     * @param input the Scanner object to read user input
+     */
+    private void handleNextSeason(Scanner input) {
+        List<String> promotedTeams = new ArrayList<>();
+
+        // Asks for three teams that are not already in the league
+        System.out.println("\nEnter the three promoted teams.");
+        while (promotedTeams.size() < 3) {
+            System.out.print("Enter promoted team " + (promotedTeams.size() + 1) + " (Eg. Leeds United): ");
+            String team = input.nextLine().trim();
+            if (team.isEmpty() || team.contains(",") || data.getTeams().contains(team) || promotedTeams.contains(team)) {
+                System.out.println("Invalid or repeated team name. Please try again. \n");
+                continue;
+            }
+            promotedTeams.add(team);
+        }
+
+        SeasonData next = buildNextSeason(promotedTeams);
+        SimulationSummary summary = simulateGeneratedSeasons(next, HISTORY_RUNS);
+        List<String> teams = next.getTeams();
+
+        // Orders the teams by their average final points
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < teams.size(); i++) {
+            order.add(i);
+        }
+        order.sort((a, b) -> Double.compare(summary.getAveragePoints(b), summary.getAveragePoints(a)));
+
+        System.out.printf("\n--- Projected %s Table (%,d runs on generated fixtures, seed %d) ---\n", next.getSeason(), summary.getRuns(), seed);
+        ReportWriter report = new ReportWriter(new PrintWriter(System.out), ReportWriter.Format.FIXED_WIDTH,
+                new String[] { "Rank", "Team", "xPts", "Title", "Top 4", "Rel" }, new int[] { 5, 20, 8, 8, 8, 8 });
+        for (int i = 0; i < order.size(); i++) {
+            int index = order.get(i);
+            report.cell(i + 1);
+            report.cell(teams.get(index));
+            addOdds(report, summary, index);
+        }
+        report.finish();
+    }
+
+
+    /** Searches a grid of strength model parameters against every finished season, prints the best and lets the user use them
+     * @param input the Scanner object to read user input
+     */
+    private void handleTuning(Scanner input) {
+        ParameterTuner tuner = new ParameterTuner(this, getAvailableSeasons(), TUNING_RUNS);
+        double[] xgdWeights = {-1.2, -1.0, -0.82, -0.6, -0.4, -0.2, 0};
+        int[] trials = {1, 2, 3, 4};
+        double[] matchDivisors = {30, 34, 38, 42};
+
+        System.out.println("\nTuning the strength model on " + tuner.getSeasonCount() + " finished seasons...");
+        long start = System.nanoTime();
+        List<ParameterTuner.Candidate> candidates = tuner.gridSearch(xgdWeights, trials, matchDivisors);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        // Prints the best candidates and where the current model placed
+        System.out.printf("\n--- Strength Model Tuning (%d candidates, %.2f seconds, %.1f evaluations/sec) ---\n",
+                candidates.size(), seconds, candidates.size() / seconds);
+        ReportWriter report = new ReportWriter(new PrintWriter(System.out), ReportWriter.Format.FIXED_WIDTH,
+                new String[] { "Rank", "Parameters", "Pts err", "Rank err", "" }, new int[] { 5, 45, 9, 9, 0 });
+        for (int i = 0; i < candidates.size(); i++) {
+            ParameterTuner.Candidate candidate = candidates.get(i);
+            boolean current = candidate.getModel().toString().equals(model.toString());
+            if (i < 5 || current) {
+                report.cell(i + 1);
+                report.cell(candidate.getModel().toString());
+                report.cell(candidate.getPointsError(), 2);
+                report.cell(candidate.getRankError(), 2);
+                report.cell(current ? "(current)" : "");
+                report.endRow();
+            }
+        }
+        report.finish();
+
+        System.out.print("\nUse the best parameters for this session? (y/n): ");
+        if (input.nextLine().trim().equalsIgnoreCase("y")) {
+            setStrengthModel(candidates.get(0).getModel());
+            System.out.println("Now using " + model + ".");
+        }
+    }
+
+
+    /** Asks the user for a number of worker processes and projects the rest of the season across them
+     * @param input the Scanner object to read user input
+     */
+    private void handleWorkers(Scanner input) {
+        int workers;
+        while (true) {
+            System.out.print("Enter the number of worker processes (1 to " + MAX_WORKERS + "): ");
+            try {
+                workers = Integer.parseInt(input.nextLine().trim());
+                if (workers >= 1 && workers <= MAX_WORKERS) {
+                    break;
+                }
+            } catch (NumberFormatException e) {}
+            System.out.println("Invalid number. Please try again. \n");
+        }
+
+        System.out.println("\nSimulating " + WORKER_RUNS + " seasons across " + workers + " worker processes...");
+        try {
+            long start = System.nanoTime();
+            SimulationSummary summary = projectWithWorkers(workers, WORKER_RUNS);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            printProjection(summary);
+            System.out.printf("Finished in %.2f seconds (%.0f seasons/sec)\n", seconds, WORKER_RUNS / seconds);
+        } catch (IOException e) {
+            System.out.println("Could not run the worker processes: " + e.getMessage());
+        }
+    }
+
+
+    /** Asks the user for a number of goals
+     * @param input the Scanner object to read user input
+     * @param prompt the message asking for the goals
+     * @return the number of goals entered
+     */
+    private int getGoalsInput(Scanner input, String prompt) {
+        while (true) {
+            System.out.print(prompt);
+            try {
+                int goals = Integer.parseInt(input.nextLine().trim());
+                if (goals >= 0 && goals <= 15) {
+                    return goals;
+                }
+
+            // Asks again if the input is not a number
+            } catch (NumberFormatException e) {}
+            System.out.println("Invalid number of goals. Please try again. \n");
+        }
+    }
+
+
+    /** Prints one kind of odds for the baseline and each scenario, skipping teams with no chance in any of them
+     * @param title the name of the odds
+     * @param summaries the baseline summary followed by a summary for each scenario
+     * @param scenarios the scenarios that were compared
+     * @param places the number of places at the top or bottom of the table
+     * @param top true for places at the top of the table, false for places at the bottom
+     */
+    private void printScenarioOdds(String title, SimulationSummary[] summaries, List<Scenario> scenarios, int places, boolean top) {
+        List<String> teams = data.getTeams();
+
+        // Uses the name of each scenario as the header of its odds, followed by a column for the change from the baseline
+        String[] columns = new String[2 + scenarios.size() * 2];
+        int[] widths = new int[columns.length];
+        columns[0] = title;
+        widths[0] = -20;
+        columns[1] = "Baseline";
+        widths[1] = 10;
+        for (int i = 0; i < scenarios.size(); i++) {
+            columns[2 + i * 2] = scenarios.get(i).getName();
+            widths[2 + i * 2] = Math.max(9, scenarios.get(i).getName().length());
+            columns[3 + i * 2] = "Change";
+            widths[3 + i * 2] = 7;
+        }
+
+        // Adds each team's odds and the change from the baseline in each scenario
+        System.out.println();
+        ReportWriter report = new ReportWriter(new PrintWriter(System.out), ReportWriter.Format.FIXED_WIDTH, columns, widths);
+        double[] odds = new double[summaries.length];
+        for (int team = 0; team < teams.size(); team++) {
+            boolean anyChance = false;
+            for (int i = 0; i < summaries.length; i++) {
+                odds[i] = top ? summaries[i].getTopProbability(team, places) : summaries[i].getBottomProbability(team, places);
+                anyChance = anyChance || odds[i] > 0;
+            }
+            if (!anyChance) {
+                continue;
+            }
+
+            report.cell(teams.get(team));
+            report.cell(odds[0] * 100, 1, "%", false);
+            for (int i = 1; i < summaries.length; i++) {
+                report.cell(odds[i] * 100, 1, "%", false);
+                report.cell((odds[i] - odds[0]) * 100, 1, "%", true);
+            }
+            report.endRow();
+        }
+        report.finish();
+    }
+
+
+    /** Asks the user for a season and loads it for the other options
+     * @param input the Scanner object to read user input
+     */
+    private void handleChooseSeason(Scanner input) {
+        List<String> seasons = getAvailableSeasons();
+        System.out.println("\nSeasons available: " + String.join(", ", seasons));
+        System.out.print("Enter the season (Eg. 2024 2025): ");
+        String season = input.nextLine().trim();
+
+        if (!seasons.contains(season)) {
+            System.out.println("Invalid season. Please try again.");
+            return;
+        }
+
+        loadSeason(season);
+        System.out.println(season + " loaded with " + data.getRemainingSchedule().size() + " unplayed fixtures.");
+    }
+
+
+    /** Simulates every season at the same time and prints how close the simulated tables are to the actual ones
+     */
+    private void printSeasonComparison() {
+        List<String> seasons = getAvailableSeasons();
+        long start = System.nanoTime();
+        List<SimulationSummary> summaries = simulateSeasons(seasons, HISTORY_RUNS);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        // Prints header for the comparison
+        System.out.printf("\n--- Simulated vs Actual (%,d runs per season, seed %d, %.2f seconds) ---\n", HISTORY_RUNS, seed, seconds);
+        ReportWriter report = new ReportWriter(new PrintWriter(System.out), ReportWriter.Format.FIXED_WIDTH,
+                new String[] { "Season", "Rank err", "Pts err", "Champion", "Title" }, new int[] { 10, 10, 10, 20, 8 });
+
+        for (int i = 0; i < seasons.size(); i++) {
+            SeasonData seasonData = getSeasonData(seasons.get(i));
+            SimulationSummary summary = summaries.get(i);
+            double rankError = 0;
+            double pointsError = 0;
+            int champion = 0;
+
+            // Adds up how far each team's average simulated finish is from where it actually finished
+            for (int team = 0; team < seasonData.getTeams().size(); team++) {
+                rankError += Math.abs(summary.getAveragePosition(team) - seasonData.getActualRank(team));
+                pointsError += Math.abs(summary.getAveragePoints(team) - seasonData.getActualPoints(team));
+                if (seasonData.getActualRank(team) == 1) {
+                    champion = team;
+                }
+            }
+
+            // Seasons still being played are compared against the table so far
+            String label = seasonData.isComplete() ? seasons.get(i) : seasons.get(i) + "*";
+            report.cell(label);
+            report.cell(rankError / seasonData.getTeams().size(), 2);
+            report.cell(pointsError / seasonData.getTeams().size(), 2);
+            report.cell(seasonData.getTeams().get(champion));
+            report.cell(summary.getTopProbability(champion, 1) * 100, 1, "%", false);
+            report.endRow();
+        }
+        report.finish();
+        System.out.println("* season still in progress, compared against the current table and leader");
+    }
+
+
+    /** Executes the Simulate Season feature
+     * @param input the Scanner object to read user input
+     */
+    public void executeFeature(Scanner input) {
+
+        // Loads the latest season data and calculates the team strengths
+        loadSeason("2024 2025");
+
+        // Displays an interactive menu
+        // Asks the users for their feature choice executes that feature accordingly
+        while (true) {
+            System.out.println("\n--- Season Simulation ---");
+            System.out.println("   (1) Simulate the full " + data.getSeason() + " season");
+            System.out.println("   (2) Project the rest of the " + data.getSeason() + " season from the current table");
+            System.out.println("   (3) What if an unplayed fixture ends in a home win, draw or away win");
+            System.out.println("   (4) Choose a different season");
+            System.out.println("   (5) Compare simulated and actual tables for every season");
+            System.out.println("   (6) Enter a real result and update the projection");
+            System.out.println("   (7) Project next season with the promoted teams");
+            System.out.println("   (8) Tune the strength model on past seasons");
+            System.out.println("   (9) Project the rest of the " + data.getSeason() + " season across worker processes \n");
+            System.out.println("   (0) Exit to feature list \n");
+            System.out.print("Enter your choice: ");
+
+            String choice = input.nextLine();
+
+            switch (choice) {
+                case "1":
+                    // Simulates the season on the next stream and prints the final league table
+                    int stream = nextSingleStream++;
+                    int[][] finalTable = new SeasonSimulator(data.getSchedule(), data.getOutcomes(), ranker).simulate(createStream(seed, stream));
+                    printFinalTable(finalTable, stream);
+                    break;
+                case "2":
+                    // Simulates the unplayed fixtures until the odds are precise and prints the projection
+                    printProjection(projectRestOfSeason(TARGET_ERROR, MAX_PROJECTION_RUNS, true));
+                    break;
+                case "3":
+                    // Compares the results of one unplayed fixture using the same simulated seasons
+                    handleWhatIf(input);
+                    break;
+                case "4":
+                    // Switches the season used by the other options
+                    handleChooseSeason(input);
+                    break;
+                case "5":
+                    // Simulates every season at once and compares each against its actual table
+                    printSeasonComparison();
+                    break;
+                case "6":
+                    // Swaps a real result into the stored simulated seasons instead of simulating again
+                    handleNewResult(input);
+                    break;
+                case "7":
+                    // Relegates the bottom three, adds the promoted teams and simulates on generated fixtures
+                    handleNextSeason(input);
+                    break;
+                case "8":
+                    // Searches for strength model parameters that best match the real final tables
+                    handleTuning(input);
+                    break;
+                case "9":
+                    // Splits the projection into shards run by separate worker processes with the same model and rules
+                    handleWorkers(input);
+                    break;
+                case "0":
+                    System.out.println("Exiting tool.");
+                    return;
+                default:
+                    System.out.println("Invalid choice. Please try again.");
+            }
+        }
     }
 }
@@ -0,0 +1,231 @@
+package modules;
+import java.io.*;
+import java.util.*;
+
+/** A cache of simulation results so the same query is only simulated once.
+ * Each result is stored under a key made from the season, the model inputs, the data version, the number of runs and the seed,
+ * so a result is only reused when the simulation would give exactly the same answer.
+ * The most recently used results are kept in memory up to a size limit, and results can also be saved to a folder so they last between runs of the program.
+ */
+public class SimulationCache {
+
+    // Most results kept in memory before the least recently used one is removed
+    private final int maxEntries;
+
+    // Folder the results are also saved to, or null to only keep them in memory
+    private final File directory;
+
+    // Results in memory, ordered from least to most recently used
+    private final LinkedHashMap<String, SimulationSummary> entries;
+
+    // Number of lookups answered from memory or disk
+    private long hits;
+
+    // Number of lookups that had to be simulated
+    private long misses;
+
+
+    /** Creates a cache that only keeps results in memory
+     * @param maxEntries the most results kept in memory
+     */
+    public SimulationCache(int maxEntries) {
+        this(maxEntries, null);
+    }
+
+    /** Creates a cache that keeps results in memory and saves them to a folder
+     * @param maxEntries the most results kept in memory
+     * @param directory the folder to save results to, or null to only keep them in memory
+     */
+    public SimulationCache(int maxEntries, File directory) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("A cache needs room for at least one result");
+        }
+        this.maxEntries = maxEntries;
+        this.directory = directory;
+
+        // Access order moves each result to the end when it is used, so the first entry is always the least recently used
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+
+    /** Gets the number of results in memory
+     * @return the number of results
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /** Gets the number of lookups that found a result
+     * @return the number of hits
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /** Gets the number of lookups that did not find a result
+     * @return the number of misses
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+
+    /** Builds the key a result is stored under
+     * @param kind the kind of simulation (Eg. full or rest)
+     * @param data the season that was simulated
+     * @param rules the tie-break rules used to sort the tables
+     * @param runs the number of seasons simulated
+     * @param seed the seed of the simulation
+     * @return the key, which starts with the season so every result of a season can be found
+     */
+    public static String key(String kind, SeasonData data, String rules, long runs, long seed) {
+        return data.getSeason() + "|" + kind + "|" + Long.toHexString(data.getParameterHash()) + "|" + rules
+                + "|" + Long.toHexString(data.getDataVersion()) + "|" + runs + "|" + seed;
+    }
+
+
+    /** Looks up a result, checking memory first and then the folder
+     * @param key the key of the result
+     * @return a copy of the result, or null if it is not in the cache
+     */
+    public synchronized SimulationSummary get(String key) {
+        SimulationSummary summary = entries.get(key);
+
+        // Loads the result from disk and keeps it in memory for next time
+        if (summary == null && directory != null) {
+            summary = readFile(key);
+            if (summary != null) {
+                store(key, summary);
+            }
+        }
+
+        if (summary == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return copy(summary);
+    }
+
+
+    /** Stores a result in memory and in the folder if there is one
+     * @param key the key of the result
+     * @param summary the result to store
+     */
+    public synchronized void put(String key, SimulationSummary summary) {
+        SimulationSummary stored = copy(summary);
+        store(key, stored);
+        if (directory != null) {
+            writeFile(key, stored);
+        }
+    }
+
+
+    /** Removes every result of a season, for when new fixtures or results for it arrive
+     * @param season the season to remove (Eg. 2024 2025)
+     */
+    public synchronized void invalidateSeason(String season) {
+        entries.keySet().removeIf(key -> key.startsWith(season + "|"));
+
+        // Deletes the season's saved results as well
+        if (directory != null) {
+            File[] files = directory.listFiles((folder, name) -> name.startsWith(fileSeason(season) + "-"));
+            if (files != null) {
+                for (File file : files) {
+                    file.delete();
+                }
+            }
+        }
+    }
+
+    /** Removes every result from memory, leaving any saved results in the folder
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+
+    /** Stores a result in memory and removes the least recently used result if the cache is full
+     * @param key the key of the result
+     * @param summary the result to store
+     */
+    private void store(String key, SimulationSummary summary) {
+        entries.put(key, summary);
+        if (entries.size() > maxEntries) {
+            Iterator<String> oldest = entries.keySet().iterator();
+            oldest.next();
+            oldest.remove();
+        }
+    }
+
+
+    /** Copies a result so changes made by the caller do not change the cached result
+     * @param summary the result to copy
+     * @return the copy
+     */
+    private static SimulationSummary copy(SimulationSummary summary) {
+        SimulationSummary copy = new SimulationSummary(summary.getTeamCount());
+        copy.merge(summary);
+        return copy;
+    }
+
+
+    /** Gets the file a result is saved in
+     * @param key the key of the result
+     * @return the file in the cache folder
+     */
+    private File fileFor(String key) {
+        String season = key.substring(0, key.indexOf('|'));
+        return new File(directory, fileSeason(season) + "-" + Integer.toHexString(key.hashCode()) + ".txt");
+    }
+
+    /** Turns a season into the start of a file name
+     * @param season the season (Eg. 2024 2025)
+     * @return the season without spaces (Eg. 2024_2025)
+     */
+    private static String fileSeason(String season) {
+        return season.replace(' ', '_');
+    }
+
+
+    /** Saves a result to its file, with the key on the first line followed by the summary
+     * @param key the key of the result
+     * @param summary the result to save
+     */
+    private void writeFile(String key, SimulationSummary summary) {
+        directory.mkdirs();
+        try (PrintWriter writer = new PrintWriter(new BufferedWriter(new FileWriter(fileFor(key))))) {
+            writer.println(key);
+            summary.write(writer);
+
+        // Prints an error message if the result cannot be saved, but keeps it in memory
+        } catch (IOException e) {
+            System.err.println("Error saving simulation result: " + e.getMessage());
+        }
+    }
+
+
+    /** Reads a result back from its file
+     * @param key the key of the result
+     * @return the result, or null if there is no file or the file is for a different key
+     */
+    private SimulationSummary readFile(String key) {
+        File file = fileFor(key);
+        if (!file.exists()) {
+            return null;
+        }
+
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+
+            // Two keys can share a file name, so the full key is checked
+            if (!key.equals(reader.readLine())) {
+                return null;
+            }
+            return SimulationSummary.read(reader);
+
+        // Treats an unreadable or damaged file as a missing result
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package modules;
+import java.io.*;
+import java.util.*;
+
+/** Splits a Monte Carlo job into seeded shards and runs them in separate worker processes.
+ * Each worker is its own JVM, so a job is not limited to the heap and threads of one process.
+ * The shards are whole blocks of seasons, and each block has its own random stream worked out from the seed and block number,
+ * so merging the summaries of every shard gives exactly the same result as running the whole job in one process.
+ */
+public class SimulationCoordinator {
+
+    // Number of worker processes to start
+    private final int workerCount;
+
+    // The command that starts one worker process
+    private final List<String> workerCommand;
+
+    // Folder the workers run in, which needs the data folder
+    private final File workingDirectory;
+
+
+    /** Creates a coordinator that starts workers with the same Java and classpath as this process, in the current folder
+     * @param workerCount the number of worker processes to start
+     */
+    public SimulationCoordinator(int workerCount) {
+        this(workerCount, Arrays.asList(
+                System.getProperty("java.home") + File.separator + "bin" + File.separator + "java",
+                "-cp", System.getProperty("java.class.path"), SimulationWorker.class.getName()), new File("."));
+    }
+
+    /** Creates a coordinator that starts workers with the given command
+     * @param workerCount the number of worker processes to start
+     * @param workerCommand the command that starts one worker process
+     * @param workingDirectory the folder the workers run in, which needs the data folder
+     */
+    public SimulationCoordinator(int workerCount, List<String> workerCommand, File workingDirectory) {
+        if (workerCount < 1) {
+            throw new IllegalArgumentException("A coordinator needs at least one worker");
+        }
+        this.workerCount = workerCount;
+        this.workerCommand = new ArrayList<>(workerCommand);
+        this.workingDirectory = workingDirectory;
+    }
+
+
+    /** Gets the number of worker processes started for each job
+     * @return the number of workers
+     */
+    public int getWorkerCount() {
+        return workerCount;
+    }
+
+
+    /** Runs a Monte Carlo job across the worker processes with the default strength model and Premier League tie-breaks
+     * @param season the season to simulate (Eg. 2024 2025)
+     * @param restOfSeason true to simulate the unplayed fixtures from the real table, false to simulate the full season
+     * @param seed the seed of the simulation
+     * @param runs the number of seasons to simulate
+     * @return a summary of the finishing positions over every simulated season
+     * @throws IOException if a worker cannot be started or sends back a bad summary
+     */
+    public SimulationSummary run(String season, boolean restOfSeason, long seed, int runs) throws IOException {
+        return run(season, restOfSeason, seed, runs, StrengthModel.defaults(), LeagueRanker.premierLeague());
+    }
+
+    /** Runs a Monte Carlo job across the worker processes and merges their summaries.
+     * The strength model and tie-break rules are sent with every shard, so the workers simulate exactly what this process would.
+     * @param season the season to simulate (Eg. 2024 2025)
+     * @param restOfSeason true to simulate the unplayed fixtures from the real table, false to simulate the full season
+     * @param seed the seed of the simulation
+     * @param runs the number of seasons to simulate
+     * @param model the parameters of the strength model the workers use
+     * @param ranker the tie-break rules the workers sort their tables with
+     * @return a summary of the finishing positions over every simulated season
+     * @throws IOException if a worker cannot be started or sends back a bad summary
+     */
+    public SimulationSummary run(String season, boolean restOfSeason, long seed, int runs, StrengthModel model, LeagueRanker ranker) throws IOException {
+        int blockCount = (runs + SimulateSeason.RUNS_PER_STREAM - 1) / SimulateSeason.RUNS_PER_STREAM;
+        int workers = Math.min(workerCount, Math.max(blockCount, 1));
+        List<Process> processes = new ArrayList<>();
+
+        try {
+            // Gives each worker an equal share of whole blocks, with the first workers taking one extra block if they do not divide evenly
+            int firstBlock = 0;
+            for (int worker = 0; worker < workers; worker++) {
+                int blocks = blockCount / workers + (worker < blockCount % workers ? 1 : 0);
+                int shardRuns = Math.min(blocks * SimulateSeason.RUNS_PER_STREAM, runs - firstBlock * SimulateSeason.RUNS_PER_STREAM);
+
+                Process process = new ProcessBuilder(workerCommand)
+                        .directory(workingDirectory)
+                        .redirectError(ProcessBuilder.Redirect.INHERIT)
+                        .start();
+                processes.add(process);
+
+                // Sends the shard and closes the input so the worker exits once it has answered
+                try (PrintWriter writer = new PrintWriter(new OutputStreamWriter(process.getOutputStream()))) {
+                    writer.println(shardLine(season, restOfSeason, seed, firstBlock, shardRuns, model, ranker));
+                }
+                firstBlock += blocks;
+            }
+
+            // Reads the summaries back in shard order while the later workers are still running
+            SimulationSummary total = null;
+            for (Process process : processes) {
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+                    SimulationSummary shard = SimulationSummary.read(reader);
+                    if (total == null) {
+                        total = new SimulationSummary(shard.getTeamCount());
+                    }
+                    total.merge(shard);
+                }
+            }
+            return total;
+
+        // Stops any worker still running if a shard fails
+        } finally {
+            for (Process process : processes) {
+                process.destroy();
+            }
+        }
+    }
+
+
+    /** Writes a shard as one line for a worker, with its parts separated by | and the tie-break rules separated by commas.
+     * The decimals are written in full so the worker rebuilds exactly the same model.
+     * @param season the season to simulate
+     * @param restOfSeason true to simulate the unplayed fixtures, false to simulate the full season
+     * @param seed the seed of the simulation
+     * @param firstBlock the number of the shard's first block of seasons
+     * @param runs the number of seasons in the shard
+     * @param model the parameters of the strength model
+     * @param ranker the tie-break rules
+     * @return the shard as season|kind|seed|first block|runs|xGD weight|trials|match divisor|rules
+     */
+    static String shardLine(String season, boolean restOfSeason, long seed, int firstBlock, int runs, StrengthModel model, LeagueRanker ranker) {
+        StringBuilder rules = new StringBuilder();
+        for (LeagueRanker.TieBreak rule : ranker.getRules()) {
+            if (rules.length() > 0) {
+                rules.append(',');
+            }
+            rules.append(rule.name());
+        }
+        return season + "|" + (restOfSeason ? "rest" : "full") + "|" + seed + "|" + firstBlock + "|" + runs + "|"
+                + model.getXGDWeight() + "|" + model.getTrials() + "|" + model.getMatchDivisor() + "|" + rules;
+    }
+}
@@ -0,0 +1,230 @@
+package modules;
+import java.io.*;
+
+/** A summary of many simulated seasons that counts how often each team finished in each position and adds up their final points.
+ * Summaries from different workers can be merged together, and since they only hold counts the merged result is the same in any order.
+ */
+public class SimulationSummary {
+
+    // Number of times each team finished in each position, indexed by [team][position]
+    private final long[][] positionCounts;
+
+    // Total final points of each team over every recorded season
+    private final long[] pointsTotals;
+
+    // Number of seasons recorded in the summary
+    private long runs;
+
+
+    /** Creates an empty summary for a league
+     * @param teamCount the number of teams in the league
+     */
+    public SimulationSummary(int teamCount) {
+        positionCounts = new long[teamCount][teamCount];
+        pointsTotals = new long[teamCount];
+    }
+
+    /** Creates a summary from counts that were recorded before, such as a summary read back from a file
+     * @param positionCounts the number of times each team finished in each position, indexed by [team][position]
+     * @param pointsTotals the total final points of each team
+     * @param runs the number of seasons the counts were recorded from
+     */
+    public SimulationSummary(long[][] positionCounts, long[] pointsTotals, long runs) {
+        this.positionCounts = positionCounts;
+        this.pointsTotals = pointsTotals;
+        this.runs = runs;
+    }
+
+
+    /** Gets the number of seasons recorded in the summary
+     * @return the number of simulated seasons
+     */
+    public long getRuns() {
+        return runs;
+    }
+
+    /** Gets the number of teams in the summary
+     * @return the number of teams
+     */
+    public int getTeamCount() {
+        return positionCounts.length;
+    }
+
+    /** Gets the number of times a team finished in a position
+     * @param team the index of the team
+     * @param position the position in the table, where 0 is first place
+     * @return the number of seasons the team finished in that position
+     */
+    public long getPositionCount(int team, int position) {
+        return positionCounts[team][position];
+    }
+
+    /** Gets the probability of a team finishing in a position
+     * @param team the index of the team
+     * @param position the position in the table, where 0 is first place
+     * @return the share of simulated seasons the team finished in that position
+     */
+    public double getPositionProbability(int team, int position) {
+        return runs == 0 ? 0 : (double) positionCounts[team][position] / runs;
+    }
+
+    /** Gets the probability of a team finishing in one of the top places
+     * @param team the index of the team
+     * @param places the number of places at the top of the table, such as 1 for the title or 4 for the top four
+     * @return the share of simulated seasons the team finished in those places
+     */
+    public double getTopProbability(int team, int places) {
+        long count = 0;
+        for (int position = 0; position < places; position++) {
+            count += positionCounts[team][position];
+        }
+        return runs == 0 ? 0 : (double) count / runs;
+    }
+
+    /** Gets the probability of a team finishing in one of the bottom places
+     * @param team the index of the team
+     * @param places the number of places at the bottom of the table, such as 3 for relegation
+     * @return the share of simulated seasons the team finished in those places
+     */
+    public double getBottomProbability(int team, int places) {
+        long count = 0;
+        for (int position = positionCounts.length - places; position < positionCounts.length; position++) {
+            count += positionCounts[team][position];
+        }
+        return runs == 0 ? 0 : (double) count / runs;
+    }
+
+    /** Gets the total final points of a team over every recorded season
+     * @param team the index of the team
+     * @return the team's final points added up over every simulated season
+     */
+    public long getPointsTotal(int team) {
+        return pointsTotals[team];
+    }
+
+    /** Gets the average final points of a team
+     * @param team the index of the team
+     * @return the team's final points averaged over every simulated season
+     */
+    public double getAveragePoints(int team) {
+        return runs == 0 ? 0 : (double) pointsTotals[team] / runs;
+    }
+
+    /** Gets the average finishing position of a team over the recorded seasons
+     * @param team the index of the team
+     * @return the average position, where 1 is first place
+     */
+    public double getAveragePosition(int team) {
+        if (runs == 0) {
+            return 0;
+        }
+        long total = 0;
+        for (int position = 0; position < positionCounts[team].length; position++) {
+            total += positionCounts[team][position] * (position + 1);
+        }
+        return (double) total / runs;
+    }
+
+
+    /** Gets the standard error of a probability estimated from the recorded seasons
+     * @param probability the estimated probability
+     * @return the standard error of the estimate
+     */
+    public double getStandardError(double probability) {
+        return runs == 0 ? 1 : Math.sqrt(probability * (1 - probability) / runs);
+    }
+
+    /** Gets the largest standard error of any team's title, top four or relegation probability
+     * @return the largest standard error in the summary
+     */
+    public double getMaxStandardError() {
+        double maxError = 0;
+        for (int team = 0; team < positionCounts.length; team++) {
+            maxError = Math.max(maxError, getStandardError(getTopProbability(team, 1)));
+            maxError = Math.max(maxError, getStandardError(getTopProbability(team, 4)));
+            maxError = Math.max(maxError, getStandardError(getBottomProbability(team, 3)));
+        }
+        return maxError;
+    }
+
+
+    /** Records the final positions of one simulated season
+     * @param table the sorted league table, where the first column of each row is the team index
+     */
+    public void record(int[][] table) {
+        for (int position = 0; position < table.length; position++) {
+            positionCounts[table[position][0]][position]++;
+            pointsTotals[table[position][0]] += table[position][5];
+        }
+        runs++;
+    }
+
+
+    /** Writes the summary as text so it can be saved or sent to another process.
+     * The first line holds the runs and the number of teams, then each team has a line of its points total followed by its position counts.
+     * @param writer the writer to write the summary to
+     */
+    public void write(PrintWriter writer) {
+        writer.println(runs + "," + positionCounts.length);
+        for (int team = 0; team < positionCounts.length; team++) {
+            StringBuilder line = new StringBuilder().append(pointsTotals[team]);
+            for (int position = 0; position < positionCounts.length; position++) {
+                line.append(',').append(positionCounts[team][position]);
+            }
+            writer.println(line);
+        }
+    }
+
+
+    /** Reads a summary written by the write method
+     * @param reader the reader to read the summary from
+     * @return the summary that was read
+     * @throws IOException if the summary cannot be read or is incomplete
+     */
+    public static SimulationSummary read(BufferedReader reader) throws IOException {
+        String header = reader.readLine();
+        if (header == null) {
+            throw new EOFException("No simulation summary to read");
+        }
+
+        try {
+            String[] counts = header.split(",");
+            long runs = Long.parseLong(counts[0]);
+            int teamCount = Integer.parseInt(counts[1]);
+
+            long[][] positionCounts = new long[teamCount][teamCount];
+            long[] pointsTotals = new long[teamCount];
+            for (int team = 0; team < teamCount; team++) {
+                String line = reader.readLine();
+                if (line == null) {
+                    throw new EOFException("Simulation summary ended after " + team + " teams");
+                }
+
+                String[] row = line.split(",");
+                pointsTotals[team] = Long.parseLong(row[0]);
+                for (int position = 0; position < teamCount; position++) {
+                    positionCounts[team][position] = Long.parseLong(row[position + 1]);
+                }
+            }
+            return new SimulationSummary(positionCounts, pointsTotals, runs);
+
+        // Reports badly formatted numbers the same way as a missing line
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            throw new IOException("Badly formatted simulation summary: " + e.getMessage());
+        }
+    }
+
+
+    /** Adds the counts of another summary to this summary
+     * @param other the summary to merge into this one
+     */
+    public void merge(SimulationSummary other) {
+        for (int team = 0; team < positionCounts.length; team++) {
+            for (int position = 0; position < positionCounts.length; position++) {
+                positionCounts[team][position] += other.positionCounts[team][position];
+            }
+            pointsTotals[team] += other.pointsTotals[team];
+        }
+        runs += other.runs;
+    }
+}
@@ -0,0 +1,52 @@
+package modules;
+import java.io.*;
+
+/** A worker process that simulates shards of Monte Carlo jobs for the simulation coordinator.
+ * It reads one shard per line from standard input, in the form season|kind|seed|first block|runs|xGD weight|trials|match divisor|rules,
+ * and writes the summary of each shard to standard output. It keeps running until standard input is closed.
+ * The kind is full or rest and the rules are tie-break names separated by commas. Shards without the last four parts use the defaults.
+ * Run it from the folder with the data folder: java modules.SimulationWorker
+ */
+public class SimulationWorker {
+
+    /** Reads shards from standard input and writes their summaries to standard output
+     * @param args not used
+     * @throws IOException if standard input or output cannot be used
+     */
+    public static void main(String[] args) throws IOException {
+        SimulateSeason simulation = new SimulateSeason();
+
+        // Every shard is different, so there is nothing to gain from caching results in the worker
+        simulation.setResultCache(null);
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(System.in));
+        PrintWriter writer = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out)));
+        String line;
+
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+
+            // Splits the shard into its season, kind, seed, first block, number of runs, strength model and tie-break rules
+            String[] job = line.split("\\|");
+
+            // Uses the coordinator's model and rules, set before the season is loaded so its strengths use the same model
+            if (job.length >= 9) {
+                simulation.setStrengthModel(new StrengthModel(Double.parseDouble(job[5]), Integer.parseInt(job[6]), Double.parseDouble(job[7])));
+                String[] names = job[8].split(",");
+                LeagueRanker.TieBreak[] rules = new LeagueRanker.TieBreak[names.length];
+                for (int i = 0; i < names.length; i++) {
+                    rules[i] = LeagueRanker.TieBreak.valueOf(names[i]);
+                }
+                simulation.setRanker(new LeagueRanker(rules));
+            }
+            simulation.loadSeason(job[0]);
+            simulation.setSeed(Long.parseLong(job[2]));
+
+            SimulationSummary summary = simulation.simulateShard(job[1].equals("rest"), Integer.parseInt(job[3]), Integer.parseInt(job[4]));
+            summary.write(writer);
+            writer.flush();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package modules;
+
+/** The parameters of the season simulator's team strength and goal model.
+ * The xGD weight scales how much a team's xGD per 90 lowers its attack strength, the match divisor turns season goal totals into per match averages,
+ * and the number of trials is the most goals a team can score in a simulated match.
+ */
+public class StrengthModel {
+
+    // Weight of a team's xGD per 90 in its attack strength
+    private final double xgdWeight;
+
+    // Number of trials per team in a match
+    private final int trials;
+
+    // Number of matches the season goal totals are divided by
+    private final double matchDivisor;
+
+
+    /** Creates a model with the given parameters
+     * @param xgdWeight the weight of a team's xGD per 90 in its attack strength
+     * @param trials the number of trials per team in a match
+     * @param matchDivisor the number of matches the season goal totals are divided by
+     */
+    public StrengthModel(double xgdWeight, int trials, double matchDivisor) {
+        if (trials < 1 || !(matchDivisor > 0)) {
+            throw new IllegalArgumentException("A strength model needs at least one trial and a positive match divisor");
+        }
+        this.xgdWeight = xgdWeight;
+        this.trials = trials;
+        this.matchDivisor = matchDivisor;
+    }
+
+
+    /** Creates the model the simulator has always used, with an xGD weight of -0.82, 2 trials and a match divisor of 38
+     * @return the default model
+     */
+    public static StrengthModel defaults() {
+        return new StrengthModel(-0.82, 2, 38);
+    }
+
+
+    /** Gets the weight of a team's xGD per 90 in its attack strength
+     * @return the xGD weight
+     */
+    public double getXGDWeight() {
+        return xgdWeight;
+    }
+
+    /** Gets the number of trials per team in a match
+     * @return the number of trials
+     */
+    public int getTrials() {
+        return trials;
+    }
+
+    /** Gets the number of matches the season goal totals are divided by
+     * @return the match divisor
+     */
+    public double getMatchDivisor() {
+        return matchDivisor;
+    }
+
+
+    /** Describes the parameters of the model
+     * @return the parameters as text
+     */
+    @Override
+    public String toString() {
+        return String.format("xGD weight %.2f, trials %d, match divisor %.1f", xgdWeight, trials, matchDivisor);
+    }
+}
@@ -0,0 +1,328 @@
+package modules;
+import java.util.*;
+import java.util.stream.IntStream;
+
+/** Keeps every simulated rest of season of a projection so the projection can be updated when a real result arrives.
+ * Each simulated season, or universe, is stored as one byte per unplayed fixture for its scoreline and five shorts per team for its final stats,
+ * instead of as objects, so a few hundred bytes hold a whole universe.
+ * The simulated fixtures are independent of each other, so when a real result arrives every universe stays just as likely once its
+ * simulated result for that fixture is swapped for the real one. An update only has to adjust two teams and re-sort each universe's table,
+ * and more universes are only simulated if the odds are not precise enough yet.
+ */
+public class UniverseStore {
+
+    // Number of stats stored for each team in a universe, which are wins, draws, losses, goals for and goals against
+    private static final int STATS_PER_TEAM = 5;
+
+    // The season the universes are simulated from
+    private final SeasonData data;
+
+    // The tie-break rules used to sort each universe's table
+    private final LeagueRanker ranker;
+
+    // The seed every random stream of the universes is derived from
+    private final long seed;
+
+    // The fixtures simulated in each universe, which are the season's unplayed fixtures when the store was created
+    private final CompiledSchedule fixtures;
+
+    // The real scoreline of each fixture, packed the same way as the outcome table, or -1 if it is still simulated
+    private final int[] realOutcomes;
+
+    // Matches played by each team at the end of every universe, which is the same in all of them
+    private final int[] finalMatches;
+
+    // Simulated scoreline of every fixture in every universe, as home goals in the top four bits and away goals in the bottom four
+    private byte[] scorelines;
+
+    // Final wins, draws, losses, goals for and goals against of every team in every universe
+    private short[] stats;
+
+    // Number of universes stored
+    private int count;
+
+    // Number of universes the arrays have room for, which grows ahead of the count so adding universes does not copy the arrays every time
+    private int capacity;
+
+    // Finishing positions of the universes as they stand
+    private SimulationSummary summary;
+
+
+    /** Creates an empty store for the rest of a season
+     * @param data the season to simulate
+     * @param ranker the tie-break rules used to sort each universe's table
+     * @param seed the seed every random stream of the universes is derived from
+     */
+    public UniverseStore(SeasonData data, LeagueRanker ranker, long seed) {
+        if (data.getOutcomes().getTrials() > 15) {
+            throw new IllegalArgumentException("A universe store packs each side's goals into four bits, so it allows at most 15 trials");
+        }
+        this.data = data;
+        this.ranker = ranker;
+        this.seed = seed;
+        this.fixtures = data.getRemainingSchedule();
+        this.realOutcomes = new int[fixtures.size()];
+        Arrays.fill(realOutcomes, -1);
+        this.scorelines = new byte[0];
+        this.stats = new short[0];
+        this.summary = new SimulationSummary(data.getTeams().size());
+
+        // Every universe plays the same fixtures, so each team ends on the same number of matches
+        this.finalMatches = new int[data.getTeams().size()];
+        for (int team = 0; team < finalMatches.length; team++) {
+            finalMatches[team] = data.getCurrentTable()[team][1];
+        }
+        for (int i = 0; i < fixtures.size(); i++) {
+            finalMatches[fixtures.getHomeTeams()[i]]++;
+            finalMatches[fixtures.getAwayTeams()[i]]++;
+        }
+    }
+
+
+    /** Gets the season the universes are simulated from
+     * @return the season data
+     */
+    public SeasonData getData() {
+        return data;
+    }
+
+    /** Gets the number of universes stored
+     * @return the number of universes
+     */
+    public int getUniverseCount() {
+        return count;
+    }
+
+    /** Gets the finishing positions of the universes as they stand, with every real result so far swapped in
+     * @return the summary of every universe
+     */
+    public SimulationSummary getSummary() {
+        return summary;
+    }
+
+    /** Gets the number of bytes each universe takes up
+     * @return the bytes used by one universe
+     */
+    public int getBytesPerUniverse() {
+        return fixtures.size() + finalMatches.length * STATS_PER_TEAM * 2;
+    }
+
+    /** Checks if a fixture of the store has been given its real result
+     * @param fixture the position of the fixture in the schedule the store was created from
+     * @return true if the real result has been applied, otherwise false
+     */
+    public boolean isResolved(int fixture) {
+        return realOutcomes[fixture] >= 0;
+    }
+
+
+    /** Simulates more universes and adds them to the store. Universes are added in whole blocks of seasons, so the count is rounded up.
+     * @param runs the number of universes to add
+     */
+    public void addUniverses(int runs) {
+        addBlocks((runs + SimulateSeason.RUNS_PER_STREAM - 1) / SimulateSeason.RUNS_PER_STREAM, Integer.MAX_VALUE);
+    }
+
+
+    /** Simulates more universes until the odds are precise enough.
+     * Only whole blocks of seasons that fit under the most universes allowed are added, so the store never goes over it.
+     * @param targetError the largest standard error allowed for any title, top four or relegation probability
+     * @param maxUniverses the most universes to store if the target is not reached, which must allow at least one block of seasons
+     * @param batchRuns the number of universes to add between each precision check
+     */
+    public void topUp(double targetError, int maxUniverses, int batchRuns) {
+        int maxBlocks = maxUniverses / SimulateSeason.RUNS_PER_STREAM;
+        if (maxBlocks == 0) {
+            throw new IllegalArgumentException("A store needs room for at least " + SimulateSeason.RUNS_PER_STREAM + " universes");
+        }
+        int batchBlocks = Math.max(1, (batchRuns + SimulateSeason.RUNS_PER_STREAM - 1) / SimulateSeason.RUNS_PER_STREAM);
+
+        while (count < maxBlocks * SimulateSeason.RUNS_PER_STREAM && (count == 0 || summary.getMaxStandardError() > targetError)) {
+            addBlocks(Math.min(batchBlocks, maxBlocks - count / SimulateSeason.RUNS_PER_STREAM), maxBlocks * SimulateSeason.RUNS_PER_STREAM);
+        }
+    }
+
+
+    /** Simulates blocks of universes and adds them to the store
+     * @param blocks the number of blocks of seasons to add
+     * @param maxUniverses the most universes the store will be asked to hold, so the arrays never grow past it
+     */
+    private void addBlocks(int blocks, int maxUniverses) {
+        int firstBlock = count / SimulateSeason.RUNS_PER_STREAM;
+        int newCount = count + blocks * SimulateSeason.RUNS_PER_STREAM;
+
+        // Grows the arrays by half again when they are full, so adding many batches copies each universe only a few times
+        if (newCount > capacity) {
+            capacity = Math.max(newCount, (int) Math.min(maxUniverses, capacity + (long) capacity / 2));
+            scorelines = Arrays.copyOf(scorelines, capacity * fixtures.size());
+            stats = Arrays.copyOf(stats, capacity * finalMatches.length * STATS_PER_TEAM);
+        }
+
+        // Each block writes its own part of the arrays, so the blocks can be simulated at the same time
+        SimulationSummary added = IntStream.range(firstBlock, firstBlock + blocks).parallel().collect(
+                () -> new SimulationSummary(finalMatches.length),
+                (blockSummary, block) -> {
+                    simulateBlock(block);
+                    recordBlock(block, blockSummary);
+                },
+                SimulationSummary::merge);
+
+        count = newCount;
+        summary.merge(added);
+    }
+
+
+    /** Swaps the real result of a fixture into every universe and updates the odds
+     * @param fixture the position of the fixture in the schedule the store was created from
+     * @param homeGoals the real goals scored by the home team
+     * @param awayGoals the real goals scored by the away team
+     * @return the updated summary of every universe
+     */
+    public SimulationSummary applyResult(int fixture, int homeGoals, int awayGoals) {
+        if (fixture < 0 || fixture >= fixtures.size() || isResolved(fixture)) {
+            throw new IllegalArgumentException("Fixture " + fixture + " is not an unresolved fixture of the store");
+        }
+        if (homeGoals < 0 || awayGoals < 0 || homeGoals > 15 || awayGoals > 15) {
+            throw new IllegalArgumentException("Goals must be between 0 and 15");
+        }
+        realOutcomes[fixture] = (homeGoals << 8) | awayGoals;
+
+        int home = fixtures.getHomeTeams()[fixture];
+        int away = fixtures.getAwayTeams()[fixture];
+        int blocks = count / SimulateSeason.RUNS_PER_STREAM;
+
+        // Takes out each universe's simulated result and puts in the real one, then re-sorts every universe
+        summary = IntStream.range(0, blocks).parallel().collect(
+                () -> new SimulationSummary(finalMatches.length),
+                (blockSummary, block) -> {
+                    for (int universe = block * SimulateSeason.RUNS_PER_STREAM; universe < (block + 1) * SimulateSeason.RUNS_PER_STREAM; universe++) {
+                        int index = universe * fixtures.size() + fixture;
+                        int scoreline = scorelines[index];
+                        addResult(universe, home, away, (scoreline >>> 4) & 0xF, scoreline & 0xF, -1);
+                        addResult(universe, home, away, homeGoals, awayGoals, 1);
+                        scorelines[index] = (byte) ((homeGoals << 4) | awayGoals);
+                    }
+                    recordBlock(block, blockSummary);
+                },
+                SimulationSummary::merge);
+        return summary;
+    }
+
+
+    /** Simulates one block of universes into the store, keeping the real result of every resolved fixture
+     * @param block the number of the block of universes
+     */
+    private void simulateBlock(int block) {
+        SplittableRandom random = SimulateSeason.createStream(seed, block);
+        OutcomeTable outcomes = data.getOutcomes();
+        int[] homeTeams = fixtures.getHomeTeams();
+        int[] awayTeams = fixtures.getAwayTeams();
+
+        // Random bits and scorelines of a batch of universes, stored universe after universe with one entry per fixture
+        long[] bits = new long[SeasonSimulator.BATCH_SEASONS * homeTeams.length];
+        int[] drawn = new int[bits.length];
+
+        for (int first = block * SimulateSeason.RUNS_PER_STREAM; first < (block + 1) * SimulateSeason.RUNS_PER_STREAM; first += SeasonSimulator.BATCH_SEASONS) {
+
+            // Draws every fixture so each block uses the same random numbers as the other simulations, sampling each fixture across the batch at once
+            for (int i = 0; i < bits.length; i++) {
+                bits[i] = random.nextLong();
+            }
+            for (int i = 0; i < homeTeams.length; i++) {
+                outcomes.sampleBatch(homeTeams[i], awayTeams[i], bits, drawn, i, homeTeams.length, SeasonSimulator.BATCH_SEASONS);
+            }
+
+            for (int universe = first; universe < first + SeasonSimulator.BATCH_SEASONS; universe++) {
+
+                // Starts the universe from the real table
+                for (int team = 0; team < finalMatches.length; team++) {
+                    int[] row = data.getCurrentTable()[team];
+                    int offset = (universe * finalMatches.length + team) * STATS_PER_TEAM;
+                    stats[offset] = (short) row[2];
+                    stats[offset + 1] = (short) row[3];
+                    stats[offset + 2] = (short) row[4];
+                    stats[offset + 3] = (short) row[6];
+                    stats[offset + 4] = (short) row[7];
+                }
+
+                // Keeps the real result of a fixture if there is one
+                for (int i = 0; i < homeTeams.length; i++) {
+                    int outcome = drawn[(universe - first) * homeTeams.length + i];
+                    if (realOutcomes[i] >= 0) {
+                        outcome = realOutcomes[i];
+                    }
+
+                    int homeGoals = OutcomeTable.homeGoals(outcome);
+                    int awayGoals = OutcomeTable.awayGoals(outcome);
+                    scorelines[universe * homeTeams.length + i] = (byte) ((homeGoals << 4) | awayGoals);
+                    addResult(universe, homeTeams[i], awayTeams[i], homeGoals, awayGoals, 1);
+                }
+            }
+        }
+    }
+
+
+    /** Sorts the table of every universe in a block and records where each team finishes
+     * @param block the number of the block of universes
+     * @param blockSummary the summary to record the block in
+     */
+    private void recordBlock(int block, SimulationSummary blockSummary) {
+        int[][] table = new int[finalMatches.length][10];
+        int[][] standings = new int[finalMatches.length][];
+        long[] sortKeys = new long[finalMatches.length];
+
+        for (int universe = block * SimulateSeason.RUNS_PER_STREAM; universe < (block + 1) * SimulateSeason.RUNS_PER_STREAM; universe++) {
+
+            // Rebuilds the full rows of the table from the stored stats
+            for (int team = 0; team < finalMatches.length; team++) {
+                int offset = (universe * finalMatches.length + team) * STATS_PER_TEAM;
+                int[] row = table[team];
+                row[0] = team;
+                row[1] = finalMatches[team];
+                row[2] = stats[offset];
+                row[3] = stats[offset + 1];
+                row[4] = stats[offset + 2];
+                row[5] = 3 * row[2] + row[3];
+                row[6] = stats[offset + 3];
+                row[7] = stats[offset + 4];
+                row[8] = row[6] - row[7];
+            }
+
+            System.arraycopy(table, 0, standings, 0, table.length);
+            ranker.rank(standings, sortKeys);
+            blockSummary.record(standings);
+        }
+    }
+
+
+    /** Adds a result to the stored stats of a universe, or takes it back out
+     * @param universe the number of the universe
+     * @param home the index of the home team
+     * @param away the index of the away team
+     * @param homeGoals the goals scored by the home team
+     * @param awayGoals the goals scored by the away team
+     * @param change 1 to add the result, or -1 to take it back out
+     */
+    private void addResult(int universe, int home, int away, int homeGoals, int awayGoals, int change) {
+        int homeOffset = (universe * finalMatches.length + home) * STATS_PER_TEAM;
+        int awayOffset = (universe * finalMatches.length + away) * STATS_PER_TEAM;
+
+        // Adds a win and a loss, or a draw for both teams
+        if (homeGoals > awayGoals) {
+            stats[homeOffset] += change;
+            stats[awayOffset + 2] += change;
+        } else if (homeGoals < awayGoals) {
+            stats[awayOffset] += change;
+            stats[homeOffset + 2] += change;
+        } else {
+            stats[homeOffset + 1] += change;
+            stats[awayOffset + 1] += change;
+        }
+
+        // Adds the goals for and against both teams
+        stats[homeOffset + 3] += homeGoals * change;
+        stats[homeOffset + 4] += awayGoals * change;
+        stats[awayOffset + 3] += awayGoals * change;
+        stats[awayOffset + 4] += homeGoals * change;
+    }
+}